@@ -0,0 +1,700 @@
+package edu.ncsu.csc216.pack_scheduler.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.ncsu.csc216.pack_scheduler.util.ArrayList;
+import edu.ncsu.csc216.pack_scheduler.util.ArrayQueue;
+import edu.ncsu.csc216.pack_scheduler.util.ArrayStack;
+import edu.ncsu.csc216.pack_scheduler.util.LinkedAbstractList;
+import edu.ncsu.csc216.pack_scheduler.util.LinkedList;
+import edu.ncsu.csc216.pack_scheduler.util.LinkedListRecursive;
+import edu.ncsu.csc216.pack_scheduler.util.LinkedQueue;
+import edu.ncsu.csc216.pack_scheduler.util.LinkedStack;
+import edu.ncsu.csc216.pack_scheduler.util.Queue;
+import edu.ncsu.csc216.pack_scheduler.util.Stack;
+
+/**
+ * Microbenchmarks for the collections in the util package. Each benchmark times
+ * one operation (add, get, remove, iteration, enqueue, dequeue, push or pop)
+ * repeated once for every element of a collection, at sizes from 10 up to one
+ * million, and reports the average time per operation. Every measurement is
+ * preceded by warmup runs so the JIT has compiled the code being timed, and
+ * every result is folded into a checksum so it cannot be optimized away.
+ *
+ * The quadratic operations would take hours at the largest sizes, so once a
+ * run of a benchmark goes over the time budget its larger sizes are skipped.
+ * The same happens when a recursive list overflows the stack.
+ *
+ * Results are appended to a history file along with the time and a label, such
+ * as a commit id. Each new result is compared with the last one recorded for
+ * the same benchmark and size, and any that slowed down by more than the
+ * threshold are reported as regressions. Run it with arguments of the form
+ * name=value, for example:
+ *
+ * <pre>
+ * java edu.ncsu.csc216.pack_scheduler.benchmark.CollectionsBenchmark history=benchmark-history.csv label=abc1234 fail=true
+ * </pre>
+ *
+ * @author Anton Nikulsin
+ */
+public class CollectionsBenchmark {
+
+	/** Header line of the history file */
+	private static final String HISTORY_HEADER = "time,label,benchmark,size,nsPerOp";
+	/** Shortest time a single sample may take, in nanoseconds */
+	private static final long SAMPLE_NANOS = 5000000;
+
+	/** Sizes every benchmark is run at */
+	private int[] sizes = { 10, 100, 1000, 10000, 100000, 1000000 };
+	/** Number of untimed runs before each measurement */
+	private int warmups = 3;
+	/** Number of timed runs averaged into each measurement */
+	private int iterations = 5;
+	/** Longest a single run may take, in milliseconds, before larger sizes are skipped */
+	private long budgetMillis = 2000;
+	/** Slowdown, in percent, that counts as a regression */
+	private int thresholdPercent = 25;
+	/** File results are appended to, or null to not track them */
+	private File history;
+	/** Label recorded with the results */
+	private String label = "local";
+	/** Whether main should exit with an error when there are regressions */
+	private boolean failOnRegression;
+
+	/** Sink for the checksums of every run */
+	private long checksum;
+
+	/**
+	 * Runs every benchmark, prints the results and any regressions, and records
+	 * the results in the history file. Accepted arguments are sizes (a comma
+	 * separated list), warmups, iterations, budget (milliseconds), threshold
+	 * (percent), history, label and fail.
+	 *
+	 * @param args the name=value arguments
+	 * @throws IOException if the history file cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		CollectionsBenchmark benchmark = new CollectionsBenchmark();
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (eq < 0) {
+				throw new IllegalArgumentException("Arguments must be name=value: " + arg);
+			}
+			benchmark.setOption(arg.substring(0, eq), arg.substring(eq + 1));
+		}
+		Map<String, Double> results = benchmark.run();
+		for (Map.Entry<String, Double> e : results.entrySet()) {
+			System.out.println(String.format("%-40s %14.1f ns/op", e.getKey(), e.getValue()));
+		}
+		List<String> regressions = benchmark.record(results);
+		for (String r : regressions) {
+			System.out.println("REGRESSION " + r);
+		}
+		if (benchmark.failOnRegression && !regressions.isEmpty()) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Sets one of the benchmark's options by name.
+	 *
+	 * @param name  the name of the option
+	 * @param value the value of the option
+	 * @throws IllegalArgumentException if the name is unknown or the value is
+	 *                                  invalid
+	 */
+	public void setOption(String name, String value) {
+		switch (name) {
+		case "sizes":
+			String[] parts = value.split(",");
+			sizes = new int[parts.length];
+			for (int i = 0; i < parts.length; i++) {
+				sizes[i] = positive(name, parts[i].trim());
+			}
+			break;
+		case "warmups":
+			warmups = positive(name, value);
+			break;
+		case "iterations":
+			iterations = positive(name, value);
+			break;
+		case "budget":
+			budgetMillis = positive(name, value);
+			break;
+		case "threshold":
+			thresholdPercent = positive(name, value);
+			break;
+		case "history":
+			history = new File(value);
+			break;
+		case "label":
+			if (value.contains(",")) {
+				throw new IllegalArgumentException("label cannot contain a comma");
+			}
+			label = value;
+			break;
+		case "fail":
+			failOnRegression = Boolean.parseBoolean(value);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown option " + name);
+		}
+	}
+
+	/**
+	 * Runs every benchmark at every size within the time budget.
+	 *
+	 * @return the average nanoseconds per operation, keyed by benchmark name and
+	 *         size in the order they were run
+	 */
+	public Map<String, Double> run() {
+		Map<String, Double> results = new LinkedHashMap<String, Double>();
+		for (Benchmark b : benchmarks()) {
+			double previousNanos = 0;
+			double growth = 1;
+			for (int n : sizes) {
+				// Skip sizes whose runs are predicted to go over budget, assuming the time
+				// grows as it did between the last two sizes
+				if (previousNanos * growth > budgetMillis * 1000000.0) {
+					break;
+				}
+				try {
+					long start = System.nanoTime();
+					results.put(b.name + "/" + n, measure(b, n));
+					double nanos = (double) (System.nanoTime() - start) / (warmups + iterations);
+					growth = previousNanos > 0 ? Math.max(1, nanos / previousNanos) : 1;
+					previousNanos = nanos;
+				} catch (StackOverflowError e) {
+					break;
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Appends results to the history file and compares them with the last result
+	 * recorded for each benchmark and size. Nothing is recorded if there is no
+	 * history file.
+	 *
+	 * @param results the results to record
+	 * @return a description of every result that slowed down by more than the
+	 *         threshold
+	 * @throws IOException if the history file cannot be read or written
+	 */
+	public List<String> record(Map<String, Double> results) throws IOException {
+		List<String> regressions = new java.util.ArrayList<String>();
+		if (history == null) {
+			return regressions;
+		}
+		Map<String, Double> last = new HashMap<String, Double>();
+		boolean exists = history.exists();
+		if (exists) {
+			try (BufferedReader in = new BufferedReader(new FileReader(history))) {
+				String line;
+				while ((line = in.readLine()) != null) {
+					String[] fields = line.split(",");
+					if (fields.length == 5 && !line.equals(HISTORY_HEADER)) {
+						last.put(fields[2] + "/" + fields[3], Double.valueOf(fields[4]));
+					}
+				}
+			}
+		}
+		for (Map.Entry<String, Double> e : results.entrySet()) {
+			Double before = last.get(e.getKey());
+			if (before != null && e.getValue() > before * (100 + thresholdPercent) / 100) {
+				regressions.add(String.format("%s: %.1f ns/op, was %.1f ns/op", e.getKey(), e.getValue(), before));
+			}
+		}
+
+		String time = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").format(new Date());
+		try (PrintWriter out = new PrintWriter(new FileWriter(history, true))) {
+			if (!exists) {
+				out.println(HISTORY_HEADER);
+			}
+			for (Map.Entry<String, Double> e : results.entrySet()) {
+				int slash = e.getKey().lastIndexOf('/');
+				out.println(String.format("%s,%s,%s,%s,%.1f", time, label, e.getKey().substring(0, slash),
+						e.getKey().substring(slash + 1), e.getValue()));
+			}
+		}
+		return regressions;
+	}
+
+	/**
+	 * Returns the checksum of every run so far. It only exists so the results of
+	 * the timed code are used.
+	 *
+	 * @return the checksum
+	 */
+	public long getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * Warms up and then times a benchmark at one size. Small sizes finish too
+	 * quickly to time accurately, so each warmup and timed sample repeats the run
+	 * until it has taken at least five milliseconds.
+	 *
+	 * @param b the benchmark
+	 * @param n the size
+	 * @return the average nanoseconds per operation
+	 */
+	private double measure(Benchmark b, int n) {
+		Integer[] elements = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			elements[i] = Integer.valueOf(i);
+		}
+		for (int i = 0; i < warmups; i++) {
+			sample(b, elements);
+		}
+		double total = 0;
+		for (int i = 0; i < iterations; i++) {
+			total += sample(b, elements);
+		}
+		return total / iterations;
+	}
+
+	/**
+	 * Repeats a run until it has taken at least SAMPLE_NANOS, timing only the
+	 * runs and not their setup.
+	 *
+	 * @param b        the benchmark
+	 * @param elements the elements of each run
+	 * @return the average nanoseconds per operation
+	 */
+	private double sample(Benchmark b, Integer[] elements) {
+		long elapsed = 0;
+		long runs = 0;
+		do {
+			b.setUp(elements);
+			long start = System.nanoTime();
+			checksum += b.run(elements);
+			elapsed += System.nanoTime() - start;
+			runs++;
+		} while (elapsed < SAMPLE_NANOS);
+		return (double) elapsed / runs / elements.length;
+	}
+
+	/**
+	 * Returns every benchmark.
+	 *
+	 * @return the benchmarks
+	 */
+	private static Benchmark[] benchmarks() {
+		List<Benchmark> list = new java.util.ArrayList<Benchmark>();
+		addListBenchmarks(list, "ArrayList", new ListFactory() {
+			@Override
+			public List<Integer> create(int capacity) {
+				return new ArrayList<Integer>();
+			}
+		});
+		addListBenchmarks(list, "LinkedAbstractList", new ListFactory() {
+			@Override
+			public List<Integer> create(int capacity) {
+				return new LinkedAbstractList<Integer>(capacity);
+			}
+		});
+		addListBenchmarks(list, "LinkedList", new ListFactory() {
+			@Override
+			public List<Integer> create(int capacity) {
+				return new LinkedList<Integer>();
+			}
+		});
+		addRecursiveListBenchmarks(list);
+		addQueueBenchmarks(list, "ArrayQueue", new QueueFactory() {
+			@Override
+			public Queue<Integer> create(int capacity) {
+				return new ArrayQueue<Integer>(capacity);
+			}
+		});
+		addQueueBenchmarks(list, "LinkedQueue", new QueueFactory() {
+			@Override
+			public Queue<Integer> create(int capacity) {
+				return new LinkedQueue<Integer>(capacity);
+			}
+		});
+		addStackBenchmarks(list, "ArrayStack", new StackFactory() {
+			@Override
+			public Stack<Integer> create(int capacity) {
+				return new ArrayStack<Integer>(capacity);
+			}
+		});
+		addStackBenchmarks(list, "LinkedStack", new StackFactory() {
+			@Override
+			public Stack<Integer> create(int capacity) {
+				return new LinkedStack<Integer>(capacity);
+			}
+		});
+		return list.toArray(new Benchmark[list.size()]);
+	}
+
+	/**
+	 * Adds the add, get, remove and iteration benchmarks for a list.
+	 *
+	 * @param list    the list of benchmarks to add to
+	 * @param name    the name of the list class
+	 * @param factory creates empty lists of the class
+	 */
+	private static void addListBenchmarks(List<Benchmark> list, String name, final ListFactory factory) {
+		list.add(new Benchmark(name + ".add") {
+			@Override
+			void setUp(Integer[] elements) {
+				target = factory.create(elements.length);
+			}
+
+			@Override
+			long run(Integer[] elements) {
+				for (Integer e : elements) {
+					target.add(e);
+				}
+				return target.size();
+			}
+		});
+		list.add(new FilledListBenchmark(name + ".get", factory) {
+			@Override
+			long run(Integer[] elements) {
+				long sum = 0;
+				for (int i = 0; i < elements.length; i++) {
+					sum += target.get(i);
+				}
+				return sum;
+			}
+		});
+		list.add(new FilledListBenchmark(name + ".iterate", factory) {
+			@Override
+			long run(Integer[] elements) {
+				long sum = 0;
+				for (Integer e : target) {
+					sum += e;
+				}
+				return sum;
+			}
+		});
+		list.add(new FilledListBenchmark(name + ".removeFirst", factory) {
+			@Override
+			long run(Integer[] elements) {
+				long sum = 0;
+				while (!target.isEmpty()) {
+					sum += target.remove(0);
+				}
+				return sum;
+			}
+		});
+		list.add(new FilledListBenchmark(name + ".removeLast", factory) {
+			@Override
+			long run(Integer[] elements) {
+				long sum = 0;
+				while (!target.isEmpty()) {
+					sum += target.remove(target.size() - 1);
+				}
+				return sum;
+			}
+		});
+	}
+
+	/**
+	 * Adds the add, get and remove benchmarks for LinkedListRecursive, which is
+	 * not a java.util.List.
+	 *
+	 * @param list the list of benchmarks to add to
+	 */
+	private static void addRecursiveListBenchmarks(List<Benchmark> list) {
+		list.add(new Benchmark("LinkedListRecursive.add") {
+			/** List being benchmarked */
+			private LinkedListRecursive<Integer> recursive;
+
+			@Override
+			void setUp(Integer[] elements) {
+				recursive = new LinkedListRecursive<Integer>();
+			}
+
+			@Override
+			long run(Integer[] elements) {
+				for (Integer e : elements) {
+					recursive.add(e);
+				}
+				return recursive.size();
+			}
+		});
+		list.add(new Benchmark("LinkedListRecursive.get") {
+			/** List being benchmarked */
+			private LinkedListRecursive<Integer> recursive;
+
+			@Override
+			void setUp(Integer[] elements) {
+				recursive = filledRecursive(elements);
+			}
+
+			@Override
+			long run(Integer[] elements) {
+				long sum = 0;
+				for (int i = 0; i < elements.length; i++) {
+					sum += recursive.get(i);
+				}
+				return sum;
+			}
+		});
+		list.add(new Benchmark("LinkedListRecursive.removeLast") {
+			/** List being benchmarked */
+			private LinkedListRecursive<Integer> recursive;
+
+			@Override
+			void setUp(Integer[] elements) {
+				recursive = filledRecursive(elements);
+			}
+
+			@Override
+			long run(Integer[] elements) {
+				long sum = 0;
+				while (!recursive.isEmpty()) {
+					sum += recursive.remove(recursive.size() - 1);
+				}
+				return sum;
+			}
+		});
+	}
+
+	/**
+	 * Returns a LinkedListRecursive holding the given elements.
+	 *
+	 * @param elements the elements
+	 * @return the list
+	 */
+	private static LinkedListRecursive<Integer> filledRecursive(Integer[] elements) {
+		LinkedListRecursive<Integer> recursive = new LinkedListRecursive<Integer>();
+		for (int i = elements.length - 1; i >= 0; i--) {
+			recursive.add(0, elements[i]);
+		}
+		return recursive;
+	}
+
+	/**
+	 * Adds the enqueue and dequeue benchmarks for a queue.
+	 *
+	 * @param list    the list of benchmarks to add to
+	 * @param name    the name of the queue class
+	 * @param factory creates empty queues of the class
+	 */
+	private static void addQueueBenchmarks(List<Benchmark> list, String name, final QueueFactory factory) {
+		list.add(new Benchmark(name + ".enqueue") {
+			/** Queue being benchmarked */
+			private Queue<Integer> queue;
+
+			@Override
+			void setUp(Integer[] elements) {
+				queue = factory.create(elements.length);
+			}
+
+			@Override
+			long run(Integer[] elements) {
+				for (Integer e : elements) {
+					queue.enqueue(e);
+				}
+				return queue.size();
+			}
+		});
+		list.add(new Benchmark(name + ".dequeue") {
+			/** Queue being benchmarked */
+			private Queue<Integer> queue;
+
+			@Override
+			void setUp(Integer[] elements) {
+				queue = factory.create(elements.length);
+				for (Integer e : elements) {
+					queue.enqueue(e);
+				}
+			}
+
+			@Override
+			long run(Integer[] elements) {
+				long sum = 0;
+				while (!queue.isEmpty()) {
+					sum += queue.dequeue();
+				}
+				return sum;
+			}
+		});
+	}
+
+	/**
+	 * Adds the push and pop benchmarks for a stack.
+	 *
+	 * @param list    the list of benchmarks to add to
+	 * @param name    the name of the stack class
+	 * @param factory creates empty stacks of the class
+	 */
+	private static void addStackBenchmarks(List<Benchmark> list, String name, final StackFactory factory) {
+		list.add(new Benchmark(name + ".push") {
+			/** Stack being benchmarked */
+			private Stack<Integer> stack;
+
+			@Override
+			void setUp(Integer[] elements) {
+				stack = factory.create(elements.length);
+			}
+
+			@Override
+			long run(Integer[] elements) {
+				for (Integer e : elements) {
+					stack.push(e);
+				}
+				return stack.size();
+			}
+		});
+		list.add(new Benchmark(name + ".pop") {
+			/** Stack being benchmarked */
+			private Stack<Integer> stack;
+
+			@Override
+			void setUp(Integer[] elements) {
+				stack = factory.create(elements.length);
+				for (Integer e : elements) {
+					stack.push(e);
+				}
+			}
+
+			@Override
+			long run(Integer[] elements) {
+				long sum = 0;
+				while (!stack.isEmpty()) {
+					sum += stack.pop();
+				}
+				return sum;
+			}
+		});
+	}
+
+	/**
+	 * Parses a positive integer option.
+	 *
+	 * @param name  the name of the option
+	 * @param value the value to parse
+	 * @return the parsed value
+	 * @throws IllegalArgumentException if the value is not a positive integer
+	 */
+	private static int positive(String name, String value) {
+		int n = Integer.parseInt(value);
+		if (n <= 0) {
+			throw new IllegalArgumentException(name + " must be positive");
+		}
+		return n;
+	}
+
+	/**
+	 * One timed operation. setUp is called before every run and is not timed.
+	 * run performs the operation once for every element and returns a checksum
+	 * of what it did.
+	 *
+	 * @author Anton Nikulsin
+	 */
+	private abstract static class Benchmark {
+		/** Name of the benchmark */
+		private final String name;
+		/** List being benchmarked, for list benchmarks */
+		protected List<Integer> target;
+
+		/**
+		 * Creates a benchmark with the given name.
+		 *
+		 * @param name the name
+		 */
+		Benchmark(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Prepares for a run.
+		 *
+		 * @param elements the elements of the run
+		 */
+		abstract void setUp(Integer[] elements);
+
+		/**
+		 * Performs the timed operation.
+		 *
+		 * @param elements the elements of the run
+		 * @return a checksum of the run
+		 */
+		abstract long run(Integer[] elements);
+	}
+
+	/**
+	 * A list benchmark that starts each run with a list holding every element.
+	 *
+	 * @author Anton Nikulsin
+	 */
+	private abstract static class FilledListBenchmark extends Benchmark {
+		/** Creates the lists */
+		private final ListFactory factory;
+
+		/**
+		 * Creates a benchmark with the given name.
+		 *
+		 * @param name    the name
+		 * @param factory creates empty lists
+		 */
+		FilledListBenchmark(String name, ListFactory factory) {
+			super(name);
+			this.factory = factory;
+		}
+
+		@Override
+		void setUp(Integer[] elements) {
+			target = factory.create(elements.length);
+			for (Integer e : elements) {
+				target.add(e);
+			}
+		}
+	}
+
+	/**
+	 * Creates empty lists of one class.
+	 */
+	private interface ListFactory {
+		/**
+		 * Creates an empty list.
+		 *
+		 * @param capacity the number of elements the list must hold
+		 * @return the list
+		 */
+		List<Integer> create(int capacity);
+	}
+
+	/**
+	 * Creates empty queues of one class.
+	 */
+	private interface QueueFactory {
+		/**
+		 * Creates an empty queue.
+		 *
+		 * @param capacity the number of elements the queue must hold
+		 * @return the queue
+		 */
+		Queue<Integer> create(int capacity);
+	}
+
+	/**
+	 * Creates empty stacks of one class.
+	 */
+	private interface StackFactory {
+		/**
+		 * Creates an empty stack.
+		 *
+		 * @param capacity the number of elements the stack must hold
+		 * @return the stack
+		 */
+		Stack<Integer> create(int capacity);
+	}
+}
@@ -0,0 +1,509 @@
+package edu.ncsu.csc216.pack_scheduler.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import edu.ncsu.csc216.pack_scheduler.catalog.CourseCatalog;
+import edu.ncsu.csc216.pack_scheduler.course.Course;
+import edu.ncsu.csc216.pack_scheduler.course.roll.CourseRoll;
+import edu.ncsu.csc216.pack_scheduler.directory.FacultyDirectory;
+import edu.ncsu.csc216.pack_scheduler.directory.StudentDirectory;
+import edu.ncsu.csc216.pack_scheduler.manager.RegistrationManager;
+import edu.ncsu.csc216.pack_scheduler.user.Faculty;
+import edu.ncsu.csc216.pack_scheduler.user.Student;
+import edu.ncsu.csc216.pack_scheduler.user.schedule.Schedule;
+
+/**
+ * Simulates a registration rush and reports how the system holds up. The
+ * benchmark synthesizes a faculty directory, a student directory and a course
+ * catalog of the configured sizes, saves them as ordinary record files, and
+ * loads them back through the RegistrationManager. It then replays random
+ * enroll, drop and reset requests from many threads at once. Popular courses
+ * are picked far more often than others, so rolls fill up and waitlists are
+ * exercised.
+ *
+ * Afterwards it reports throughput, latency percentiles and a check of the
+ * final seat and waitlist invariants. Run it with arguments of the form
+ * name=value, for example:
+ *
+ * <pre>
+ * java edu.ncsu.csc216.pack_scheduler.benchmark.RegistrationBenchmark courses=6000 students=35000 threads=16
+ * </pre>
+ *
+ * @author Anton Nikulsin
+ */
+public class RegistrationBenchmark {
+
+	/** Subject prefixes used for synthesized course names */
+	private static final String[] SUBJECTS = { "CSC", "MA", "PY", "ECE", "ST", "E", "HI", "BIO", "CH", "ENG" };
+	/** Meeting day patterns used for synthesized courses */
+	private static final String[] DAYS = { "MW", "TH", "MWF", "MW", "TH", "F", "A" };
+	/** Start times used for synthesized courses */
+	private static final int[] START_TIMES = { 800, 830, 915, 1005, 1040, 1130, 1220, 1330, 1445, 1500, 1630, 1800 };
+	/** Lengths in minutes used for synthesized courses */
+	private static final int[] LENGTHS = { 50, 75, 110 };
+	/** Password given to every synthesized user */
+	private static final String PASSWORD = "pw";
+
+	/** Number of course sections to synthesize */
+	private int numCourses = 2000;
+	/** Number of students to synthesize */
+	private int numStudents = 10000;
+	/** Number of faculty to synthesize */
+	private int numFaculty = 500;
+	/** Number of threads sending requests */
+	private int numThreads = Runtime.getRuntime().availableProcessors();
+	/** Number of requests each thread sends */
+	private int opsPerThread = 20000;
+	/** Seed for every random choice, so runs can be repeated */
+	private long seed = 216;
+	/** Directory the record files are written to, or null for a temporary one */
+	private File dataDir;
+
+	/**
+	 * Runs the benchmark with the sizes given on the command line and prints its
+	 * report. Accepted arguments are courses, students, faculty, threads, ops
+	 * (requests per thread), seed and dir.
+	 *
+	 * @param args the name=value arguments
+	 * @throws IOException if the record files cannot be written
+	 * @throws InterruptedException if interrupted while waiting for the threads
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		RegistrationBenchmark benchmark = new RegistrationBenchmark();
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (eq < 0) {
+				throw new IllegalArgumentException("Arguments must be name=value: " + arg);
+			}
+			benchmark.setOption(arg.substring(0, eq), arg.substring(eq + 1));
+		}
+		System.out.print(benchmark.run(RegistrationManager.getInstance()));
+	}
+
+	/**
+	 * Sets one of the benchmark's options by name.
+	 *
+	 * @param name  the name of the option
+	 * @param value the value of the option
+	 * @throws IllegalArgumentException if the name is unknown or the value is
+	 *                                  invalid
+	 */
+	public void setOption(String name, String value) {
+		switch (name) {
+		case "courses":
+			numCourses = positive(name, value);
+			break;
+		case "students":
+			numStudents = positive(name, value);
+			break;
+		case "faculty":
+			numFaculty = positive(name, value);
+			break;
+		case "threads":
+			numThreads = positive(name, value);
+			break;
+		case "ops":
+			opsPerThread = positive(name, value);
+			break;
+		case "seed":
+			seed = Long.parseLong(value);
+			break;
+		case "dir":
+			dataDir = new File(value);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown option " + name);
+		}
+	}
+
+	/**
+	 * Synthesizes and loads the data, replays the traffic and checks the result.
+	 * Any data already in the manager is cleared.
+	 *
+	 * @param manager the manager to run the benchmark against
+	 * @return the report
+	 * @throws IOException if the record files cannot be written
+	 * @throws InterruptedException if interrupted while waiting for the threads
+	 */
+	public Report run(RegistrationManager manager) throws IOException, InterruptedException {
+		Report report = new Report();
+		File dir = dataDir != null ? dataDir : Files.createTempDirectory("packscheduler").toFile();
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Cannot create " + dir);
+		}
+		File facultyFile = new File(dir, "faculty_records.txt");
+		File studentFile = new File(dir, "student_records.txt");
+		File courseFile = new File(dir, "course_records.txt");
+
+		long start = System.nanoTime();
+		manager.clearData();
+		writeFaculty(manager.getFacultyDirectory(), facultyFile);
+		writeStudents(manager.getStudentDirectory(), studentFile);
+		writeCourses(manager.getCourseCatalog(), courseFile);
+		report.generateMillis = (System.nanoTime() - start) / 1000000;
+
+		start = System.nanoTime();
+		manager.clearData();
+		manager.getFacultyDirectory().loadFacultyFromFile(facultyFile.getPath());
+		manager.getStudentDirectory().loadStudentsFromFile(studentFile.getPath());
+		manager.getCourseCatalog().loadCoursesFromFile(courseFile.getPath());
+		report.loadMillis = (System.nanoTime() - start) / 1000000;
+
+		String[][] catalogRows = manager.getCourseCatalog().getCourseCatalog();
+		Course[] courses = new Course[catalogRows.length];
+		for (int i = 0; i < courses.length; i++) {
+			courses[i] = manager.getCourseCatalog().getCourseFromCatalog(catalogRows[i][0], catalogRows[i][1]);
+		}
+		String[][] studentRows = manager.getStudentDirectory().getStudentDirectory();
+		Student[] students = new Student[studentRows.length];
+		for (int i = 0; i < students.length; i++) {
+			students[i] = manager.getStudentDirectory().getStudentById(studentRows[i][2]);
+		}
+		report.courses = courses.length;
+		report.students = students.length;
+
+		replay(manager, courses, students, report);
+		checkInvariants(courses, students, report);
+		return report;
+	}
+
+	/**
+	 * Adds the synthesized faculty to the directory and saves it.
+	 *
+	 * @param directory the directory to add to
+	 * @param file      the file to save to
+	 */
+	private void writeFaculty(FacultyDirectory directory, File file) {
+		for (int i = 0; i < numFaculty; i++) {
+			directory.addFaculty("Faculty" + i, "Member" + i, facultyId(i), "faculty" + i + "@ncsu.edu", PASSWORD, PASSWORD,
+					1 + i % 3);
+		}
+		directory.saveFacultyDirectory(file.getPath());
+	}
+
+	/**
+	 * Adds the synthesized students to the directory and saves it.
+	 *
+	 * @param directory the directory to add to
+	 * @param file      the file to save to
+	 */
+	private void writeStudents(StudentDirectory directory, File file) {
+		Random random = new Random(seed);
+		for (int i = 0; i < numStudents; i++) {
+			directory.addStudent("Student" + i, "Last" + random.nextInt(numStudents), "stu" + i, "stu" + i + "@ncsu.edu",
+					PASSWORD, PASSWORD, 9 + random.nextInt(Student.MAX_CREDITS - 8));
+		}
+		directory.saveStudentDirectory(file.getPath());
+	}
+
+	/**
+	 * Adds the synthesized courses to the catalog and saves it. Each faculty
+	 * member is given courses until they reach three, skipping any that would
+	 * conflict with a course they already teach, so every instructor in the file
+	 * can be bound when the catalog is loaded.
+	 *
+	 * @param catalog the catalog to add to
+	 * @param file    the file to save to
+	 */
+	private void writeCourses(CourseCatalog catalog, File file) {
+		Random random = new Random(seed + 1);
+		Course[][] teaching = new Course[numFaculty][3];
+		int[] numTeaching = new int[numFaculty];
+		int nextFaculty = 0;
+		for (int i = 0; i < numCourses; i++) {
+			String name = SUBJECTS[i % SUBJECTS.length] + (100 + (i / SUBJECTS.length) / 20 % 900);
+			String section = String.format("%03d", 1 + (i / SUBJECTS.length) % 20 + (i / (SUBJECTS.length * 20 * 900)) * 20);
+			String days = DAYS[random.nextInt(DAYS.length)];
+			int startTime = 0;
+			int endTime = 0;
+			if (!"A".equals(days)) {
+				startTime = START_TIMES[random.nextInt(START_TIMES.length)];
+				int end = startTime / 100 * 60 + startTime % 100 + LENGTHS[random.nextInt(LENGTHS.length)];
+				endTime = end / 60 * 100 + end % 60;
+			}
+			Course course = new Course(name, "Course " + i, section, 1 + random.nextInt(4), null, 10 + random.nextInt(241),
+					days, startTime, endTime);
+
+			String instructorId = null;
+			for (int tries = 0; tries < numFaculty && instructorId == null; tries++) {
+				int f = nextFaculty;
+				nextFaculty = (nextFaculty + 1) % numFaculty;
+				if (numTeaching[f] < teaching[f].length && fits(course, teaching[f], numTeaching[f])) {
+					teaching[f][numTeaching[f]++] = course;
+					instructorId = facultyId(f);
+				}
+			}
+			catalog.addCourseToCatalog(name, course.getTitle(), section, course.getCredits(), instructorId,
+					course.getCourseRoll().getEnrollmentCap(), days, startTime, endTime);
+		}
+		catalog.saveCourseCatalog(file.getPath());
+	}
+
+	/**
+	 * Returns true if a course could be added to a faculty member's courses
+	 * without a duplicate name or a time conflict.
+	 *
+	 * @param course   the course to check
+	 * @param teaching the faculty member's courses
+	 * @param count    the number of courses in teaching
+	 * @return true if the course fits
+	 */
+	private static boolean fits(Course course, Course[] teaching, int count) {
+		for (int i = 0; i < count; i++) {
+			if (teaching[i].hasSameName(course) || teaching[i].conflictsWith(course)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sends random requests from every thread at once and records their
+	 * latencies. Seven in ten requests enroll in a course, most of the rest drop
+	 * a course the student holds, and a few reset the student's schedule.
+	 *
+	 * @param manager  the manager to send the requests to
+	 * @param courses  the courses in the catalog
+	 * @param students the students in the directory
+	 * @param report   the report to fill in
+	 * @throws InterruptedException if interrupted while waiting for the threads
+	 */
+	private void replay(final RegistrationManager manager, final Course[] courses, final Student[] students, Report report)
+			throws InterruptedException {
+		final long[][] latencies = new long[numThreads][opsPerThread];
+		final int[][] counts = new int[numThreads][4];
+		final CountDownLatch ready = new CountDownLatch(1);
+		Thread[] threads = new Thread[numThreads];
+		for (int t = 0; t < numThreads; t++) {
+			final int id = t;
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Random random = new Random(seed + 100 + id);
+					try {
+						ready.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < opsPerThread; i++) {
+						Student s = students[random.nextInt(students.length)];
+						int action = random.nextInt(10);
+						long opStart = System.nanoTime();
+						if (action < 7) {
+							// Square the draw so low numbered courses are in high demand
+							double r = random.nextDouble();
+							Course c = courses[(int) (r * r * courses.length)];
+							if (manager.enrollStudentInCourse(s, c)) {
+								counts[id][0]++;
+							}
+						} else if (action < 9) {
+							Schedule schedule = s.getSchedule();
+							String[][] scheduled = schedule.getScheduledCourses();
+							if (scheduled.length > 0) {
+								String[] row = scheduled[random.nextInt(scheduled.length)];
+								Course c = manager.getCourseCatalog().getCourseFromCatalog(row[0], row[1]);
+								if (manager.dropStudentFromCourse(s, c)) {
+									counts[id][1]++;
+								}
+							}
+						} else {
+							manager.resetSchedule(s);
+							counts[id][2]++;
+						}
+						latencies[id][i] = System.nanoTime() - opStart;
+					}
+				}
+			});
+			threads[t].start();
+		}
+
+		long start = System.nanoTime();
+		ready.countDown();
+		for (Thread t : threads) {
+			t.join();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		long[] all = new long[numThreads * opsPerThread];
+		for (int t = 0; t < numThreads; t++) {
+			System.arraycopy(latencies[t], 0, all, t * opsPerThread, opsPerThread);
+			report.enrolled += counts[t][0];
+			report.dropped += counts[t][1];
+			report.resets += counts[t][2];
+		}
+		Arrays.sort(all);
+		report.threads = numThreads;
+		report.operations = all.length;
+		report.opsPerSecond = all.length / (elapsed / 1e9);
+		report.p50Micros = percentile(all, 0.50);
+		report.p90Micros = percentile(all, 0.90);
+		report.p99Micros = percentile(all, 0.99);
+		report.maxMicros = all.length == 0 ? 0 : all[all.length - 1] / 1000.0;
+	}
+
+	/**
+	 * Checks that no roll or waitlist is over capacity, that students are only
+	 * waitlisted for full courses, that no student is over their credit limit,
+	 * and that every seat and waitlist entry is matched by a course on a
+	 * student's schedule.
+	 *
+	 * @param courses  the courses in the catalog
+	 * @param students the students in the directory
+	 * @param report   the report to fill in
+	 */
+	private static void checkInvariants(Course[] courses, Student[] students, Report report) {
+		int held = 0;
+		for (Course c : courses) {
+			CourseRoll roll = c.getCourseRoll();
+			int seated = roll.getEnrollmentCap() - roll.getOpenSeats();
+			report.seatsTaken += seated;
+			report.waitlisted += roll.getNumberOnWaitlist();
+			if (roll.getOpenSeats() < 0 || roll.getNumberOnWaitlist() > 10
+					|| (roll.getNumberOnWaitlist() > 0 && roll.getOpenSeats() > 0)) {
+				report.violations++;
+			}
+			if (roll.getOpenSeats() == 0) {
+				report.fullCourses++;
+			}
+		}
+		for (Student s : students) {
+			Schedule schedule = s.getSchedule();
+			held += schedule.getScheduledCourses().length;
+			if (schedule.getScheduleCredits() > s.getMaxCredits()) {
+				report.violations++;
+			}
+		}
+		if (held != report.seatsTaken + report.waitlisted) {
+			report.violations++;
+		}
+	}
+
+	/**
+	 * Returns a percentile of sorted latencies in microseconds.
+	 *
+	 * @param sorted   the sorted latencies in nanoseconds
+	 * @param fraction the percentile as a fraction
+	 * @return the latency at the percentile in microseconds
+	 */
+	private static double percentile(long[] sorted, double fraction) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+		return sorted[Math.max(0, index)] / 1000.0;
+	}
+
+	/**
+	 * Returns the id of the ith synthesized faculty member.
+	 *
+	 * @param i the index of the faculty member
+	 * @return the id
+	 */
+	private static String facultyId(int i) {
+		return "fac" + i;
+	}
+
+	/**
+	 * Parses a positive integer option.
+	 *
+	 * @param name  the name of the option
+	 * @param value the value to parse
+	 * @return the parsed value
+	 * @throws IllegalArgumentException if the value is not a positive integer
+	 */
+	private static int positive(String name, String value) {
+		int n = Integer.parseInt(value);
+		if (n <= 0) {
+			throw new IllegalArgumentException(name + " must be positive");
+		}
+		return n;
+	}
+
+	/**
+	 * The results of a benchmark run.
+	 *
+	 * @author Anton Nikulsin
+	 */
+	public static class Report {
+		/** Time taken to synthesize and save the data, in milliseconds */
+		private long generateMillis;
+		/** Time taken to load the data, in milliseconds */
+		private long loadMillis;
+		/** Number of courses loaded */
+		private int courses;
+		/** Number of students loaded */
+		private int students;
+		/** Number of threads that sent requests */
+		private int threads;
+		/** Number of requests sent */
+		private int operations;
+		/** Number of successful enrollments, including onto a waitlist */
+		private int enrolled;
+		/** Number of successful drops */
+		private int dropped;
+		/** Number of schedule resets */
+		private int resets;
+		/** Requests completed per second */
+		private double opsPerSecond;
+		/** Median request latency in microseconds */
+		private double p50Micros;
+		/** 90th percentile request latency in microseconds */
+		private double p90Micros;
+		/** 99th percentile request latency in microseconds */
+		private double p99Micros;
+		/** Slowest request latency in microseconds */
+		private double maxMicros;
+		/** Seats taken across all courses at the end of the run */
+		private int seatsTaken;
+		/** Students waitlisted across all courses at the end of the run */
+		private int waitlisted;
+		/** Number of courses with no open seats at the end of the run */
+		private int fullCourses;
+		/** Number of broken invariants found at the end of the run */
+		private int violations;
+
+		/**
+		 * Returns the number of requests sent.
+		 *
+		 * @return the number of requests
+		 */
+		public int getOperations() {
+			return operations;
+		}
+
+		/**
+		 * Returns the number of broken invariants found at the end of the run.
+		 *
+		 * @return the number of violations
+		 */
+		public int getViolations() {
+			return violations;
+		}
+
+		/**
+		 * Returns the report as readable text.
+		 *
+		 * @return the report
+		 */
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			sb.append(String.format("Data:        %d courses, %d students (generated in %d ms, loaded in %d ms)%n", courses,
+					students, generateMillis, loadMillis));
+			sb.append(String.format("Traffic:     %d requests on %d threads: %d enrolled, %d dropped, %d resets%n",
+					operations, threads, enrolled, dropped, resets));
+			sb.append(String.format("Throughput:  %.0f ops/sec%n", opsPerSecond));
+			sb.append(String.format("Latency:     p50 %.1f us, p90 %.1f us, p99 %.1f us, max %.1f us%n", p50Micros,
+					p90Micros, p99Micros, maxMicros));
+			sb.append(String.format("Final state: %d seats taken, %d waitlisted, %d full courses%n", seatsTaken, waitlisted,
+					fullCourses));
+			sb.append(String.format("Invariants:  %s%n", violations == 0 ? "OK" : violations + " VIOLATED"));
+			return sb.toString();
+		}
+	}
+}
@@ -5,10 +5,23 @@ package edu.ncsu.csc216.pack_scheduler.catalog;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import edu.ncsu.csc216.collections.list.SortedList;
 import edu.ncsu.csc216.pack_scheduler.course.Course;
+import edu.ncsu.csc216.pack_scheduler.directory.FacultyDirectory;
+import edu.ncsu.csc216.pack_scheduler.io.BinaryCourseRecordIO;
 import edu.ncsu.csc216.pack_scheduler.io.CourseRecordIO;
+import edu.ncsu.csc216.pack_scheduler.io.ParsedCourseRecords;
+import edu.ncsu.csc216.pack_scheduler.io.RegistrationJournal;
+import edu.ncsu.csc216.pack_scheduler.manager.RegistrationManager;
+import edu.ncsu.csc216.pack_scheduler.user.schedule.Schedule;
 
 /**
  * Create a catalog for courses that available
@@ -20,21 +33,29 @@ import edu.ncsu.csc216.pack_scheduler.io.CourseRecordIO;
 public class CourseCatalog {
 
 	/** The sorted list of courses to represent the directory */
-	public SortedList<Course> courseDirectory;
+	private List<Course> courseDirectory;
+	/** Index of the courses in the directory keyed by name and section */
+	private Map<String, Course> courseIndex;
+	/** Index of the courses in the directory by meeting day and time */
+	private TimeSlotIndex timeSlotIndex = new TimeSlotIndex();
+	/** Journal that records changes to the catalog, or null if they are not recorded */
+	private RegistrationJournal journal;
 
 	/**
 	 * Constructs the CourseCatalogue object and creates a new empty list of sorted
 	 * courses.
 	 */
 	public CourseCatalog() {
-		courseDirectory = new SortedList<Course>();
+		newCourseCatalog();
 	}
 
 	/**
-	 * Creates an empty SortedList of Courses for the course catalog object
+	 * Creates an empty list of Courses for the course catalog object
 	 */
-	public void newCourseCatalog() {
-		courseDirectory = new SortedList<Course>();
+	public synchronized void newCourseCatalog() {
+		courseDirectory = new ArrayList<Course>();
+		courseIndex = new HashMap<String, Course>();
+		timeSlotIndex.clear();
 	}
 
 	/**
@@ -44,14 +65,75 @@ public class CourseCatalog {
 	 * @param fileName the name of the file the user wishes to load courses from
 	 * @throws IllegalArgumentException if a file not found exception is found
 	 */
-	public void loadCoursesFromFile(String fileName) {
+	public synchronized void loadCoursesFromFile(String fileName) {
 		try {
-			courseDirectory = CourseRecordIO.readCourseRecords(fileName);
+			setCourses(CourseRecordIO.readCourseList(fileName));
 		} catch (FileNotFoundException e) {
 			throw new IllegalArgumentException();
 		}
 	}
 
+	/**
+	 * Loads the courses from a file, binding each course to its instructor in the
+	 * given faculty directory rather than the RegistrationManager's. Courses whose
+	 * instructor is not in the directory are loaded without one, and their
+	 * instructor ids are returned.
+	 * 
+	 * @param fileName         the name of the file to load courses from
+	 * @param facultyDirectory the faculty to bind the courses to
+	 * @return the instructor ids that were not found, in sorted order
+	 * @throws IllegalArgumentException if the file cannot be found
+	 */
+	public synchronized Set<String> loadCoursesFromFile(String fileName, FacultyDirectory facultyDirectory) {
+		ParsedCourseRecords parsed;
+		try {
+			parsed = CourseRecordIO.parseCourseRecords(fileName);
+		} catch (FileNotFoundException e) {
+			throw new IllegalArgumentException();
+		}
+		setCourses(parsed.bindInstructors(facultyDirectory.getFacultyIndex()));
+		return parsed.getUnmatchedInstructorIds();
+	}
+
+	/**
+	 * Loads the courses from a binary course record file, binding them to the
+	 * instructors in the RegistrationManager's faculty directory as
+	 * loadCoursesFromFile() does. The file is memory mapped, and if it is trusted
+	 * the courses' fields are not validated, which makes loading a large catalog
+	 * much faster.
+	 * 
+	 * @param fileName the name of the binary file to load courses from
+	 * @param trusted  whether the file was written from a valid catalog, so its
+	 *                 courses need not be validated
+	 * @throws IllegalArgumentException if the file cannot be read or is not a
+	 *                                  binary course record file
+	 */
+	public synchronized void loadCoursesFromBinaryFile(String fileName, boolean trusted) {
+		ParsedCourseRecords parsed;
+		try {
+			parsed = BinaryCourseRecordIO.parseBinaryCourseRecords(fileName, trusted);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to read file " + fileName);
+		}
+		setCourses(parsed.bindInstructors(
+				RegistrationManager.getInstance().getFacultyDirectory().getFacultyIndex()));
+	}
+
+	/**
+	 * Replaces the courses in the catalog and rebuilds its indexes.
+	 * 
+	 * @param courses the new courses, in sorted order
+	 */
+	private void setCourses(List<Course> courses) {
+		courseDirectory = courses;
+		courseIndex = new HashMap<String, Course>();
+		timeSlotIndex.clear();
+		for (Course c : courseDirectory) {
+			courseIndex.put(courseKey(c.getName(), c.getSection()), c);
+			timeSlotIndex.add(c);
+		}
+	}
+
 	/**
 	 * Adds a specified class to the directory and returns true if the the class can
 	 * be added and does not have a conflict with the courses in the directory.
@@ -67,32 +149,51 @@ public class CourseCatalog {
 	 * @param endTime       the end time of the course
 	 * @return true if the course can be added to the directory false if the course
 	 *         cannot be added to the directory due to a conflict
+	 * @throws IllegalArgumentException if any of the fields are invalid
 	 */
 	public boolean addCourseToCatalog(String name, String title, String section, int credits, String instructorId,
 			int enrollmentCap, String meetingDays, int startTime, int endTime) {
-		try {
-			Course course = new Course(name, title, section, credits, instructorId, enrollmentCap, meetingDays, startTime, endTime);
-
-			for (int i = 0; i < courseDirectory.size(); i++) {
-				Course courseCat = courseDirectory.get(i);
-				try {
-					courseCat.isDuplicate(course);
-				} catch (IllegalArgumentException e) {
-					if(courseCat.getSection().equals(course.getSection())) {
-						return false;
-					}
-				}
-				if (courseCat.equals(course)) {
-					return false;
-				}
-			}		
-			courseDirectory.add(course);
-			return true;
+		// Course only throws IllegalArgumentException, so there is nothing to rewrap
+		return addCourse(new Course(name, title, section, credits, instructorId, enrollmentCap, meetingDays, startTime,
+				endTime));
+	}
 
-		} catch (Exception e) {
-			throw new IllegalArgumentException(e.getMessage());
+	/**
+	 * Adds an already built course to the catalog, such as one restored from a
+	 * snapshot. Returns false if a course with the same name and section is
+	 * already in the catalog.
+	 * 
+	 * @param course the course to add
+	 * @return true if the course was added
+	 * @throws IllegalStateException if the change cannot be journaled
+	 */
+	public boolean addCourse(Course course) {
+		RegistrationJournal current;
+		long entry = 0;
+		synchronized (this) {
+			String key = courseKey(course.getName(), course.getSection());
+			if (courseIndex.containsKey(key)) {
+				return false;
+			}
+			// Journaled before the change, then flushed outside the monitor so readers
+			// never wait on the disk
+			current = journal;
+			if (current != null) {
+				entry = current.append(RegistrationJournal.ADD_COURSE, course.getName(), course.getTitle(),
+						course.getSection(), course.getCredits(), course.getInstructorId(),
+						course.getCourseRoll().getEnrollmentCap(), course.getMeetingDays(), course.getStartTime(),
+						course.getEndTime());
+			}
+			// Keep the catalog sorted by inserting at the binary search point
+			int index = Collections.binarySearch(courseDirectory, course);
+			courseDirectory.add(index < 0 ? -index - 1 : index, course);
+			courseIndex.put(key, course);
+			timeSlotIndex.add(course);
 		}
-
+		if (current != null) {
+			current.sync(entry);
+		}
+		return true;
 	}
 
 	/**
@@ -101,20 +202,49 @@ public class CourseCatalog {
 	 * @param name    the name of the course they wish to remove
 	 * @param section the section of the course they wish to remove
 	 * @return true if the course was removed false if the course was not removed
+	 * @throws IllegalStateException if the change cannot be journaled
 	 */
 	public boolean removeCourseFromCatalog(String name, String section) {
-
-		for (int i = 0; i < courseDirectory.size(); i++) {
-			String newName = courseDirectory.get(i).getName();
-			String courseSection = courseDirectory.get(i).getSection();
-			if (newName.equals(name) && courseSection.equals(section)) {
-				courseDirectory.remove(i);
-				return true;
+		RegistrationJournal current;
+		long entry = 0;
+		synchronized (this) {
+			Course course = courseIndex.get(courseKey(name, section));
+			if (course == null) {
+				return false;
 			}
+			current = journal;
+			if (current != null) {
+				entry = current.append(RegistrationJournal.REMOVE_COURSE, name, section);
+			}
+			courseIndex.remove(courseKey(name, section));
+			courseDirectory.remove(course);
+			timeSlotIndex.remove(course);
+		}
+		if (current != null) {
+			current.sync(entry);
 		}
+		return true;
+	}
 
-		return false;
+	/**
+	 * Sets the journal that records courses added to and removed from the
+	 * catalog. Loading or clearing the catalog is not recorded.
+	 * 
+	 * @param journal the journal, or null to stop recording
+	 */
+	public synchronized void setJournal(RegistrationJournal journal) {
+		this.journal = journal;
+	}
 
+	/**
+	 * Returns a read only view of the courses in the catalog, in sorted order.
+	 * Callers that need the list to stay the same while they read it should
+	 * synchronize on the catalog, as every change to the catalog does.
+	 * 
+	 * @return the courses in the catalog
+	 */
+	public List<Course> getCourses() {
+		return Collections.unmodifiableList(courseDirectory);
 	}
 
 	/**
@@ -125,17 +255,8 @@ public class CourseCatalog {
 	 * @param section the section of the course the user wishes to pull
 	 * @return course from the catalog
 	 */
-	public Course getCourseFromCatalog(String name, String section) {
-		for (int i = 0; i < courseDirectory.size(); i++) {
-			String newName = courseDirectory.get(i).getName();
-			String courseSection = courseDirectory.get(i).getSection();
-			if (newName.equals(name) && courseSection.equals(section)) {
-				Course course = courseDirectory.get(i);
-				return course;
-			}
-		}
-
-		return null;
+	public synchronized Course getCourseFromCatalog(String name, String section) {
+		return courseIndex.get(courseKey(name, section));
 	}
 
 	/**
@@ -145,7 +266,7 @@ public class CourseCatalog {
 	 * @return a 2d array of courses displaying their name, section, title, meeting string, and number
 	 * of open slots
 	 */
-	public String[][] getCourseCatalog() {
+	public synchronized String[][] getCourseCatalog() {
 		String[][] courseCatalogue = new String[courseDirectory.size()][5];
 
 		for (int i = 0; i < courseDirectory.size(); i++) {
@@ -155,22 +276,133 @@ public class CourseCatalog {
 		return courseCatalogue;
 	}
 
+	/**
+	 * Returns the courses in the catalog that meet on at least one of the given
+	 * days at a time overlapping the given range, such as every course meeting
+	 * Tuesday from 1:30PM to 3:00PM. Ranges that share an end point overlap, as in
+	 * Activity.checkConflict(). Arranged courses never overlap a time range.
+	 * 
+	 * @param meetingDays the days to check as a series of M, T, W, H and F
+	 *                    characters
+	 * @param startTime   the start of the range in military time
+	 * @param endTime     the end of the range in military time
+	 * @return a 2d array of the overlapping courses in catalog order, using
+	 *         Course.getShortDisplayArray() for each row
+	 * @throws IllegalArgumentException if meetingDays is null or the end of the
+	 *                                  range is before its start
+	 */
+	public synchronized String[][] getCoursesMeetingDuring(String meetingDays, int startTime, int endTime) {
+		if (meetingDays == null || endTime < startTime) {
+			throw new IllegalArgumentException("Invalid time range.");
+		}
+		return toDisplayArray(timeSlotIndex.getOverlapping(meetingDays, startTime, endTime));
+	}
+
+	/**
+	 * Returns the courses in the catalog that could be added to the given schedule
+	 * without a time conflict. Courses with the same name as a course already in
+	 * the schedule are left out, since the schedule cannot hold both.
+	 * 
+	 * @param schedule the schedule to check the catalog against
+	 * @return a 2d array of the non-conflicting courses in catalog order, using
+	 *         Course.getShortDisplayArray() for each row
+	 * @throws IllegalArgumentException if schedule is null
+	 */
+	public String[][] getNonConflictingCourses(Schedule schedule) {
+		if (schedule == null) {
+			throw new IllegalArgumentException("Invalid schedule.");
+		}
+		// Read the schedule before locking the catalog, so the catalog lock is never held waiting on a schedule
+		return getNonConflictingCourses(schedule.getScheduledCourses());
+	}
+
+	/**
+	 * Returns the courses in the catalog that could be added to a schedule
+	 * holding the given courses without a time conflict.
+	 * 
+	 * @param scheduled the scheduled courses, as returned by
+	 *                  Schedule.getScheduledCourses()
+	 * @return a 2d array of the non-conflicting courses in catalog order
+	 */
+	private synchronized String[][] getNonConflictingCourses(String[][] scheduled) {
+		Set<String> scheduledNames = new HashSet<String>();
+		Set<Course> conflicting = new HashSet<Course>();
+		for (int i = 0; i < scheduled.length; i++) {
+			scheduledNames.add(scheduled[i][0]);
+			Course c = getCourseFromCatalog(scheduled[i][0], scheduled[i][1]);
+			if (c != null) {
+				conflicting.addAll(timeSlotIndex.getOverlapping(c.getMeetingDays(), c.getStartTime(), c.getEndTime()));
+			}
+		}
+
+		String[][] open = new String[courseDirectory.size()][];
+		int count = 0;
+		for (int i = 0; i < courseDirectory.size(); i++) {
+			Course c = courseDirectory.get(i);
+			if (!scheduledNames.contains(c.getName()) && !conflicting.contains(c)) {
+				open[count++] = c.getShortDisplayArray();
+			}
+		}
+		return Arrays.copyOf(open, count);
+	}
+
 	/**
 	 * Save Course Catalog saves the to a file by writing the catalog to the
 	 * filename.
 	 * 
 	 * @param fileName the name of the file we wish to write to
 	 */
-	public void saveCourseCatalog(String fileName) {
+	public synchronized void saveCourseCatalog(String fileName) {
 		try {
-			SortedList<Course> course = new SortedList<Course>();
-			for (int i = 0; i < courseDirectory.size(); i++) {
-				course.add(courseDirectory.get(i));
-			}
-			CourseRecordIO.writeCourseRecords(fileName, course);
+			CourseRecordIO.writeCourseRecords(fileName, courseDirectory);
 		} catch (IOException e) {
 			throw new IllegalArgumentException();
 		}
 	}
 
+	/**
+	 * Saves the catalog to a binary course record file, which can later be loaded
+	 * as trusted.
+	 * 
+	 * @param fileName the name of the file to write to
+	 * @throws IllegalArgumentException if the file cannot be written
+	 */
+	public synchronized void saveCourseCatalogBinary(String fileName) {
+		try {
+			BinaryCourseRecordIO.writeBinaryCourseRecords(fileName, courseDirectory);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to write to file " + fileName);
+		}
+	}
+
+	/**
+	 * Sorts a set of courses into catalog order and returns their short display
+	 * arrays.
+	 * 
+	 * @param courses the courses to display
+	 * @return a 2d array of the courses using Course.getShortDisplayArray()
+	 */
+	private static String[][] toDisplayArray(Set<Course> courses) {
+		Course[] sorted = courses.toArray(new Course[courses.size()]);
+		Arrays.sort(sorted);
+		String[][] display = new String[sorted.length][];
+		for (int i = 0; i < sorted.length; i++) {
+			display[i] = sorted[i].getShortDisplayArray();
+		}
+		return display;
+	}
+
+	/**
+	 * Builds the key used to look up a course in the index by its name and
+	 * section. Course names only contain letters and digits, so the separator
+	 * cannot collide with either part.
+	 * 
+	 * @param name    the name of the course
+	 * @param section the section of the course
+	 * @return the index key for the course
+	 */
+	private static String courseKey(String name, String section) {
+		return name + "," + section;
+	}
+
 }
\ No newline at end of file
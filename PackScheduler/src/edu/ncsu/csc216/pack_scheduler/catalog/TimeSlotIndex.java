@@ -0,0 +1,228 @@
+package edu.ncsu.csc216.pack_scheduler.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.ncsu.csc216.pack_scheduler.course.Course;
+
+/**
+ * Indexes the meeting times of the Courses in a catalog so that the Courses
+ * meeting during a given time on a given set of days can be found without
+ * checking every Course. Each weekday has its own interval tree over the
+ * Courses that meet on that day. Arranged Courses do not meet on any day and
+ * are never returned by a query.
+ *
+ * The trees are rebuilt lazily on the first query after a Course is added or
+ * removed, so loading a catalog costs a single sort per day. Since a query may
+ * rebuild a tree, every method synchronizes on the index, and a query never
+ * sees a tree part way through a rebuild.
+ *
+ * @author Anton Nikulsin
+ */
+public class TimeSlotIndex {
+
+	/** The weekdays that Courses can meet on, in index order */
+	private static final String WEEKDAYS = "MTWHF";
+	/** The interval tree for each weekday */
+	private DayTree[] days;
+
+	/**
+	 * Creates an empty index.
+	 */
+	public TimeSlotIndex() {
+		clear();
+	}
+
+	/**
+	 * Removes all Courses from the index.
+	 */
+	public synchronized void clear() {
+		days = new DayTree[WEEKDAYS.length()];
+		for (int i = 0; i < days.length; i++) {
+			days[i] = new DayTree();
+		}
+	}
+
+	/**
+	 * Adds a Course to the tree of each day it meets on.
+	 *
+	 * @param course the Course to add
+	 */
+	public synchronized void add(Course course) {
+		String meetingDays = course.getMeetingDays();
+		for (int i = 0; i < days.length; i++) {
+			if (meetingDays.indexOf(WEEKDAYS.charAt(i)) >= 0) {
+				days[i].add(course);
+			}
+		}
+	}
+
+	/**
+	 * Removes a Course from the tree of each day it meets on.
+	 *
+	 * @param course the Course to remove
+	 */
+	public synchronized void remove(Course course) {
+		String meetingDays = course.getMeetingDays();
+		for (int i = 0; i < days.length; i++) {
+			if (meetingDays.indexOf(WEEKDAYS.charAt(i)) >= 0) {
+				days[i].remove(course);
+			}
+		}
+	}
+
+	/**
+	 * Returns the Courses that meet on at least one of the given days at a time
+	 * that overlaps the given time range. Matching the conflict rules in
+	 * Activity, ranges that only share an end point overlap.
+	 *
+	 * @param meetingDays the days to check, as a series of M, T, W, H and F
+	 *                    characters
+	 * @param startTime   the start of the time range in military time
+	 * @param endTime     the end of the time range in military time
+	 * @return the set of Courses that overlap the time range
+	 */
+	public synchronized Set<Course> getOverlapping(String meetingDays, int startTime, int endTime) {
+		Set<Course> found = new HashSet<Course>();
+		for (int i = 0; i < days.length; i++) {
+			if (meetingDays.indexOf(WEEKDAYS.charAt(i)) >= 0) {
+				days[i].query(startTime, endTime, found);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * An interval tree over the Courses meeting on one day. The tree is stored
+	 * implicitly in arrays sorted by start time: the root of each range is its
+	 * middle element, and each node records the latest end time in its subtree
+	 * so that ranges ending before the query can be skipped.
+	 *
+	 * @author Anton Nikulsin
+	 */
+	private static class DayTree {
+
+		/** The Courses meeting on this day, in insertion order */
+		private List<Course> courses = new ArrayList<Course>();
+		/** Whether the arrays below need to be rebuilt from courses */
+		private boolean dirty = false;
+		/** The Courses sorted by start time */
+		private Course[] sorted = new Course[0];
+		/** The start time of each sorted Course */
+		private int[] starts = new int[0];
+		/** The end time of each sorted Course */
+		private int[] ends = new int[0];
+		/** The latest end time in the subtree rooted at each index */
+		private int[] maxEnds = new int[0];
+
+		/**
+		 * Adds a Course to the tree.
+		 *
+		 * @param course the Course to add
+		 */
+		public void add(Course course) {
+			courses.add(course);
+			dirty = true;
+		}
+
+		/**
+		 * Removes a Course from the tree.
+		 *
+		 * @param course the Course to remove
+		 */
+		public void remove(Course course) {
+			if (courses.remove(course)) {
+				dirty = true;
+			}
+		}
+
+		/**
+		 * Adds every Course in the tree that overlaps the time range to the given
+		 * set.
+		 *
+		 * @param startTime the start of the time range
+		 * @param endTime   the end of the time range
+		 * @param found     the set to add overlapping Courses to
+		 */
+		public void query(int startTime, int endTime, Set<Course> found) {
+			if (dirty) {
+				rebuild();
+			}
+			query(0, sorted.length - 1, startTime, endTime, found);
+		}
+
+		/**
+		 * Searches the subtree over the sorted range [lo, hi] for Courses
+		 * overlapping the time range.
+		 *
+		 * @param lo        the first index of the subtree
+		 * @param hi        the last index of the subtree
+		 * @param startTime the start of the time range
+		 * @param endTime   the end of the time range
+		 * @param found     the set to add overlapping Courses to
+		 */
+		private void query(int lo, int hi, int startTime, int endTime, Set<Course> found) {
+			if (lo > hi) {
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			if (maxEnds[mid] < startTime) {
+				// Everything in this subtree ends before the range starts
+				return;
+			}
+			query(lo, mid - 1, startTime, endTime, found);
+			if (starts[mid] > endTime) {
+				// This Course and everything after it start after the range ends
+				return;
+			}
+			if (ends[mid] >= startTime) {
+				found.add(sorted[mid]);
+			}
+			query(mid + 1, hi, startTime, endTime, found);
+		}
+
+		/**
+		 * Sorts the Courses by start time and recomputes the subtree end times.
+		 */
+		private void rebuild() {
+			sorted = courses.toArray(new Course[courses.size()]);
+			Arrays.sort(sorted, new Comparator<Course>() {
+				@Override
+				public int compare(Course c1, Course c2) {
+					return Integer.compare(c1.getStartTime(), c2.getStartTime());
+				}
+			});
+			starts = new int[sorted.length];
+			ends = new int[sorted.length];
+			maxEnds = new int[sorted.length];
+			for (int i = 0; i < sorted.length; i++) {
+				starts[i] = sorted[i].getStartTime();
+				ends[i] = sorted[i].getEndTime();
+			}
+			computeMaxEnds(0, sorted.length - 1);
+			dirty = false;
+		}
+
+		/**
+		 * Computes the latest end time of the subtree over the sorted range
+		 * [lo, hi].
+		 *
+		 * @param lo the first index of the subtree
+		 * @param hi the last index of the subtree
+		 * @return the latest end time in the subtree, or -1 if it is empty
+		 */
+		private int computeMaxEnds(int lo, int hi) {
+			if (lo > hi) {
+				return -1;
+			}
+			int mid = (lo + hi) >>> 1;
+			int max = Math.max(ends[mid], Math.max(computeMaxEnds(lo, mid - 1), computeMaxEnds(mid + 1, hi)));
+			maxEnds[mid] = max;
+			return max;
+		}
+	}
+}
@@ -20,6 +20,22 @@ public abstract class Activity implements Conflict {
 	private int startTime;
 	/** Course's ending time */
 	private int endTime;
+	/** Bit for each weekday the activity meets on, see the DAY_ constants */
+	private int meetingDayMask;
+	/** Course's starting time as minutes since midnight */
+	private int startMinute;
+	/** Course's ending time as minutes since midnight */
+	private int endMinute;
+	/** Meeting day bit for Monday */
+	private static final int DAY_MONDAY = 1;
+	/** Meeting day bit for Tuesday */
+	private static final int DAY_TUESDAY = 1 << 1;
+	/** Meeting day bit for Wednesday */
+	private static final int DAY_WEDNESDAY = 1 << 2;
+	/** Meeting day bit for Thursday */
+	private static final int DAY_THURSDAY = 1 << 3;
+	/** Meeting day bit for Friday */
+	private static final int DAY_FRIDAY = 1 << 4;
 
 	/**
 	 * Constructs the constructor for the activity super class. This allows for storage of the title, 
@@ -34,6 +50,27 @@ public abstract class Activity implements Conflict {
 		setMeetingDays(meetingDays);
 		setActivityTime(startTime, endTime);
 	}
+
+	/**
+	 * Constructs an activity from fields that were validated before they were
+	 * stored, such as those read from a trusted binary catalog, without checking
+	 * them again. The times are given as minutes since midnight and the days as
+	 * a bitmask, as they are held internally.
+	 * @param title the title of the activity
+	 * @param meetingDays the days the activity will be on
+	 * @param meetingDayMask the bitmask of meetingDays, see the DAY_ constants
+	 * @param startMinute the time the activity will start in minutes since midnight
+	 * @param endMinute the time the activity will end in minutes since midnight
+	 */
+	protected Activity(String title, String meetingDays, int meetingDayMask, int startMinute, int endMinute) {
+		this.title = title;
+		this.meetingDays = meetingDays;
+		this.meetingDayMask = meetingDayMask;
+		this.startMinute = startMinute;
+		this.endMinute = endMinute;
+		this.startTime = startMinute / UPPER_HOUR * 100 + startMinute % UPPER_HOUR;
+		this.endTime = endMinute / UPPER_HOUR * 100 + endMinute % UPPER_HOUR;
+	}
 	
 	/**
 	 * Creates an abstract method for calling a short Array of displaying information for the 
@@ -91,6 +128,7 @@ public abstract class Activity implements Conflict {
 	 */
 	public void setMeetingDays(String meetingDays) {
 		this.meetingDays = meetingDays;
+		this.meetingDayMask = toDayMask(meetingDays);
 	}
 
 	/**
@@ -133,6 +171,8 @@ public abstract class Activity implements Conflict {
 		
 		this.startTime = startTime;
 		this.endTime = endTime;
+		this.startMinute = toMinutes(startTime);
+		this.endMinute = toMinutes(endTime);
 	}
 
 	/**
@@ -191,26 +231,75 @@ public abstract class Activity implements Conflict {
 	
 	/**
 	 * Overrides the Check conflict from conflict. Creates a class that will check if the activity being entered is in conflict with the other activities 
-	 * in the activity schedule list.
+	 * in the activity schedule list. Two activities conflict when they share at least one weekday and their times overlap, end points included.
 	 * @param possibleConflictingActivity the activity that is meant to be checked with the schedule
 	 * @throws ConflictException if the activity is in conflict with another activity.
 	 */
 	@Override
 	public void checkConflict(Activity possibleConflictingActivity) throws ConflictException {
-		
-		String[] validDates = new String[] {"M", "T", "W", "H", "F"};
-		
-		for (int i = 0; i < validDates.length; i++) {
-			if(this.meetingDays.contains(validDates[i]) && possibleConflictingActivity.getMeetingDays().contains(validDates[i])) {
-				if(this.endTime >= possibleConflictingActivity.getStartTime() && this.startTime <= possibleConflictingActivity.getEndTime()) {
-					throw new ConflictException();
-				}
-				else if(this.startTime >= possibleConflictingActivity.getEndTime() && this.endTime <= possibleConflictingActivity.getEndTime()) {
-					throw new ConflictException();
-				}
+		if (conflictsWith(possibleConflictingActivity)) {
+			throw new ConflictException();
+		}
+	}
+
+	/**
+	 * Returns true if this activity conflicts with another, by the same rule as
+	 * checkConflict() but without throwing, so callers that only need the answer
+	 * do not pay for an exception.
+	 * @param possibleConflictingActivity the activity to check against
+	 * @return true if the activities share a weekday and their times overlap
+	 */
+	public boolean conflictsWith(Activity possibleConflictingActivity) {
+		return (this.meetingDayMask & possibleConflictingActivity.meetingDayMask) != 0
+				&& this.endMinute >= possibleConflictingActivity.startMinute
+				&& this.startMinute <= possibleConflictingActivity.endMinute;
+	}
+
+	/**
+	 * Converts a string of meeting days into a bitmask with one bit set for each
+	 * weekday (M, T, W, H, F) in the string. Arranged activities have no weekday
+	 * bits set.
+	 * 
+	 * @param meetingDays the meeting days to convert
+	 * @return the bitmask of the meeting days
+	 */
+	private static int toDayMask(String meetingDays) {
+		int mask = 0;
+		if (meetingDays == null) {
+			return mask;
+		}
+		for (int i = 0; i < meetingDays.length(); i++) {
+			switch (meetingDays.charAt(i)) {
+			case 'M':
+				mask |= DAY_MONDAY;
+				break;
+			case 'T':
+				mask |= DAY_TUESDAY;
+				break;
+			case 'W':
+				mask |= DAY_WEDNESDAY;
+				break;
+			case 'H':
+				mask |= DAY_THURSDAY;
+				break;
+			case 'F':
+				mask |= DAY_FRIDAY;
+				break;
+			default:
+				break;
 			}
 		}
-		
+		return mask;
+	}
+
+	/**
+	 * Converts a military time such as 1330 into minutes since midnight.
+	 * 
+	 * @param time the military time to convert
+	 * @return the number of minutes since midnight
+	 */
+	private static int toMinutes(int time) {
+		return (time / 100) * UPPER_HOUR + time % 100;
 	}
 
 	/**
@@ -4,8 +4,7 @@
 package edu.ncsu.csc216.pack_scheduler.course;
 
 import edu.ncsu.csc216.pack_scheduler.course.roll.CourseRoll;
-import edu.ncsu.csc216.pack_scheduler.course.validator.CourseNameValidatorFSM;
-import edu.ncsu.csc216.pack_scheduler.course.validator.InvalidTransitionException;
+import edu.ncsu.csc216.pack_scheduler.course.validator.CourseNameScanner;
 
 /**
  * Creates a Course object that will store information about courses
@@ -26,6 +25,8 @@ public class Course extends Activity implements Comparable<Course> {
 	private static final int MAX_CREDITS = 5;
 	/** Min credits of a course */
 	private static final int MIN_CREDITS = 1;
+	/** Minutes in a day */
+	private static final int MINUTES_PER_DAY = 24 * 60;
 	/** Course's name. */
 	private String name;
 	/** Course's section. */
@@ -76,6 +77,67 @@ public class Course extends Activity implements Comparable<Course> {
 		this(name, title, section, credits, instructorId, enrollmentCap, meetingDays, 0, 0);
 	}
 
+	/**
+	 * Constructs a Course from fields that were validated before they were
+	 * stored, without checking them again.
+	 * 
+	 * @param name           name of Course
+	 * @param title          title of Course
+	 * @param section        section of Course
+	 * @param credits        credit hours for Course
+	 * @param enrollmentCap  max number of students that can be enrolled in the course
+	 * @param meetingDays    meeting days for Course as series of chars
+	 * @param meetingDayMask bitmask of the meeting days
+	 * @param startMinute    start time in minutes since midnight
+	 * @param endMinute      end time in minutes since midnight
+	 */
+	private Course(String name, String title, String section, int credits, int enrollmentCap, String meetingDays,
+			int meetingDayMask, int startMinute, int endMinute) {
+		super(title, meetingDays, meetingDayMask, startMinute, endMinute);
+		this.name = name;
+		this.section = section;
+		this.credits = credits;
+		roll = new CourseRoll(this, enrollmentCap);
+	}
+
+	/**
+	 * Creates a Course without an instructor from fields that were validated
+	 * when they were stored, such as a record in a trusted binary catalog,
+	 * skipping the costly checks the constructors make. The enrollment cap, the
+	 * credit range and the times are still checked, since they are cheap and a
+	 * damaged record would otherwise break conflict checks. Passing strings that
+	 * were never validated can create a Course that the rest of the system does
+	 * not expect.
+	 * 
+	 * @param name           name of Course
+	 * @param title          title of Course
+	 * @param section        section of Course
+	 * @param credits        credit hours for Course
+	 * @param enrollmentCap  max number of students that can be enrolled in the course
+	 * @param meetingDays    meeting days for Course as series of chars
+	 * @param meetingDayMask bitmask of the meeting days, M being the lowest bit
+	 *                       followed by T, W, H and F
+	 * @param startMinute    start time in minutes since midnight
+	 * @param endMinute      end time in minutes since midnight
+	 * @return the Course
+	 * @throws IllegalArgumentException if the enrollment cap or credits are out of
+	 *                                  range, a time is not in the day, the
+	 *                                  start is after the end, or an arranged
+	 *                                  course has times
+	 */
+	public static Course fromValidatedFields(String name, String title, String section, int credits,
+			int enrollmentCap, String meetingDays, int meetingDayMask, int startMinute, int endMinute) {
+		if (credits < MIN_CREDITS || credits > MAX_CREDITS) {
+			throw new IllegalArgumentException("Invalid credits.");
+		}
+		if (startMinute < 0 || endMinute >= MINUTES_PER_DAY || startMinute > endMinute
+				|| meetingDayMask == 0 && (startMinute != 0 || endMinute != 0)) {
+			throw new IllegalArgumentException("Invalid course times.");
+		}
+		return new Course(name, title, section, credits, enrollmentCap, meetingDays, meetingDayMask, startMinute,
+				endMinute);
+	}
+
 	/**
 	 * Returns Course's name
 	 * 
@@ -100,12 +162,7 @@ public class Course extends Activity implements Comparable<Course> {
 		if (name.length() < MIN_NAME_LENGTH || name.length() > MAX_NAME_LENGTH) {
 			throw new IllegalArgumentException("Invalid course name.");
 		}
-		CourseNameValidatorFSM validator = new CourseNameValidatorFSM();
-		try {
-			if (!validator.isValid(name)) {
-				throw new IllegalArgumentException("Invalid course name.");
-			}
-		} catch (InvalidTransitionException e) {
+		if (!CourseNameScanner.isValid(name)) {
 			throw new IllegalArgumentException("Invalid course name.");
 		}
 		this.name = name;
@@ -330,17 +387,23 @@ public class Course extends Activity implements Comparable<Course> {
 	 */
 	@Override
 	public boolean isDuplicate(Activity activity) {
-		if (activity instanceof Course) {
-			activity = (Course) activity;
-			
-			if (((Course) activity).getName().equals(name)) {
-				throw new IllegalArgumentException("Already assigned " + name);
-			}
-			
+		if (hasSameName(activity)) {
+			throw new IllegalArgumentException("Already assigned " + name);
 		}
 		return false;
 	}
 
+	/**
+	 * Returns true if the activity is a Course with the same name as this one,
+	 * which is what isDuplicate() checks, without throwing.
+	 * 
+	 * @param activity the activity to compare with
+	 * @return true if the activity is a Course with the same name
+	 */
+	public boolean hasSameName(Activity activity) {
+		return activity instanceof Course && ((Course) activity).name.equals(name);
+	}
+
 	/**
 	 * Implementation of the compareTo method
 	 * 
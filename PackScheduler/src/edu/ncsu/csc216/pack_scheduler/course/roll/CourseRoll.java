@@ -3,20 +3,28 @@
  */
 package edu.ncsu.csc216.pack_scheduler.course.roll;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import edu.ncsu.csc216.pack_scheduler.course.Course;
 import edu.ncsu.csc216.pack_scheduler.user.Student;
-import edu.ncsu.csc216.pack_scheduler.util.LinkedAbstractList;
-import edu.ncsu.csc216.pack_scheduler.util.LinkedQueue;
 
 /**
- * A CourseRoll object contains a LinkedAbstractList of type Student which contains all of the Students enrolled in a Course.
+ * A CourseRoll object contains the Students enrolled in a Course and a waitlist of Students waiting for a seat.
+ * 
+ * Both the roll and the waitlist are kept in insertion order and keyed by Student id, so checking whether a Student
+ * is enrolled or waitlisted and removing them is constant time, while the waitlist is still promoted first in, first
+ * out.
  * 
  * @author Anton
  * @author Ethan Mancini
  */
 public class CourseRoll {
-	/** The roll's waitlist of students */
-	private LinkedQueue<Student> waitlist;
+	/** The roll's waitlist of students, keyed by id in the order they joined */
+	private Map<String, Student> waitlist;
 	
 	/** The Course that the roll is associated with */
 	private Course course;
@@ -33,8 +41,8 @@ public class CourseRoll {
 	/** The maximum capacity of the waitlist */
 	private static final int WAITLIST_CAPACITY = 10;
 	
-	/** A linked list of students enrolled */
-	private LinkedAbstractList<Student> roll;
+	/** The students enrolled, keyed by id in the order they enrolled */
+	private Map<String, Student> roll;
 
 	/**
 	 * Constructor that creates a new empty course roll
@@ -48,8 +56,8 @@ public class CourseRoll {
 			throw new IllegalArgumentException();
 		}
 		this.course = c;
-		this.roll = new LinkedAbstractList<Student>(capacity);
-		this.waitlist = new LinkedQueue<Student>(WAITLIST_CAPACITY);
+		this.roll = new LinkedHashMap<String, Student>();
+		this.waitlist = new LinkedHashMap<String, Student>();
 		setEnrollmentCap(capacity);
 	}
 
@@ -74,11 +82,10 @@ public class CourseRoll {
 		if (capacity > MAX_ENROLLMENT || capacity < MIN_ENROLLMENT) {
 			throw new IllegalArgumentException();
 		}
-		if (roll != null && roll.size() > capacity) {
+		if (roll.size() > capacity) {
 			throw new IllegalArgumentException();
 		}
 		this.enrollmentCap = capacity;
-		if (roll != null) roll.setCapacity(capacity);
 	}
 
 	/**
@@ -98,24 +105,36 @@ public class CourseRoll {
 	 * @throws IllegalArgumentException if the student could not be added to the roll or its waitlist
 	 */
 	public void enroll(Student s) {
-		try {
-			int rollSize = roll.size();
-			
-			if (rollSize == enrollmentCap) {
-				if (waitlist.size() < WAITLIST_CAPACITY) {
-					waitlist.enqueue(s);
-				}
-				else {
-					throw new IllegalArgumentException();
-				}
-				
+		if (s == null || roll.containsKey(s.getId()) || waitlist.containsKey(s.getId())) {
+			throw new IllegalArgumentException();
+		}
+		if (roll.size() == enrollmentCap) {
+			if (waitlist.size() < WAITLIST_CAPACITY) {
+				waitlist.put(s.getId(), s);
 			}
 			else {
-				this.roll.add(rollSize, s);
+				throw new IllegalArgumentException();
 			}
-		} catch (Exception e) {
+		}
+		else {
+			roll.put(s.getId(), s);
+		}
+	}
+	
+	/**
+	 * Method used to add a student to the end of the roll's waitlist, even if the roll has open seats. Used to
+	 * restore a saved waitlist, whose students must not move onto the roll ahead of a drop.
+	 * 
+	 * @param s The student to be waitlisted
+	 * @throws IllegalArgumentException if the student is null, already on the roll or waitlist, or the waitlist is
+	 *                                  full
+	 */
+	public void waitlist(Student s) {
+		if (s == null || roll.containsKey(s.getId()) || waitlist.containsKey(s.getId())
+				|| waitlist.size() >= WAITLIST_CAPACITY) {
 			throw new IllegalArgumentException();
 		}
+		waitlist.put(s.getId(), s);
 	}
 	
 	/**
@@ -126,27 +145,24 @@ public class CourseRoll {
 	 * @throws IllegalArgumentException if the student could not be dropped.
 	 */
 	public void drop(Student s) {
-		try {
-			for(int i = 0; i < roll.size(); i++) {
-				if(s.equals(roll.get(i))) {
-					roll.remove(i);
-					if(!waitlist.isEmpty()) {
-						Student stu = waitlist.dequeue();
-						roll.add(roll.size(), stu);
-						stu.getSchedule().addCourseToSchedule(course);
-					}
-				}
-			}
-		} catch(Exception E) {
+		if (s == null) {
 			throw new IllegalArgumentException();
 		}
-		int size = waitlist.size();
-		for (int i = 0; i < size; i++) {
-			Student student = waitlist.dequeue();
-			if (!s.equals(student)) {
-				waitlist.enqueue(student);
+		if (roll.remove(s.getId()) != null) {
+			if (!waitlist.isEmpty()) {
+				Iterator<Student> it = waitlist.values().iterator();
+				Student stu = it.next();
+				it.remove();
+				roll.put(stu.getId(), stu);
+				// Waitlisted students already hold the course on their schedule
+				if (stu.getSchedule().canAdd(course)) {
+					stu.getSchedule().addCourseToSchedule(course);
+				}
 			}
 		}
+		else {
+			waitlist.remove(s.getId());
+		}
 	}
 	
 	/**
@@ -156,26 +172,13 @@ public class CourseRoll {
 	 * @return true if student can be added false otherwise
 	 */
 	public boolean canEnroll(Student s) {
-		if (roll.size() < enrollmentCap && !roll.contains(s)) {
-			return true;
-		}
-		if (roll.size() == enrollmentCap) {
-			if (roll.contains(s)) {
-				return false;
-			}
-			boolean inWaitlist = false;
-			int size = waitlist.size();
-			for (int i = 0; i < size; i++) {
-				Student student = waitlist.dequeue();
-				if (s.equals(student)) {
-					inWaitlist = true;
-				}
-				waitlist.enqueue(student);
-			}
-			if (!inWaitlist) return true;
+		if (s == null || roll.containsKey(s.getId())) {
 			return false;
 		}
-		return false;
+		if (roll.size() < enrollmentCap) {
+			return true;
+		}
+		return !waitlist.containsKey(s.getId());
 	}
 	
 	/**
@@ -186,4 +189,42 @@ public class CourseRoll {
 	public int getNumberOnWaitlist() {
 		return waitlist.size();
 	}
+
+	/**
+	 * Returns true if the Student is on the roll or the waitlist
+	 * 
+	 * @param s The student to look for
+	 * @return true if the student is enrolled or waitlisted
+	 */
+	public boolean hasStudent(Student s) {
+		return s != null && (roll.containsKey(s.getId()) || waitlist.containsKey(s.getId()));
+	}
+
+	/**
+	 * Returns true if the waitlist has no room for another Student
+	 * 
+	 * @return true if the waitlist is full
+	 */
+	public boolean isWaitlistFull() {
+		return waitlist.size() >= WAITLIST_CAPACITY;
+	}
+
+	/**
+	 * Returns the ids of the Students enrolled, in the order they enrolled
+	 * 
+	 * @return the ids of the enrolled Students
+	 */
+	public List<String> getEnrolledIds() {
+		return new ArrayList<String>(roll.keySet());
+	}
+
+	/**
+	 * Returns the ids of the Students on the waitlist, in the order they will be
+	 * promoted
+	 * 
+	 * @return the ids of the waitlisted Students
+	 */
+	public List<String> getWaitlistIds() {
+		return new ArrayList<String>(waitlist.keySet());
+	}
 }
@@ -0,0 +1,146 @@
+package edu.ncsu.csc216.pack_scheduler.course.validator;
+
+/**
+ * A table-driven version of the course name Finite State Machine. A course name
+ * is one to four letters, exactly three digits and an optional one letter
+ * suffix. The name is scanned one character at a time through a transition
+ * table indexed by the current state and the class of the character, and the
+ * result is returned as a code rather than thrown, so checking many invalid
+ * names, such as the bad lines of a large course file, costs no more than
+ * checking valid ones. The scanner keeps no state between calls, so it can be
+ * used from any thread without creating an object.
+ *
+ * CourseNameValidatorFSM and CourseNameValidator wrap the scanner for callers
+ * that expect an InvalidTransitionException.
+ *
+ * @author Anton Nikulsin
+ */
+public final class CourseNameScanner {
+
+	/** The name is valid */
+	public static final int VALID = 0;
+	/** The name ended before its three digits */
+	public static final int INCOMPLETE = 1;
+	/** The name has a character that is not a letter or digit */
+	public static final int NOT_ALPHANUMERIC = 2;
+	/** The name starts with a digit */
+	public static final int STARTS_WITH_DIGIT = 3;
+	/** The name starts with more than four letters */
+	public static final int TOO_MANY_LETTERS = 4;
+	/** A letter comes before the third digit */
+	public static final int TOO_FEW_DIGITS = 5;
+	/** The name has more than three digits */
+	public static final int TOO_MANY_DIGITS = 6;
+	/** The suffix is more than one letter */
+	public static final int SUFFIX_TOO_LONG = 7;
+	/** A digit comes after the suffix */
+	public static final int DIGIT_AFTER_SUFFIX = 8;
+
+	/** Message of the InvalidTransitionException for each result code */
+	private static final String[] MESSAGES = { null, null, "Course name can only contain letters and digits.",
+			"Course name must start with a letter.", "Course name cannot start with more than 4 letters.",
+			"Course name must have 3 digits.", "Course name can only have 3 digits.",
+			"Course name can only have a 1 letter suffix.", "Course name cannot contain digits after the suffix." };
+
+	/** Class of a letter */
+	private static final int LETTER = 0;
+	/** Class of a digit */
+	private static final int DIGIT = 1;
+	/** Class of any other character */
+	private static final int OTHER = 2;
+
+	/** State at which three digits have been read */
+	private static final int STATE_DDD = 7;
+	/** State at which the suffix letter has been read */
+	private static final int STATE_SUFFIX = 8;
+
+	/**
+	 * Next state for each state and character class. A negative entry ends the
+	 * scan with the result code it negates. The states are initial, one to four
+	 * letters, one to three digits, and suffix.
+	 */
+	private static final int[][] TRANSITIONS = {
+			{ 1, -STARTS_WITH_DIGIT, -NOT_ALPHANUMERIC },
+			{ 2, 5, -NOT_ALPHANUMERIC },
+			{ 3, 5, -NOT_ALPHANUMERIC },
+			{ 4, 5, -NOT_ALPHANUMERIC },
+			{ -TOO_MANY_LETTERS, 5, -NOT_ALPHANUMERIC },
+			{ -TOO_FEW_DIGITS, 6, -NOT_ALPHANUMERIC },
+			{ -TOO_FEW_DIGITS, STATE_DDD, -NOT_ALPHANUMERIC },
+			{ STATE_SUFFIX, -TOO_MANY_DIGITS, -NOT_ALPHANUMERIC },
+			{ -SUFFIX_TOO_LONG, -DIGIT_AFTER_SUFFIX, -NOT_ALPHANUMERIC } };
+
+	/** Character class of each ASCII character */
+	private static final byte[] ASCII_CLASSES = new byte[128];
+
+	static {
+		for (int c = 0; c < ASCII_CLASSES.length; c++) {
+			ASCII_CLASSES[c] = (byte) classOf((char) c);
+		}
+	}
+
+	/**
+	 * The scanner only has static methods.
+	 */
+	private CourseNameScanner() {
+		// not used
+	}
+
+	/**
+	 * Scans a course name and returns VALID, or a code saying why it is not
+	 * valid. The code describes the first character that could not be accepted,
+	 * or is INCOMPLETE if the name ended early.
+	 *
+	 * @param courseName the name of the course
+	 * @return VALID or the reason the name is invalid
+	 */
+	public static int scan(String courseName) {
+		if (courseName == null) {
+			return INCOMPLETE;
+		}
+		int state = 0;
+		for (int i = 0; i < courseName.length(); i++) {
+			char c = courseName.charAt(i);
+			state = TRANSITIONS[state][c < ASCII_CLASSES.length ? ASCII_CLASSES[c] : classOf(c)];
+			if (state < 0) {
+				return -state;
+			}
+		}
+		return state == STATE_DDD || state == STATE_SUFFIX ? VALID : INCOMPLETE;
+	}
+
+	/**
+	 * Returns true if the course name is valid.
+	 *
+	 * @param courseName the name of the course
+	 * @return true if the name is valid
+	 */
+	public static boolean isValid(String courseName) {
+		return scan(courseName) == VALID;
+	}
+
+	/**
+	 * Returns the message of the InvalidTransitionException that the Finite
+	 * State Machine throws for a result code.
+	 *
+	 * @param result a result code from scan()
+	 * @return the message, or null for VALID and INCOMPLETE, which the Finite
+	 *         State Machine reports by returning rather than throwing
+	 */
+	public static String getMessage(int result) {
+		return result >= 0 && result < MESSAGES.length ? MESSAGES[result] : null;
+	}
+
+	/**
+	 * Returns the class of a character.
+	 *
+	 * @param c the character
+	 * @return LETTER, DIGIT or OTHER
+	 */
+	private static int classOf(char c) {
+		if (Character.isLetter(c)) {
+			return LETTER;
+		}
+		return Character.isDigit(c) ? DIGIT : OTHER;
+	}
+}
@@ -2,15 +2,20 @@ package edu.ncsu.csc216.pack_scheduler.directory;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 import edu.ncsu.csc216.pack_scheduler.io.FacultyRecordIO;
+import edu.ncsu.csc216.pack_scheduler.io.RegistrationJournal;
 import edu.ncsu.csc216.pack_scheduler.user.Faculty;
-import edu.ncsu.csc216.pack_scheduler.util.LinkedList;
+import edu.ncsu.csc216.pack_scheduler.user.PasswordHasher;
 
 /**
- * The FacultyDirectory class contains a LinkedList of Faculty and provides various methods
+ * The FacultyDirectory class contains a list of Faculty and provides various methods
  * for accessing and modifying the list of Faculty as well as file IO.
  * 
  * @author Ethan Mancini
@@ -19,9 +24,11 @@ import edu.ncsu.csc216.pack_scheduler.util.LinkedList;
 public class FacultyDirectory {
 
 	/** List of faculties in the directory */
-	private LinkedList<Faculty> facultyDirectory;
-	/** Hashing algorithm */
-	private static final String HASH_ALGORITHM = "SHA-256";
+	private List<Faculty> facultyDirectory;
+	/** Index of the faculty in the directory keyed by id */
+	private Map<String, Faculty> facultyIndex;
+	/** Journal that records changes to the directory, or null if they are not recorded */
+	private RegistrationJournal journal;
 
 	/**
 	 * Creates an empty faculty directory.
@@ -34,8 +41,9 @@ public class FacultyDirectory {
 	 * Creates an empty faculty directory. All faculties in the previous list are
 	 * list unless saved by the user.
 	 */
-	public void newFacultyDirectory() {
-		facultyDirectory = new LinkedList<Faculty>();
+	public synchronized void newFacultyDirectory() {
+		facultyDirectory = new ArrayList<Faculty>();
+		facultyIndex = new HashMap<String, Faculty>();
 	}
 
 	/**
@@ -44,12 +52,18 @@ public class FacultyDirectory {
 	 * 
 	 * @param fileName file containing list of faculties
 	 */
-	public void loadFacultyFromFile(String fileName) {
+	public synchronized void loadFacultyFromFile(String fileName) {
 		try {
-			facultyDirectory = FacultyRecordIO.readFacultyRecords(fileName);
+			facultyDirectory = FacultyRecordIO.readFacultyList(fileName);
 		} catch (FileNotFoundException e) {
 			throw new IllegalArgumentException("Unable to read file " + fileName);
 		}
+		facultyIndex = new HashMap<String, Faculty>();
+		for (Faculty f : facultyDirectory) {
+			if (!facultyIndex.containsKey(f.getId())) {
+				facultyIndex.put(f.getId(), f);
+			}
+		}
 	}
 
 	/**
@@ -70,38 +84,50 @@ public class FacultyDirectory {
 	 */
 	public boolean addFaculty(String firstName, String lastName, String id, String email, String password,
 			String repeatPassword, int maxCredits) {
-		String hashPW = "";
-		String repeatHashPW = "";
 		if (password == null || repeatPassword == null || password.equals("") || repeatPassword.equals("")) {
 			throw new IllegalArgumentException("Invalid password");
 		}
-		try {
-			MessageDigest digest1 = MessageDigest.getInstance(HASH_ALGORITHM);
-			digest1.update(password.getBytes());
-			hashPW = new String(digest1.digest());
-
-			MessageDigest digest2 = MessageDigest.getInstance(HASH_ALGORITHM);
-			digest2.update(repeatPassword.getBytes());
-			repeatHashPW = new String(digest2.digest());
-		} catch (NoSuchAlgorithmException e) {
-			throw new IllegalArgumentException("Cannot hash password");
-		}
-
-		if (!hashPW.equals(repeatHashPW)) {
+		// Equal passwords have equal hashes, so only one needs hashing
+		if (!password.equals(repeatPassword)) {
 			throw new IllegalArgumentException("Passwords do not match");
 		}
+		String hashPW = PasswordHasher.hash(password);
 
 		// If an IllegalArgumentException is thrown, it's passed up from faculty
 		// to the GUI
-		Faculty faculty = new Faculty(firstName, lastName, id, email, hashPW, maxCredits);
+		return addFaculty(new Faculty(firstName, lastName, id, email, hashPW, maxCredits));
+	}
 
-		for (int i = 0; i < facultyDirectory.size(); i++) {
-			Faculty s = facultyDirectory.get(i);
-			if (s.getId().equals(faculty.getId())) {
+	/**
+	 * Adds a faculty whose password is already hashed, such as one restored from
+	 * a journal. Returns false if the faculty's id matches another faculty's id.
+	 * 
+	 * @param faculty the faculty to add
+	 * @return true if added
+	 * @throws IllegalStateException if the change cannot be journaled
+	 */
+	public boolean addFaculty(Faculty faculty) {
+		RegistrationJournal current;
+		long entry = 0;
+		synchronized (this) {
+			if (facultyIndex.containsKey(faculty.getId())) {
 				return false;
 			}
+			// Journaled before the change, then flushed outside the monitor so readers
+			// never wait on the disk
+			current = journal;
+			if (current != null) {
+				entry = current.append(RegistrationJournal.ADD_FACULTY, faculty.getFirstName(),
+						faculty.getLastName(), faculty.getId(), faculty.getEmail(), faculty.getPassword(),
+						faculty.getMaxCourses());
+			}
+			facultyDirectory.add(faculty);
+			facultyIndex.put(faculty.getId(), faculty);
+		}
+		if (current != null) {
+			current.sync(entry);
 		}
-		return facultyDirectory.add(faculty);
+		return true;
 	}
 	
 	/**
@@ -110,14 +136,29 @@ public class FacultyDirectory {
 	 * @param id the id to look for
 	 * @return the faculty with matching id, or null if none exist.
 	 */
-	public Faculty getFacultyById(String id) {
-		for (int i = 0; i < facultyDirectory.size(); i++) {
-			Faculty s = facultyDirectory.get(i);
-			if (s.getId().equals(id)) {
-				return s;
-			}
-		}
-		return null;
+	public synchronized Faculty getFacultyById(String id) {
+		return facultyIndex.get(id);
+	}
+
+	/**
+	 * Returns a read only copy of the faculty in the directory keyed by id, which
+	 * later changes to the directory do not affect.
+	 * 
+	 * @return the faculty keyed by id
+	 */
+	public synchronized Map<String, Faculty> getFacultyIndex() {
+		return Collections.unmodifiableMap(new HashMap<String, Faculty>(facultyIndex));
+	}
+
+	/**
+	 * Returns a read only view of the faculty in the directory, in the order they
+	 * were added. Callers that need the list to stay the same while they read it
+	 * should synchronize on the directory, as every change to the directory does.
+	 * 
+	 * @return the faculty in the directory
+	 */
+	public List<Faculty> getFaculty() {
+		return Collections.unmodifiableList(facultyDirectory);
 	}
 
 	/**
@@ -127,16 +168,65 @@ public class FacultyDirectory {
 	 * 
 	 * @param facultyId faculty's id
 	 * @return true if removed
+	 * @throws IllegalStateException if the change cannot be journaled
 	 */
 	public boolean removeFaculty(String facultyId) {
-		for (int i = 0; i < facultyDirectory.size(); i++) {
-			Faculty s = facultyDirectory.get(i);
-			if (s.getId().equals(facultyId)) {
-				facultyDirectory.remove(i);
-				return true;
+		RegistrationJournal current;
+		long entry = 0;
+		synchronized (this) {
+			Faculty faculty = facultyIndex.get(facultyId);
+			if (faculty == null) {
+				return false;
+			}
+			current = journal;
+			if (current != null) {
+				entry = current.append(RegistrationJournal.REMOVE_FACULTY, facultyId);
+			}
+			facultyIndex.remove(facultyId);
+			Iterator<Faculty> it = facultyDirectory.iterator();
+			while (it.hasNext()) {
+				if (it.next() == faculty) {
+					it.remove();
+					break;
+				}
+			}
+		}
+		if (current != null) {
+			current.sync(entry);
+		}
+		return true;
+	}
+
+	/**
+	 * Converts the legacy password hashes in the directory to hex wherever the
+	 * digest can be recovered from them, so the next save writes clean records.
+	 * Hashes that cannot be converted are left to be replaced when their faculty
+	 * next log in. The conversion is not journaled, since a legacy hash still
+	 * matches its password.
+	 * 
+	 * @return the number of hashes converted
+	 */
+	public synchronized int migratePasswords() {
+		int migrated = 0;
+		for (Faculty f : facultyDirectory) {
+			String stored = f.getPassword();
+			String hex = PasswordHasher.migrate(stored);
+			if (!hex.equals(stored)) {
+				f.setPassword(hex);
+				migrated++;
 			}
 		}
-		return false;
+		return migrated;
+	}
+
+	/**
+	 * Sets the journal that records faculty added to and removed from the
+	 * directory. Loading or clearing the directory is not recorded.
+	 * 
+	 * @param journal the journal, or null to stop recording
+	 */
+	public synchronized void setJournal(RegistrationJournal journal) {
+		this.journal = journal;
 	}
 
 	/**
@@ -145,13 +235,14 @@ public class FacultyDirectory {
 	 * 
 	 * @return String array containing faculty's first name, last name, and id.
 	 */
-	public String[][] getFacultyDirectory() {
+	public synchronized String[][] getFacultyDirectory() {
 		String[][] directory = new String[facultyDirectory.size()][3];
-		for (int i = 0; i < facultyDirectory.size(); i++) {
-			Faculty s = facultyDirectory.get(i);
+		int i = 0;
+		for (Faculty s : facultyDirectory) {
 			directory[i][0] = s.getFirstName();
 			directory[i][1] = s.getLastName();
 			directory[i][2] = s.getId();
+			i++;
 		}
 		return directory;
 	}
@@ -161,7 +252,7 @@ public class FacultyDirectory {
 	 * 
 	 * @param fileName name of file to save faculties to.
 	 */
-	public void saveFacultyDirectory(String fileName) {
+	public synchronized void saveFacultyDirectory(String fileName) {
 		try {
 			FacultyRecordIO.writeFacultyRecords(fileName, facultyDirectory);
 		} catch (IOException e) {
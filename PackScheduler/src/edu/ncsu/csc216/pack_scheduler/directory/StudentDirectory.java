@@ -2,10 +2,15 @@ package edu.ncsu.csc216.pack_scheduler.directory;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import edu.ncsu.csc216.collections.list.SortedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.ncsu.csc216.pack_scheduler.io.RegistrationJournal;
 import edu.ncsu.csc216.pack_scheduler.io.StudentRecordIO;
+import edu.ncsu.csc216.pack_scheduler.user.PasswordHasher;
 import edu.ncsu.csc216.pack_scheduler.user.Student;
 
 /**
@@ -16,10 +21,12 @@ import edu.ncsu.csc216.pack_scheduler.user.Student;
  */
 public class StudentDirectory {
 
-	/** List of students in the directory */
-	private SortedList<Student> studentDirectory;
-	/** Hashing algorithm */
-	private static final String HASH_ALGORITHM = "SHA-256";
+	/** List of students in the directory, kept in sorted order */
+	private List<Student> studentDirectory;
+	/** Index of the students in the directory keyed by id */
+	private Map<String, Student> studentIndex;
+	/** Journal that records changes to the directory, or null if they are not recorded */
+	private RegistrationJournal journal;
 
 	/**
 	 * Creates an empty student directory.
@@ -32,8 +39,9 @@ public class StudentDirectory {
 	 * Creates an empty student directory. All students in the previous list are
 	 * list unless saved by the user.
 	 */
-	public void newStudentDirectory() {
-		studentDirectory = new SortedList<Student>();
+	public synchronized void newStudentDirectory() {
+		studentDirectory = new ArrayList<Student>();
+		studentIndex = new HashMap<String, Student>();
 	}
 
 	/**
@@ -42,12 +50,18 @@ public class StudentDirectory {
 	 * 
 	 * @param fileName file containing list of students
 	 */
-	public void loadStudentsFromFile(String fileName) {
+	public synchronized void loadStudentsFromFile(String fileName) {
 		try {
-			studentDirectory = StudentRecordIO.readStudentRecords(fileName);
+			studentDirectory = StudentRecordIO.readStudentList(fileName);
 		} catch (FileNotFoundException e) {
 			throw new IllegalArgumentException("Unable to read file " + fileName);
 		}
+		studentIndex = new HashMap<String, Student>();
+		for (Student s : studentDirectory) {
+			if (!studentIndex.containsKey(s.getId())) {
+				studentIndex.put(s.getId(), s);
+			}
+		}
 	}
 
 	/**
@@ -68,38 +82,52 @@ public class StudentDirectory {
 	 */
 	public boolean addStudent(String firstName, String lastName, String id, String email, String password,
 			String repeatPassword, int maxCredits) {
-		String hashPW = "";
-		String repeatHashPW = "";
 		if (password == null || repeatPassword == null || password.equals("") || repeatPassword.equals("")) {
 			throw new IllegalArgumentException("Invalid password");
 		}
-		try {
-			MessageDigest digest1 = MessageDigest.getInstance(HASH_ALGORITHM);
-			digest1.update(password.getBytes());
-			hashPW = new String(digest1.digest());
-
-			MessageDigest digest2 = MessageDigest.getInstance(HASH_ALGORITHM);
-			digest2.update(repeatPassword.getBytes());
-			repeatHashPW = new String(digest2.digest());
-		} catch (NoSuchAlgorithmException e) {
-			throw new IllegalArgumentException("Cannot hash password");
-		}
-
-		if (!hashPW.equals(repeatHashPW)) {
+		// Equal passwords have equal hashes, so only one needs hashing
+		if (!password.equals(repeatPassword)) {
 			throw new IllegalArgumentException("Passwords do not match");
 		}
+		String hashPW = PasswordHasher.hash(password);
 
 		// If an IllegalArgumentException is thrown, it's passed up from Student
 		// to the GUI
-		Student student = new Student(firstName, lastName, id, email, hashPW, maxCredits);
+		return addStudent(new Student(firstName, lastName, id, email, hashPW, maxCredits));
+	}
 
-		for (int i = 0; i < studentDirectory.size(); i++) {
-			Student s = studentDirectory.get(i);
-			if (s.getId().equals(student.getId())) {
+	/**
+	 * Adds a Student whose password is already hashed, such as one restored from
+	 * a journal. Returns false if the student's id matches another student's id.
+	 * 
+	 * @param student the student to add
+	 * @return true if added
+	 * @throws IllegalStateException if the change cannot be journaled
+	 */
+	public boolean addStudent(Student student) {
+		RegistrationJournal current;
+		long entry = 0;
+		synchronized (this) {
+			if (studentIndex.containsKey(student.getId())) {
 				return false;
 			}
+			// Journaled before the change, then flushed outside the monitor so readers
+			// never wait on the disk
+			current = journal;
+			if (current != null) {
+				entry = current.append(RegistrationJournal.ADD_STUDENT, student.getFirstName(),
+						student.getLastName(), student.getId(), student.getEmail(), student.getPassword(),
+						student.getMaxCredits());
+			}
+			// Keep the directory sorted by inserting at the binary search point
+			int index = Collections.binarySearch(studentDirectory, student);
+			studentDirectory.add(index < 0 ? -index - 1 : index, student);
+			studentIndex.put(student.getId(), student);
 		}
-		return studentDirectory.add(student);
+		if (current != null) {
+			current.sync(entry);
+		}
+		return true;
 	}
 	
 	/**
@@ -108,14 +136,19 @@ public class StudentDirectory {
 	 * @param id the id to look for
 	 * @return the Student with matching id, or null if none exist.
 	 */
-	public Student getStudentById(String id) {
-		for (int i = 0; i < studentDirectory.size(); i++) {
-			Student s = studentDirectory.get(i);
-			if (s.getId().equals(id)) {
-				return s;
-			}
-		}
-		return null;
+	public synchronized Student getStudentById(String id) {
+		return studentIndex.get(id);
+	}
+
+	/**
+	 * Returns a read only view of the students in the directory, in sorted order.
+	 * Callers that need the list to stay the same while they read it should
+	 * synchronize on the directory, as every change to the directory does.
+	 * 
+	 * @return the students in the directory
+	 */
+	public List<Student> getStudents() {
+		return Collections.unmodifiableList(studentDirectory);
 	}
 
 	/**
@@ -125,16 +158,59 @@ public class StudentDirectory {
 	 * 
 	 * @param studentId student's id
 	 * @return true if removed
+	 * @throws IllegalStateException if the change cannot be journaled
 	 */
 	public boolean removeStudent(String studentId) {
-		for (int i = 0; i < studentDirectory.size(); i++) {
-			Student s = studentDirectory.get(i);
-			if (s.getId().equals(studentId)) {
-				studentDirectory.remove(i);
-				return true;
+		RegistrationJournal current;
+		long entry = 0;
+		synchronized (this) {
+			Student s = studentIndex.get(studentId);
+			if (s == null) {
+				return false;
+			}
+			current = journal;
+			if (current != null) {
+				entry = current.append(RegistrationJournal.REMOVE_STUDENT, studentId);
+			}
+			studentIndex.remove(studentId);
+			studentDirectory.remove(s);
+		}
+		if (current != null) {
+			current.sync(entry);
+		}
+		return true;
+	}
+
+	/**
+	 * Converts the legacy password hashes in the directory to hex wherever the
+	 * digest can be recovered from them, so the next save writes clean records.
+	 * Hashes that cannot be converted are left to be replaced when their students
+	 * next log in. The conversion is not journaled, since a legacy hash still
+	 * matches its password.
+	 * 
+	 * @return the number of hashes converted
+	 */
+	public synchronized int migratePasswords() {
+		int migrated = 0;
+		for (Student s : studentDirectory) {
+			String stored = s.getPassword();
+			String hex = PasswordHasher.migrate(stored);
+			if (!hex.equals(stored)) {
+				s.setPassword(hex);
+				migrated++;
 			}
 		}
-		return false;
+		return migrated;
+	}
+
+	/**
+	 * Sets the journal that records students added to and removed from the
+	 * directory. Loading or clearing the directory is not recorded.
+	 * 
+	 * @param journal the journal, or null to stop recording
+	 */
+	public synchronized void setJournal(RegistrationJournal journal) {
+		this.journal = journal;
 	}
 
 	/**
@@ -143,7 +219,7 @@ public class StudentDirectory {
 	 * 
 	 * @return String array containing students first name, last name, and id.
 	 */
-	public String[][] getStudentDirectory() {
+	public synchronized String[][] getStudentDirectory() {
 		String[][] directory = new String[studentDirectory.size()][3];
 		for (int i = 0; i < studentDirectory.size(); i++) {
 			Student s = studentDirectory.get(i);
@@ -159,7 +235,7 @@ public class StudentDirectory {
 	 * 
 	 * @param fileName name of file to save students to.
 	 */
-	public void saveStudentDirectory(String fileName) {
+	public synchronized void saveStudentDirectory(String fileName) {
 		try {
 			StudentRecordIO.writeStudentRecords(fileName, studentDirectory);
 		} catch (IOException e) {
@@ -0,0 +1,166 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replaces a file without ever leaving it partly written. Text is written
+ * through a large buffer into a temporary file in the same directory. On
+ * commit the temporary file is flushed to disk and renamed over the target in
+ * one step, so after a crash the target holds either its old contents or the
+ * complete new contents. Closing without committing deletes the temporary
+ * file and leaves the target untouched.
+ *
+ * Text is encoded with the platform's default charset and lines end with the
+ * platform's line separator, as PrintStream does.
+ *
+ * @author Anton Nikulsin
+ */
+class AtomicFileWriter implements Closeable {
+
+	/** Size of the write buffer in chars */
+	private static final int BUFFER_SIZE = 1 << 16;
+	/** Line separator written by newLine() */
+	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+	/** Makes temporary file names unique within this process */
+	private static final AtomicLong TEMP_COUNTER = new AtomicLong();
+
+	/** The file being replaced */
+	private final Path target;
+	/** The temporary file being written */
+	private final Path temp;
+	/** Channel to the temporary file */
+	private final FileChannel channel;
+	/** Buffered writer on the channel */
+	private final Writer out;
+	/** Whether the temporary file has been renamed over the target */
+	private boolean committed;
+
+	/**
+	 * Starts replacing a file.
+	 *
+	 * @param fileName the file to replace
+	 * @throws IOException if the temporary file cannot be created, for example
+	 *                     because the directory does not exist
+	 */
+	AtomicFileWriter(String fileName) throws IOException {
+		target = Paths.get(fileName).toAbsolutePath();
+		// Created like any other new file, so it gets the usual permissions
+		temp = target.resolveSibling("." + target.getFileName() + "." + System.nanoTime() + "-"
+				+ TEMP_COUNTER.incrementAndGet() + ".tmp");
+		channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		out = new BufferedWriter(Channels.newWriter(channel, Charset.defaultCharset().newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE), -1),
+				BUFFER_SIZE);
+	}
+
+	/**
+	 * Writes the given records to a file, one per line, replacing the file
+	 * atomically.
+	 *
+	 * @param fileName the file to replace
+	 * @param records  the records to write, using their toString()
+	 * @throws IOException if the file cannot be written
+	 */
+	static void writeLines(String fileName, Iterable<?> records) throws IOException {
+		try (AtomicFileWriter writer = new AtomicFileWriter(fileName)) {
+			for (Object record : records) {
+				writer.write(record.toString());
+				writer.newLine();
+			}
+			writer.commit();
+		}
+	}
+
+	/**
+	 * Writes text to the temporary file.
+	 *
+	 * @param text the text to write
+	 * @throws IOException if the text cannot be written
+	 */
+	void write(String text) throws IOException {
+		out.write(text);
+	}
+
+	/**
+	 * Returns a stream for writing binary contents to the temporary file. It is
+	 * not buffered, must be flushed before commit() if wrapped in a buffer, and
+	 * should not be mixed with write().
+	 *
+	 * @return the stream
+	 */
+	OutputStream getOutputStream() {
+		return Channels.newOutputStream(channel);
+	}
+
+	/**
+	 * Ends the current line.
+	 *
+	 * @throws IOException if the line separator cannot be written
+	 */
+	void newLine() throws IOException {
+		out.write(LINE_SEPARATOR);
+	}
+
+	/**
+	 * Flushes the temporary file to disk and renames it over the target.
+	 *
+	 * @throws IOException if the file cannot be flushed or renamed
+	 */
+	void commit() throws IOException {
+		out.flush();
+		channel.force(true);
+		channel.close();
+		try {
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+		committed = true;
+		syncDirectory(target.getParent());
+	}
+
+	/**
+	 * Closes the temporary file, deleting it if it was not committed.
+	 *
+	 * @throws IOException if the temporary file cannot be deleted
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!committed) {
+			try {
+				channel.close();
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		}
+	}
+
+	/**
+	 * Flushes a directory to disk so a rename in it survives a crash. Not every
+	 * platform allows a directory to be opened, so failures are ignored.
+	 *
+	 * @param directory the directory to flush
+	 */
+	private static void syncDirectory(Path directory) {
+		try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+			dir.force(true);
+		} catch (IOException e) {
+			// the rename itself has already happened
+		}
+	}
+}
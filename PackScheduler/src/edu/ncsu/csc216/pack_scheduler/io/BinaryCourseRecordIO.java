@@ -0,0 +1,399 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.ncsu.csc216.pack_scheduler.course.Course;
+
+/**
+ * Reads and writes course records in a compact binary form that loads much
+ * faster than the text form. Every distinct string is stored once in a string
+ * table, and each course is a fixed-width record that refers to its strings by
+ * index, with its meeting days as a bitmask and its times as minutes since
+ * midnight:
+ *
+ * <pre>
+ * int magic, int version, int string count, int course count, int string bytes
+ * int[string count + 1] start of each string in the string bytes, then the end
+ * byte[string bytes] the strings in UTF-8, padded to a multiple of four
+ * course count records of 24 bytes:
+ *   int name, int title, int section, int instructor id (-1 for none)
+ *   byte credits, byte meeting day mask, short enrollment cap,
+ *   short start minute, short end minute
+ * </pre>
+ *
+ * The file is read through a memory-mapped FileChannel. Its structure is always
+ * checked, but a trusted file, such as one this class wrote from a loaded
+ * catalog, can skip validating each course's fields, which is most of the cost
+ * of loading the text form. Meeting days are stored as a set, so they are read
+ * back in the order MTWHF whatever order they were written in.
+ *
+ * @author Anton Nikulsin
+ */
+public class BinaryCourseRecordIO {
+
+	/** Marks the start of a binary course record file */
+	private static final int MAGIC = 0x50534331;
+	/** Version of the file format */
+	private static final int VERSION = 1;
+	/** Size of the fixed part of the header in bytes */
+	private static final int HEADER_BYTES = 20;
+	/** Size of a course record in bytes */
+	private static final int RECORD_BYTES = 24;
+	/** String index written for a course without an instructor */
+	private static final int NO_STRING = -1;
+	/** Instructor id of a course without an instructor, as in the text form */
+	private static final String NO_INSTRUCTOR = "null";
+	/** Meeting day letters in the order of their bits */
+	private static final String DAY_LETTERS = "MTWHF";
+	/** Meeting days for every day mask, with an empty mask being arranged */
+	private static final String[] DAYS_BY_MASK = new String[1 << DAY_LETTERS.length()];
+	/** Minutes in an hour */
+	private static final int MINUTES_PER_HOUR = 60;
+
+	static {
+		DAYS_BY_MASK[0] = "A";
+		for (int mask = 1; mask < DAYS_BY_MASK.length; mask++) {
+			StringBuilder days = new StringBuilder(DAY_LETTERS.length());
+			for (int i = 0; i < DAY_LETTERS.length(); i++) {
+				if ((mask & (1 << i)) != 0) {
+					days.append(DAY_LETTERS.charAt(i));
+				}
+			}
+			DAYS_BY_MASK[mask] = days.toString();
+		}
+	}
+
+	/**
+	 * Reads the course records in a binary file without binding them to their
+	 * instructors, like CourseRecordIO.parseCourseRecords(). If the file is
+	 * trusted, each course is created from its stored fields with only the cheap
+	 * checks of credits and times; otherwise the courses are validated as they
+	 * are in the text form. Either way invalid courses are skipped.
+	 *
+	 * @param fileName file to read course records from
+	 * @param trusted  whether the file holds only valid courses, so their names
+	 *                 and titles need not be checked
+	 * @return the parsed courses, ready to be bound to their instructors
+	 * @throws IOException if the file cannot be read or is not a valid binary
+	 *                     course record file, or a FileNotFoundException if it
+	 *                     cannot be found
+	 */
+	public static ParsedCourseRecords parseBinaryCourseRecords(String fileName, boolean trusted)
+			throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			// the mapping stays valid once the channel is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (NoSuchFileException e) {
+			throw new FileNotFoundException(fileName);
+		}
+		long size = buffer.capacity();
+		if (size < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+			throw new IOException("Not a binary course record file");
+		}
+		int stringCount = buffer.getInt();
+		int courseCount = buffer.getInt();
+		int stringBytes = buffer.getInt();
+		if (stringCount < 0 || courseCount < 0 || stringBytes < 0
+				|| size != HEADER_BYTES + 4L * (stringCount + 1) + padded(stringBytes)
+						+ (long) RECORD_BYTES * courseCount) {
+			throw new IOException("Binary course record file has the wrong size");
+		}
+
+		int[] offsets = new int[stringCount + 1];
+		for (int i = 0; i < offsets.length; i++) {
+			offsets[i] = buffer.getInt();
+			if (offsets[i] < (i == 0 ? 0 : offsets[i - 1]) || offsets[i] > stringBytes) {
+				throw new IOException("Invalid string table");
+			}
+		}
+		byte[] utf8 = new byte[stringBytes];
+		buffer.get(utf8);
+		String[] strings = new String[stringCount];
+		for (int i = 0; i < stringCount; i++) {
+			strings[i] = new String(utf8, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+		}
+		buffer.position(buffer.position() + padded(stringBytes) - stringBytes);
+
+		ParsedCourseRecords parsed = new ParsedCourseRecords();
+		for (int i = 0; i < courseCount; i++) {
+			String name = string(strings, buffer.getInt());
+			String title = string(strings, buffer.getInt());
+			String section = string(strings, buffer.getInt());
+			int instructor = buffer.getInt();
+			String instructorId = instructor == NO_STRING ? NO_INSTRUCTOR : string(strings, instructor);
+			int credits = buffer.get();
+			int dayMask = buffer.get();
+			int enrollmentCap = buffer.getShort();
+			int startMinute = buffer.getShort();
+			int endMinute = buffer.getShort();
+			if (dayMask < 0 || dayMask >= DAYS_BY_MASK.length) {
+				throw new IOException("Invalid meeting days in course record " + i);
+			}
+			String meetingDays = DAYS_BY_MASK[dayMask];
+			try {
+				if (trusted) {
+					parsed.add(Course.fromValidatedFields(name, title, section, credits, enrollmentCap, meetingDays,
+							dayMask, startMinute, endMinute), instructorId);
+				} else {
+					parsed.add(new Course(name, title, section, credits, null, enrollmentCap, meetingDays,
+							toMilitary(startMinute), toMilitary(endMinute)), instructorId);
+				}
+			} catch (IllegalArgumentException e) {
+				//skip the course
+			}
+		}
+		return parsed;
+	}
+
+	/**
+	 * Writes the given courses to a binary file, replacing it atomically. Each
+	 * course is written with its own instructor id.
+	 *
+	 * @param fileName the file to write
+	 * @param courses  the courses to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void writeBinaryCourseRecords(String fileName, List<Course> courses) throws IOException {
+		List<String> instructorIds = new ArrayList<String>(courses.size());
+		for (Course c : courses) {
+			instructorIds.add(c.getInstructorId());
+		}
+		write(fileName, courses, instructorIds);
+	}
+
+	/**
+	 * Converts a course record file from the text form to the binary form. The
+	 * valid lines are written in file order with their instructor ids as they
+	 * appear in the text, so duplicates and instructors that are not in the
+	 * faculty directory are kept for whoever loads the binary file.
+	 *
+	 * @param textFile   the text file to read
+	 * @param binaryFile the binary file to write
+	 * @return the number of courses written
+	 * @throws IOException if the text file cannot be read or the binary file
+	 *                     cannot be written
+	 */
+	public static int convertToBinary(String textFile, String binaryFile) throws IOException {
+		return writeParsed(binaryFile, CourseRecordIO.parseCourseRecords(textFile), true);
+	}
+
+	/**
+	 * Converts a course record file from the binary form to the text form,
+	 * validating each course and skipping any that are invalid.
+	 *
+	 * @param binaryFile the binary file to read
+	 * @param textFile   the text file to write
+	 * @return the number of courses written
+	 * @throws IOException if the binary file cannot be read or the text file
+	 *                     cannot be written
+	 */
+	public static int convertToText(String binaryFile, String textFile) throws IOException {
+		return writeParsed(textFile, parseBinaryCourseRecords(binaryFile, false), false);
+	}
+
+	/**
+	 * Converts a course record file between the text and binary forms.
+	 *
+	 * @param args "binary" or "text" for the form to convert to, then the file to
+	 *             read and the file to write
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 3 || !("binary".equals(args[0]) || "text".equals(args[0]))) {
+			System.err.println("Usage: BinaryCourseRecordIO binary|text <input file> <output file>");
+			System.exit(1);
+		}
+		int count = "binary".equals(args[0]) ? convertToBinary(args[1], args[2]) : convertToText(args[1], args[2]);
+		System.out.println("Converted " + count + " courses");
+	}
+
+	/**
+	 * Writes parsed courses with the instructor ids they were parsed with.
+	 *
+	 * @param fileName the file to write
+	 * @param parsed   the parsed courses
+	 * @param binary   whether to write the binary form rather than the text form
+	 * @return the number of courses written
+	 * @throws IOException if the file cannot be written
+	 */
+	private static int writeParsed(String fileName, ParsedCourseRecords parsed, boolean binary) throws IOException {
+		List<Course> courses = new ArrayList<Course>(parsed.size());
+		List<String> instructorIds = new ArrayList<String>(parsed.size());
+		for (int i = 0; i < parsed.size(); i++) {
+			Course course = parsed.getCourse(i);
+			String instructorId = parsed.getInstructorId(i);
+			courses.add(course);
+			instructorIds.add(NO_INSTRUCTOR.equals(instructorId) ? null : instructorId);
+			if (!binary) {
+				// the parsed courses are not bound to anyone, so the id can be set directly
+				course.setInstructorId(instructorId);
+			}
+		}
+		if (binary) {
+			write(fileName, courses, instructorIds);
+		} else {
+			CourseRecordIO.writeCourseRecords(fileName, courses);
+		}
+		return courses.size();
+	}
+
+	/**
+	 * Writes courses and their instructor ids to a binary file, replacing it
+	 * atomically.
+	 *
+	 * @param fileName      the file to write
+	 * @param courses       the courses to write
+	 * @param instructorIds the instructor id of each course, or null for none
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void write(String fileName, List<Course> courses, List<String> instructorIds)
+			throws IOException {
+		Map<String, Integer> index = new HashMap<String, Integer>();
+		List<byte[]> strings = new ArrayList<byte[]>();
+		int[] refs = new int[courses.size() * 4];
+		for (int i = 0; i < courses.size(); i++) {
+			Course c = courses.get(i);
+			refs[i * 4] = intern(c.getName(), index, strings);
+			refs[i * 4 + 1] = intern(c.getTitle(), index, strings);
+			refs[i * 4 + 2] = intern(c.getSection(), index, strings);
+			refs[i * 4 + 3] = intern(instructorIds.get(i), index, strings);
+		}
+		int stringBytes = 0;
+		for (byte[] s : strings) {
+			stringBytes += s.length;
+		}
+
+		try (AtomicFileWriter writer = new AtomicFileWriter(fileName)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(writer.getOutputStream(), 1 << 16));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(strings.size());
+			out.writeInt(courses.size());
+			out.writeInt(stringBytes);
+			int offset = 0;
+			for (byte[] s : strings) {
+				out.writeInt(offset);
+				offset += s.length;
+			}
+			out.writeInt(offset);
+			for (byte[] s : strings) {
+				out.write(s);
+			}
+			for (int i = stringBytes; i < padded(stringBytes); i++) {
+				out.write(0);
+			}
+			for (int i = 0; i < courses.size(); i++) {
+				Course c = courses.get(i);
+				for (int j = 0; j < 4; j++) {
+					out.writeInt(refs[i * 4 + j]);
+				}
+				out.writeByte(c.getCredits());
+				out.writeByte(toDayMask(c.getMeetingDays()));
+				out.writeShort(c.getCourseRoll().getEnrollmentCap());
+				out.writeShort(toMinutes(c.getStartTime()));
+				out.writeShort(toMinutes(c.getEndTime()));
+			}
+			out.flush();
+			writer.commit();
+		}
+	}
+
+	/**
+	 * Returns the index of a string in the string table, adding it if it is not
+	 * there yet.
+	 *
+	 * @param value   the string, or null
+	 * @param index   positions of the strings in the table
+	 * @param strings the table's strings in UTF-8
+	 * @return the index of the string, or NO_STRING for null
+	 */
+	private static int intern(String value, Map<String, Integer> index, List<byte[]> strings) {
+		if (value == null) {
+			return NO_STRING;
+		}
+		Integer position = index.get(value);
+		if (position == null) {
+			position = strings.size();
+			index.put(value, position);
+			strings.add(value.getBytes(StandardCharsets.UTF_8));
+		}
+		return position;
+	}
+
+	/**
+	 * Returns a string from the string table.
+	 *
+	 * @param strings the string table
+	 * @param index   the index of the string
+	 * @return the string
+	 * @throws IOException if the index is not in the table
+	 */
+	private static String string(String[] strings, int index) throws IOException {
+		if (index < 0 || index >= strings.length) {
+			throw new IOException("Invalid string index " + index);
+		}
+		return strings[index];
+	}
+
+	/**
+	 * Returns the bitmask of meeting days, with M as the lowest bit.
+	 *
+	 * @param meetingDays the meeting days
+	 * @return the bitmask, which is empty for arranged
+	 */
+	private static int toDayMask(String meetingDays) {
+		int mask = 0;
+		for (int i = 0; i < meetingDays.length(); i++) {
+			int bit = DAY_LETTERS.indexOf(meetingDays.charAt(i));
+			if (bit >= 0) {
+				mask |= 1 << bit;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Converts a military time to minutes since midnight.
+	 *
+	 * @param time the military time
+	 * @return the minutes since midnight
+	 */
+	private static int toMinutes(int time) {
+		return time / 100 * MINUTES_PER_HOUR + time % 100;
+	}
+
+	/**
+	 * Converts minutes since midnight to a military time.
+	 *
+	 * @param minutes the minutes since midnight
+	 * @return the military time
+	 */
+	private static int toMilitary(int minutes) {
+		return minutes / MINUTES_PER_HOUR * 100 + minutes % MINUTES_PER_HOUR;
+	}
+
+	/**
+	 * Rounds a number of bytes up to a multiple of four, so the records that
+	 * follow the string table are aligned.
+	 *
+	 * @param bytes the number of bytes
+	 * @return the padded number of bytes
+	 */
+	private static int padded(int bytes) {
+		return (bytes + 3) & ~3;
+	}
+}
@@ -1,16 +1,13 @@
 package edu.ncsu.csc216.pack_scheduler.io;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.PrintStream;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 
 import edu.ncsu.csc216.collections.list.SortedList;
 import edu.ncsu.csc216.pack_scheduler.course.Course;
 import edu.ncsu.csc216.pack_scheduler.manager.RegistrationManager;
-import edu.ncsu.csc216.pack_scheduler.user.Faculty;
 
 /**
  * Reads Course records from text files.  Writes a set of CourseRecords to a file.
@@ -30,74 +27,89 @@ public class CourseRecordIO {
      * @throws FileNotFoundException if the file cannot be found or read
      */
 	public static SortedList<Course> readCourseRecords(String fileName) throws FileNotFoundException {
-	    Scanner fileReader = new Scanner(new FileInputStream(fileName));
 	    SortedList<Course> courses = new SortedList<Course>();
-	    while (fileReader.hasNextLine()) {
-	        try {
-	            Course course = readCourse(fileReader.nextLine());
-	            boolean duplicate = false;
-	            for (int i = 0; i < courses.size(); i++) {
-	                Course c = courses.get(i);
-	                if (course.getName().equals(c.getName()) &&
-	                        course.getSection().equals(c.getSection())) {
-	                    //it's a duplicate
-	                    duplicate = true;
-	                }
-	            }
-	            if (!duplicate) {
-	                courses.add(course);
+	    for (Course course : readCourseList(fileName)) {
+	        courses.add(course);
+	    }
+	    return courses;
+	}
+
+    /**
+     * Reads course records from a file and returns the valid Courses sorted into catalog
+     * order, bound to the instructors in the RegistrationManager's faculty directory.
+     * Invalid lines are skipped, as are lines with the same name and section as an
+     * earlier line.
+     * @param fileName file to read Course records from
+     * @return a sorted list of valid Courses
+     * @throws FileNotFoundException if the file cannot be found or read
+     */
+	public static List<Course> readCourseList(String fileName) throws FileNotFoundException {
+	    ParsedCourseRecords parsed = parseCourseRecords(fileName);
+	    return parsed.bindInstructors(RegistrationManager.getInstance().getFacultyDirectory().getFacultyIndex());
+	}
+
+    /**
+     * Parses the valid lines of a course record file without binding them to their
+     * instructors, so no shared state is touched.  The file is streamed through a buffered
+     * channel and split on commas by hand.  Invalid lines are skipped.
+     * @param fileName file to read Course records from
+     * @return the parsed courses, ready to be bound to their instructors
+     * @throws FileNotFoundException if the file cannot be found or read
+     */
+	public static ParsedCourseRecords parseCourseRecords(String fileName) throws FileNotFoundException {
+	    RecordLineReader fileReader = new RecordLineReader(fileName);
+	    ParsedCourseRecords parsed = new ParsedCourseRecords();
+	    try {
+	        String line;
+	        while ((line = fileReader.readLine()) != null) {
+	            try {
+	                readCourse(line, parsed);
+	            } catch (IllegalArgumentException e) {
+	                //skip the line
 	            }
-	        } catch (IllegalArgumentException e) {
-	            //skip the line
+	        }
+	    } catch (IOException e) {
+	        //like Scanner, treat a read error as the end of the file
+	    } finally {
+	        try {
+	            fileReader.close();
+	        } catch (IOException e) {
+	            //nothing left to read
 	        }
 	    }
-	    fileReader.close();
-	    return courses;
+	    return parsed;
 	}
 
 	/**
-     * Creates a course class from each line of the input file that is read from the 
-     * read course records class. 
+     * Creates a course class from a line of the input file and adds it, along with
+     * its instructor's id, to the parsed records.
      * @param nextLine is the input line to be read
-     * @return a course object read from the line 
+     * @param parsed the records to add the course to
      * @throws IllegalArgumentException if elements are not in the file line
      */
-    private static Course readCourse(String nextLine) {
-		try {
-			Scanner lineScan = new Scanner(nextLine);
-	    	
-			lineScan.useDelimiter(",");
-			
-			String name = lineScan.next();
-			String title = lineScan.next();
-			String section = lineScan.next();
-			int credits = lineScan.nextInt();
-			String instructorId = lineScan.next();
-			int enrollmentCap = lineScan.nextInt();
-			String meetingDays = lineScan.next();
-			
-			int startTime = 0;
-			int endTime = 0;
-			
-			if(lineScan.hasNext()) {
-				startTime = lineScan.nextInt();
-				endTime = lineScan.nextInt();
-			}
-			
-			Course course = new Course(name, title, section, credits, null, enrollmentCap, meetingDays, startTime, endTime);
-			
-			Faculty faculty = RegistrationManager.getInstance().getFacultyDirectory().getFacultyById(instructorId);
-			if (faculty != null) {
-				faculty.getSchedule().addCourseToSchedule(course);
-			}
-			
-			lineScan.close();
-			
-	    	return course;
+    private static void readCourse(String nextLine, ParsedCourseRecords parsed) {
+		List<String> fields = RecordLineReader.splitFields(nextLine);
+		if (fields.size() < 7 || fields.size() == 8) {
+			throw new IllegalArgumentException();
+		}
+		String name = fields.get(0);
+		String title = fields.get(1);
+		String section = fields.get(2);
+		int credits = Integer.parseInt(fields.get(3));
+		String instructorId = fields.get(4);
+		int enrollmentCap = Integer.parseInt(fields.get(5));
+		String meetingDays = fields.get(6);
+		
+		int startTime = 0;
+		int endTime = 0;
+		
+		if(fields.size() > 7) {
+			startTime = Integer.parseInt(fields.get(7));
+			endTime = Integer.parseInt(fields.get(8));
 		}
-    	catch(NoSuchElementException e) {
-    		throw new IllegalArgumentException();
-    	}
+		
+		parsed.add(new Course(name, title, section, credits, null, enrollmentCap, meetingDays, startTime, endTime),
+				instructorId);
 	}
 
     /**
@@ -108,13 +120,20 @@ public class CourseRecordIO {
 	 * @throws IOException throws new IOException if there is an issue with writing the outputFile
 	 */
 	public static void writeCourseRecords(String fileName, SortedList<Course> courses) throws IOException {
-		PrintStream fileWriter = new PrintStream(new File(fileName));
-	
+		List<Course> list = new ArrayList<Course>(courses.size());
 		for (int i = 0; i < courses.size(); i++) {
-		    fileWriter.println(courses.get(i).toString());
+		    list.add(courses.get(i));
 		}
-	
-		fileWriter.close();
-	    
+		writeCourseRecords(fileName, list);
+	}
+
+    /**
+	 * Writes the given list of Courses to a new file, one per line.
+	 * @param fileName is the name of the file the user wishes to write the courses to
+	 * @param courses is the list of courses the user wishes to print to the outputFile
+	 * @throws IOException throws new IOException if there is an issue with writing the outputFile
+	 */
+	public static void writeCourseRecords(String fileName, List<Course> courses) throws IOException {
+		AtomicFileWriter.writeLines(fileName, courses);
 	}
-}
\ No newline at end of file
+}
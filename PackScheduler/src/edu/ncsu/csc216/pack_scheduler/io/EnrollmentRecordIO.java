@@ -0,0 +1,149 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ncsu.csc216.pack_scheduler.catalog.CourseCatalog;
+import edu.ncsu.csc216.pack_scheduler.course.Course;
+import edu.ncsu.csc216.pack_scheduler.course.roll.CourseRoll;
+import edu.ncsu.csc216.pack_scheduler.directory.StudentDirectory;
+import edu.ncsu.csc216.pack_scheduler.user.Student;
+
+/**
+ * Reads and writes who is enrolled in and waitlisted for each course. Course
+ * records only hold a course's definition, so its roll is saved separately in
+ * this file, one line per section with anyone on its roll or waitlist:
+ *
+ * <pre>
+ * name,section,number enrolled,enrolled ids...,waitlisted ids...
+ * </pre>
+ *
+ * Both lists of ids are in order, so the roll and the waitlist's promotion
+ * order are restored exactly.
+ *
+ * @author Anton Nikulsin
+ */
+public class EnrollmentRecordIO {
+
+	/**
+	 * Restores the rolls and waitlists in a file onto the courses in a catalog,
+	 * adding each course to the schedules of the students on it. Each line is
+	 * applied as it is read, looking up its course and students by id, so the
+	 * whole file is restored in one pass. Invalid lines and unknown courses are
+	 * skipped. The first number enrolled ids go back on the roll and the rest
+	 * back on the waitlist, so no waitlisted student is moved onto the roll. An
+	 * unknown student, or one whose schedule can no longer take the course, is
+	 * skipped, leaving their seat open or their place in line to the next
+	 * student.
+	 *
+	 * @param fileName file to read enrollment records from
+	 * @param catalog  the courses to restore rolls onto, whose rolls should be
+	 *                 empty
+	 * @param students the students to enroll
+	 * @return the number of students placed on a roll or waitlist
+	 * @throws FileNotFoundException if the file cannot be found or read
+	 */
+	public static int readEnrollmentRecords(String fileName, CourseCatalog catalog, StudentDirectory students)
+			throws FileNotFoundException {
+		RecordLineReader fileReader = new RecordLineReader(fileName);
+		int restored = 0;
+		try {
+			String line;
+			while ((line = fileReader.readLine()) != null) {
+				try {
+					restored += readEnrollment(line, catalog, students);
+				} catch (IllegalArgumentException e) {
+					//skip the line
+				}
+			}
+		} catch (IOException e) {
+			//like Scanner, treat a read error as the end of the file
+		} finally {
+			try {
+				fileReader.close();
+			} catch (IOException e) {
+				//nothing left to read
+			}
+		}
+		return restored;
+	}
+
+	/**
+	 * Restores the roll and waitlist of one course from a line of the file.
+	 *
+	 * @param line     the line
+	 * @param catalog  the courses to restore onto
+	 * @param students the students to enroll
+	 * @return the number of students placed on the roll or waitlist
+	 * @throws IllegalArgumentException if the line is not a valid record
+	 */
+	private static int readEnrollment(String line, CourseCatalog catalog, StudentDirectory students) {
+		List<String> fields = RecordLineReader.splitFields(line);
+		if (fields.size() < 3) {
+			throw new IllegalArgumentException();
+		}
+		int enrolled = Integer.parseInt(fields.get(2));
+		if (enrolled < 0 || enrolled > fields.size() - 3) {
+			throw new IllegalArgumentException();
+		}
+		Course course = catalog.getCourseFromCatalog(fields.get(0), fields.get(1));
+		if (course == null) {
+			throw new IllegalArgumentException();
+		}
+		CourseRoll roll = course.getCourseRoll();
+		int restored = 0;
+		for (int i = 3; i < fields.size(); i++) {
+			Student s = students.getStudentById(fields.get(i));
+			if (s == null || !s.canAdd(course)) {
+				continue;
+			}
+			try {
+				if (i < 3 + enrolled) {
+					// the roll goes to the waitlist only if its cap has shrunk
+					roll.enroll(s);
+				} else {
+					roll.waitlist(s);
+				}
+			} catch (IllegalArgumentException e) {
+				// already on the roll or waitlist, or the waitlist is full
+				continue;
+			}
+			s.getSchedule().addCourseToSchedule(course);
+			restored++;
+		}
+		return restored;
+	}
+
+	/**
+	 * Writes the rolls and waitlists of the given courses to a file, one line
+	 * per course with anyone on its roll or waitlist, replacing the file
+	 * atomically.
+	 *
+	 * @param fileName the file to write
+	 * @param courses  the courses whose rolls are written
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void writeEnrollmentRecords(String fileName, List<Course> courses) throws IOException {
+		List<String> records = new ArrayList<String>();
+		for (Course c : courses) {
+			CourseRoll roll = c.getCourseRoll();
+			List<String> enrolled = roll.getEnrolledIds();
+			List<String> waitlisted = roll.getWaitlistIds();
+			if (enrolled.isEmpty() && waitlisted.isEmpty()) {
+				continue;
+			}
+			StringBuilder record = new StringBuilder();
+			record.append(c.getName()).append(',').append(c.getSection()).append(',').append(enrolled.size());
+			for (String id : enrolled) {
+				record.append(',').append(id);
+			}
+			for (String id : waitlisted) {
+				record.append(',').append(id);
+			}
+			records.add(record.toString());
+		}
+		AtomicFileWriter.writeLines(fileName, records);
+	}
+}
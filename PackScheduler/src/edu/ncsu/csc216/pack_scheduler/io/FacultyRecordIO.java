@@ -1,11 +1,10 @@
 package edu.ncsu.csc216.pack_scheduler.io;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.PrintStream;
-import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 import edu.ncsu.csc216.pack_scheduler.user.Faculty;
 import edu.ncsu.csc216.pack_scheduler.util.LinkedList;
@@ -17,6 +16,14 @@ import edu.ncsu.csc216.pack_scheduler.util.LinkedList;
  * @author Anton
  */
 public class FacultyRecordIO {
+
+	/** Parses faculty records in parallel */
+	private static final ParallelRecordLoader<Faculty> LOADER = new ParallelRecordLoader<Faculty>() {
+		@Override
+		Faculty parse(String line) {
+			return readFaculty(line);
+		}
+	};
 	
 	/**
 	 * Read through the file and save the data of faculty records, throw
@@ -28,84 +35,52 @@ public class FacultyRecordIO {
 	 * @return the recorded faculty data
 	 */
 	public static LinkedList<Faculty> readFacultyRecords(String fileName) throws FileNotFoundException {
-		Scanner fileReader = new Scanner(new FileInputStream(fileName));
 		LinkedList<Faculty> facultyRecords = new LinkedList<Faculty>();
-		while (fileReader.hasNextLine()) {
-			try {
-				String fileLines = fileReader.nextLine();
-				Faculty facultyRecord = readFaculty(fileLines);
-				facultyRecords.add(facultyRecord);
-
-			} catch (IllegalArgumentException e) {
-				// skip the line
-			}
-		}
-		fileReader.close();
+		facultyRecords.addAll(readFacultyList(fileName));
 		return facultyRecords;
 	}
 
 	/**
-	 * Store the faculty from the file to Faculty, to check if they are valid data
+	 * Reads the valid faculty records in a file and returns them in file order,
+	 * without any records that exactly repeat an earlier one. The file is parsed
+	 * in parallel chunks.
+	 * 
+	 * @param fileName the file to read
+	 * @return the faculty in file order
+	 * @throws FileNotFoundException When file isn't found
+	 */
+	public static List<Faculty> readFacultyList(String fileName) throws FileNotFoundException {
+		return new ArrayList<Faculty>(new LinkedHashSet<Faculty>(LOADER.load(fileName)));
+	}
+
+	/**
+	 * Store the faculty from the file to Faculty, to check if they are valid data.
+	 * Fields past the max courses are ignored.
 	 * 
 	 * @param faculty the faculty record info
 	 * @return the faculty record
+	 * @throws IllegalArgumentException if the record is not a valid Faculty
 	 */
 	private static Faculty readFaculty(String faculty) {
-		String firstName = null;
-		String lastName = null;
-		String id = null;
-		String email = null;
-		String password = null;
-		int maxCredit = 0;
-		try {
-			Scanner read = new Scanner(faculty);
-			read.useDelimiter(",");
-			int i = 0;
-			while (read.hasNext()) {
-				if (i == 0) {
-					firstName = read.next();
-				}
-				if (i == 1) {
-					lastName = read.next();
-				}
-				if (i == 2) {
-					id = read.next();
-				}
-				if (i == 3) {
-					email = read.next();
-				}
-				if (i == 4) {
-					password = read.next();
-				}
-				if (i == 5) {
-					maxCredit = read.nextInt();
-				}
-				if (i == 6) {
-					break; 
-				}
-				i++;
-			}
-			read.close();
-		} catch (IllegalArgumentException e) {
-			//skip line
-		}
-		Faculty newFaculty = new Faculty(firstName, lastName, id, email, password, maxCredit);
-		return newFaculty;
+		List<String> fields = RecordLineReader.splitFields(faculty);
+		String firstName = fields.size() > 0 ? fields.get(0) : null;
+		String lastName = fields.size() > 1 ? fields.get(1) : null;
+		String id = fields.size() > 2 ? fields.get(2) : null;
+		String email = fields.size() > 3 ? fields.get(3) : null;
+		String password = fields.size() > 4 ? fields.get(4) : null;
+		int maxCourses = fields.size() > 5 ? Integer.parseInt(fields.get(5)) : 0;
+		return new Faculty(firstName, lastName, id, email, password, maxCourses);
 	}
 
 	/**
 	 * Write the faculty records to the file, with new faculty records.
 	 *   
 	 * @param fileName         the file to write in
-	 * @param facultyDirectory the LinkedList contains all student directory
+	 * @param facultyDirectory the list contains all faculty directory
 	 * @throws IOException when File can not be written to
 	 */
-	public static void writeFacultyRecords(String fileName, LinkedList<Faculty> facultyDirectory) throws IOException {
-		PrintStream fileWriter = new PrintStream(new File(fileName));
-		for (int i = 0; i < facultyDirectory.size(); i++) {
-			fileWriter.println(facultyDirectory.get(i).toString());
-		}
-		fileWriter.close();
+	public static void writeFacultyRecords(String fileName, List<Faculty> facultyDirectory) throws IOException {
+		AtomicFileWriter.writeLines(fileName, facultyDirectory);
 	}
 	
 }
@@ -0,0 +1,224 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses the lines of a record file in parallel. The file is split into chunks
+ * that each end just after a newline, and the chunks are read and parsed on a
+ * shared fork-join pool. The records come back in file order. Files too small
+ * to be worth splitting are parsed on the calling thread.
+ *
+ * @author Anton Nikulsin
+ *
+ * @param <T> the type of record parsed from each line
+ */
+abstract class ParallelRecordLoader<T> {
+
+	/** Smallest chunk worth handing to another thread, in bytes */
+	private static final long MIN_CHUNK_BYTES = 1 << 18;
+	/** Number of bytes scanned at a time when looking for the end of a line */
+	private static final int SCAN_BYTES = 1 << 13;
+
+	/** Pool shared by every loader */
+	private static ForkJoinPool pool;
+
+	/**
+	 * Parses one line of the file into a record.
+	 *
+	 * @param line the line, without its line terminator
+	 * @return the record
+	 * @throws IllegalArgumentException if the line is not a valid record, in
+	 *                                  which case it is skipped
+	 */
+	abstract T parse(String line);
+
+	/**
+	 * Parses every valid line of a file. A read error ends the affected chunk
+	 * early, as Scanner treats a read error as the end of the file.
+	 *
+	 * @param fileName the file to read
+	 * @return the records in file order
+	 * @throws FileNotFoundException if the file cannot be found or read
+	 */
+	List<T> load(String fileName) throws FileNotFoundException {
+		FileInputStream in = new FileInputStream(fileName);
+		FileChannel channel = in.getChannel();
+		try {
+			long[] bounds = chunkBounds(channel, Runtime.getRuntime().availableProcessors() * 4);
+			ChunkTask task = new ChunkTask(channel, bounds, 0, bounds.length - 1);
+			return bounds.length == 2 ? task.compute() : getPool().invoke(task);
+		} catch (IOException e) {
+			return new ArrayList<T>();
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// nothing left to read
+			}
+		}
+	}
+
+	/**
+	 * Returns the pool shared by every loader, creating it on first use.
+	 *
+	 * @return the pool
+	 */
+	private static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool();
+		}
+		return pool;
+	}
+
+	/**
+	 * Splits a file into at most maxChunks chunks of at least MIN_CHUNK_BYTES,
+	 * moving each split point forward to just after the next newline.
+	 *
+	 * @param channel   the file
+	 * @param maxChunks the most chunks to split into
+	 * @return the start of every chunk followed by the end of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	static long[] chunkBounds(FileChannel channel, int maxChunks) throws IOException {
+		long size = channel.size();
+		int chunks = (int) Math.max(1, Math.min(maxChunks, size / MIN_CHUNK_BYTES));
+		long[] bounds = new long[chunks + 1];
+		bounds[chunks] = size;
+		ByteBuffer scan = ByteBuffer.allocate(SCAN_BYTES);
+		for (int i = 1; i < chunks; i++) {
+			long position = Math.max(size / chunks * i, bounds[i - 1]);
+			bounds[i] = size;
+			while (position < size && bounds[i] == size) {
+				scan.clear();
+				int read = channel.read(scan, position);
+				if (read <= 0) {
+					break;
+				}
+				for (int j = 0; j < read; j++) {
+					if (scan.get(j) == '\n') {
+						bounds[i] = position + j + 1;
+						break;
+					}
+				}
+				position += read;
+			}
+		}
+		return bounds;
+	}
+
+	/**
+	 * Parses a range of chunks, splitting the range in half until it is a single
+	 * chunk.
+	 *
+	 * @author Anton Nikulsin
+	 */
+	private class ChunkTask extends RecursiveTask<List<T>> {
+		/** ID used for serialization */
+		private static final long serialVersionUID = 1L;
+
+		/** The file, read with positional reads so tasks can share it */
+		private final FileChannel channel;
+		/** The start of every chunk followed by the end of the file */
+		private final long[] bounds;
+		/** The first chunk to parse */
+		private final int first;
+		/** One past the last chunk to parse */
+		private final int last;
+
+		/**
+		 * Creates a task for the chunks from first up to last.
+		 *
+		 * @param channel the file
+		 * @param bounds  the chunk bounds
+		 * @param first   the first chunk
+		 * @param last    one past the last chunk
+		 */
+		ChunkTask(FileChannel channel, long[] bounds, int first, int last) {
+			this.channel = channel;
+			this.bounds = bounds;
+			this.first = first;
+			this.last = last;
+		}
+
+		/**
+		 * Parses the task's chunks.
+		 *
+		 * @return the records of the chunks in file order
+		 */
+		@Override
+		protected List<T> compute() {
+			if (last - first > 1) {
+				int middle = (first + last) >>> 1;
+				ChunkTask left = new ChunkTask(channel, bounds, first, middle);
+				left.fork();
+				List<T> right = new ChunkTask(channel, bounds, middle, last).compute();
+				List<T> records = left.join();
+				records.addAll(right);
+				return records;
+			}
+			return parseChunk(bounds[first], bounds[last]);
+		}
+
+		/**
+		 * Reads and parses the lines between two positions in the file.
+		 *
+		 * @param start the position of the first byte
+		 * @param end   the position after the last byte
+		 * @return the records in the chunk
+		 */
+		private List<T> parseChunk(long start, long end) {
+			List<T> records = new ArrayList<T>();
+			ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+			try {
+				while (bytes.hasRemaining()) {
+					if (channel.read(bytes, start + bytes.position()) < 0) {
+						break;
+					}
+				}
+			} catch (IOException e) {
+				// parse what was read
+			}
+			bytes.flip();
+			CharBuffer chars;
+			try {
+				chars = Charset.defaultCharset().newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+						.onUnmappableCharacter(CodingErrorAction.REPLACE).decode(bytes);
+			} catch (CharacterCodingException e) {
+				// cannot happen when replacing bad input
+				return records;
+			}
+			int length = chars.limit();
+			int lineStart = 0;
+			for (int i = 0; i <= length; i++) {
+				char c = i < length ? chars.get(i) : '\n';
+				if (c != '\n' && c != '\r') {
+					continue;
+				}
+				if (i < length || lineStart < length) {
+					try {
+						records.add(parse(chars.subSequence(lineStart, i).toString()));
+					} catch (IllegalArgumentException e) {
+						// skip the line
+					}
+				}
+				if (c == '\r' && i + 1 < length && chars.get(i + 1) == '\n') {
+					i++;
+				}
+				lineStart = i + 1;
+			}
+			return records;
+		}
+	}
+}
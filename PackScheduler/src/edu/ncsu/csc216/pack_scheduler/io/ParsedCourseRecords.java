@@ -0,0 +1,125 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import edu.ncsu.csc216.pack_scheduler.course.Course;
+import edu.ncsu.csc216.pack_scheduler.user.Faculty;
+
+/**
+ * The valid lines of a course record file, parsed but not yet bound to their
+ * instructors. Parsing touches no shared state, so files can be parsed on any
+ * thread; binding then assigns every course to its instructor in one pass
+ * against an index of faculty by id.
+ *
+ * @author Anton Nikulsin
+ */
+public class ParsedCourseRecords {
+
+	/** Instructor id written for a course without an instructor */
+	private static final String NO_INSTRUCTOR = "null";
+
+	/** Parsed courses in file order */
+	private final List<Course> courses = new ArrayList<Course>();
+	/** Instructor id of each parsed course */
+	private final List<String> instructorIds = new ArrayList<String>();
+	/** Instructor ids not found by the last bind */
+	private Set<String> unmatchedInstructorIds = new TreeSet<String>();
+
+	/**
+	 * Adds a parsed course and the id of its instructor.
+	 *
+	 * @param course       the course
+	 * @param instructorId the instructor's id
+	 */
+	void add(Course course, String instructorId) {
+		courses.add(course);
+		instructorIds.add(instructorId);
+	}
+
+	/**
+	 * Returns a parsed course, in file order.
+	 *
+	 * @param index the position of the course in the file
+	 * @return the course
+	 */
+	Course getCourse(int index) {
+		return courses.get(index);
+	}
+
+	/**
+	 * Returns the instructor id of a parsed course as it appeared in the file.
+	 *
+	 * @param index the position of the course in the file
+	 * @return the instructor's id
+	 */
+	String getInstructorId(int index) {
+		return instructorIds.get(index);
+	}
+
+	/**
+	 * Returns the number of courses parsed, including any that repeat the name
+	 * and section of an earlier course.
+	 *
+	 * @return the number of courses parsed
+	 */
+	public int size() {
+		return courses.size();
+	}
+
+	/**
+	 * Assigns each course to its instructor and returns the courses sorted into
+	 * catalog order. Courses are handled in file order: a course with the same
+	 * name and section as one already accepted is skipped, as is a course that
+	 * its instructor cannot take because of a duplicate or a conflict. A course
+	 * whose instructor is not in the index is kept without an instructor, and
+	 * the id is recorded as unmatched. Since courses are added to their
+	 * instructors' schedules, the records should only be bound once.
+	 *
+	 * @param facultyById the faculty to bind to, keyed by id
+	 * @return the accepted courses in sorted order
+	 */
+	public List<Course> bindInstructors(Map<String, Faculty> facultyById) {
+		Set<String> seen = new HashSet<String>();
+		Set<String> unmatched = new TreeSet<String>();
+		List<Course> accepted = new ArrayList<Course>(courses.size());
+		for (int i = 0; i < courses.size(); i++) {
+			Course course = courses.get(i);
+			String key = course.getName() + "," + course.getSection();
+			if (seen.contains(key)) {
+				continue;
+			}
+			String instructorId = instructorIds.get(i);
+			Faculty faculty = facultyById.get(instructorId);
+			if (faculty != null) {
+				try {
+					faculty.getSchedule().addCourseToSchedule(course);
+				} catch (IllegalArgumentException e) {
+					continue;
+				}
+			} else if (!NO_INSTRUCTOR.equals(instructorId)) {
+				unmatched.add(instructorId);
+			}
+			seen.add(key);
+			accepted.add(course);
+		}
+		unmatchedInstructorIds = unmatched;
+		Collections.sort(accepted);
+		return accepted;
+	}
+
+	/**
+	 * Returns the instructor ids that were not found by the last call to
+	 * bindInstructors(), in sorted order.
+	 *
+	 * @return the unmatched instructor ids
+	 */
+	public Set<String> getUnmatchedInstructorIds() {
+		return Collections.unmodifiableSet(unmatchedInstructorIds);
+	}
+}
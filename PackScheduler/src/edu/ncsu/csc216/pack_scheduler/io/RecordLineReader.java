@@ -0,0 +1,157 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the lines of a record file through a buffered FileChannel. Bytes are
+ * decoded with the platform's default charset, as Scanner does, and lines may
+ * end with \n, \r or \r\n. Also splits record lines into their comma separated
+ * fields without the regular expressions Scanner uses.
+ *
+ * @author Anton Nikulsin
+ */
+class RecordLineReader implements Closeable {
+
+	/** Size of the byte and char buffers */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** Channel the file is read through */
+	private final FileChannel channel;
+	/** Decodes the file's bytes */
+	private final CharsetDecoder decoder;
+	/** Bytes read from the channel but not yet decoded */
+	private final ByteBuffer bytes;
+	/** Decoded characters not yet returned, ready to be read */
+	private final CharBuffer chars;
+	/** Holds a line that runs past the end of the char buffer */
+	private final StringBuilder partial = new StringBuilder();
+	/** Whether the last character returned ended a line with \r */
+	private boolean afterCarriageReturn;
+	/** Whether the channel has no more bytes */
+	private boolean endOfInput;
+	/** Whether every byte has been decoded */
+	private boolean flushed;
+
+	/**
+	 * Opens a record file for reading.
+	 *
+	 * @param fileName the file to read
+	 * @throws FileNotFoundException if the file cannot be found or read
+	 */
+	RecordLineReader(String fileName) throws FileNotFoundException {
+		channel = new FileInputStream(fileName).getChannel();
+		decoder = Charset.defaultCharset().newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		bytes = ByteBuffer.allocate(BUFFER_SIZE);
+		chars = CharBuffer.allocate(BUFFER_SIZE);
+		chars.flip();
+	}
+
+	/**
+	 * Returns the next line of the file without its line terminator.
+	 *
+	 * @return the next line, or null at the end of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	String readLine() throws IOException {
+		partial.setLength(0);
+		boolean any = false;
+		while (true) {
+			if (!chars.hasRemaining() && !fill()) {
+				return any ? partial.toString() : null;
+			}
+			if (afterCarriageReturn) {
+				afterCarriageReturn = false;
+				if (chars.get(chars.position()) == '\n') {
+					chars.get();
+					continue;
+				}
+			}
+			any = true;
+			int start = chars.position();
+			int end = chars.limit();
+			for (int i = start; i < end; i++) {
+				char c = chars.get(i);
+				if (c == '\n' || c == '\r') {
+					afterCarriageReturn = c == '\r';
+					chars.position(i + 1);
+					if (partial.length() == 0) {
+						return new String(chars.array(), chars.arrayOffset() + start, i - start);
+					}
+					partial.append(chars.array(), chars.arrayOffset() + start, i - start);
+					return partial.toString();
+				}
+			}
+			partial.append(chars.array(), chars.arrayOffset() + start, end - start);
+			chars.position(end);
+		}
+	}
+
+	/**
+	 * Decodes more characters into the empty char buffer.
+	 *
+	 * @return false if there are no more characters
+	 * @throws IOException if the file cannot be read
+	 */
+	private boolean fill() throws IOException {
+		chars.clear();
+		while (chars.position() == 0 && !flushed) {
+			if (!endOfInput && channel.read(bytes) < 0) {
+				endOfInput = true;
+			}
+			bytes.flip();
+			CoderResult result = decoder.decode(bytes, chars, endOfInput);
+			bytes.compact();
+			if (endOfInput && !result.isOverflow()) {
+				decoder.flush(chars);
+				flushed = true;
+			}
+		}
+		chars.flip();
+		return chars.hasRemaining();
+	}
+
+	/**
+	 * Closes the file.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Splits a record line at every comma. Empty fields between commas are kept,
+	 * but a leading or trailing comma does not start a field, matching a Scanner
+	 * delimited by commas.
+	 *
+	 * @param line the line to split
+	 * @return the fields of the line
+	 */
+	static List<String> splitFields(String line) {
+		List<String> fields = new ArrayList<String>(10);
+		int start = line.startsWith(",") ? 1 : 0;
+		int comma;
+		while ((comma = line.indexOf(',', start)) >= 0) {
+			fields.add(line.substring(start, comma));
+			start = comma + 1;
+		}
+		if (start < line.length()) {
+			fields.add(line.substring(start));
+		}
+		return fields;
+	}
+}
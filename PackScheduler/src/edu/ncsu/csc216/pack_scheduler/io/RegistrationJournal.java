@@ -0,0 +1,517 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only binary log of the changes made to registration data, so the
+ * changes made since the data files were last saved survive a crash without
+ * rewriting a whole file for each one.
+ *
+ * Each entry is written as its length, a CRC-32 of its contents, a type byte
+ * and its fields. Appending an entry only copies it into a pending batch; a
+ * caller that needs the entry on disk then calls sync(). The first thread to
+ * sync writes every pending entry with one sequential write and one flush to
+ * disk, while threads that sync in the meantime wait for that write or join
+ * the next batch. Many concurrent changes therefore share a single disk flush.
+ *
+ * Opening a journal replays every complete entry in order. An entry cut short
+ * by a crash, and anything after it, is discarded and overwritten by the next
+ * batch.
+ *
+ * @author Anton Nikulsin
+ */
+public class RegistrationJournal implements Closeable {
+
+	/** A student enrolled in a course: student id, course name, section */
+	public static final byte ENROLL = 1;
+	/** A student dropped a course: student id, course name, section */
+	public static final byte DROP = 2;
+	/** A student's schedule was reset: student id */
+	public static final byte RESET_SCHEDULE = 3;
+	/** A faculty was assigned a course: faculty id, course name, section */
+	public static final byte ADD_FACULTY_TO_COURSE = 4;
+	/** A faculty was removed from a course: faculty id, course name, section */
+	public static final byte REMOVE_FACULTY_FROM_COURSE = 5;
+	/** A faculty's schedule was reset: faculty id */
+	public static final byte RESET_FACULTY_SCHEDULE = 6;
+	/**
+	 * A course was added to the catalog: name, title, section, credits,
+	 * instructor id, enrollment cap, meeting days, start time, end time
+	 */
+	public static final byte ADD_COURSE = 7;
+	/** A course was removed from the catalog: name, section */
+	public static final byte REMOVE_COURSE = 8;
+	/**
+	 * A student was added to the directory: first name, last name, id, email,
+	 * hashed password, max credits
+	 */
+	public static final byte ADD_STUDENT = 9;
+	/** A student was removed from the directory: id */
+	public static final byte REMOVE_STUDENT = 10;
+	/**
+	 * A faculty was added to the directory: first name, last name, id, email,
+	 * hashed password, max courses
+	 */
+	public static final byte ADD_FACULTY = 11;
+	/** A faculty was removed from the directory: id */
+	public static final byte REMOVE_FACULTY = 12;
+
+	/**
+	 * Fields of each entry type, indexed by type: S for a string that may be
+	 * null and I for an int
+	 */
+	private static final String[] FIELDS = { null, "SSS", "SSS", "S", "SSS", "SSS", "S", "SSSISISII", "SS",
+			"SSSSSI", "S", "SSSSSI", "S" };
+	/** Marks the start of a journal file */
+	private static final int MAGIC = 0x50534a31;
+	/** Size of the file header: the magic number and the format version */
+	private static final int HEADER_BYTES = 8;
+	/** Version of the entry format */
+	private static final int VERSION = 1;
+	/** Size of the length and checksum written before each entry */
+	private static final int FRAME_BYTES = 8;
+	/** Largest entry accepted when replaying, in bytes */
+	private static final int MAX_ENTRY_BYTES = 1 << 20;
+
+	/** The journal file */
+	private final FileChannel channel;
+	/** Guards the pending batch and the sequence numbers */
+	private final Object lock = new Object();
+	/** Entries appended but not yet written */
+	private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+	/** Sequence number of the last entry appended */
+	private long appended;
+	/** Sequence number of the last entry flushed to disk */
+	private long durable;
+	/** Whether a thread is writing a batch */
+	private boolean writing;
+	/** The error that stopped the journal, or null if it is still usable */
+	private IOException failure;
+	/** Whether the journal has been closed */
+	private boolean closed;
+
+	/**
+	 * Opens a journal file, creating it if needed, and passes every complete
+	 * entry in it to the handler in the order they were appended. New entries
+	 * are appended after the last complete entry.
+	 *
+	 * @param fileName the journal file
+	 * @param handler  receives each entry replayed, or null to skip replay
+	 * @throws IOException if the file cannot be opened or is not a journal
+	 */
+	public RegistrationJournal(String fileName, Handler handler) throws IOException {
+		this(fileName, handler, 0);
+	}
+
+	/**
+	 * Opens a journal file that continues another, numbering its entries after
+	 * the given sequence number. Once the other journal is closed, syncing either
+	 * journal with a sequence number from the other returns at once, so callers
+	 * need not know which journal an entry went to.
+	 *
+	 * @param fileName the journal file
+	 * @param handler  receives each entry replayed, or null to skip replay
+	 * @param sequence sequence number of the last entry in the journal continued
+	 * @throws IOException if the file cannot be opened or is not a journal
+	 */
+	public RegistrationJournal(String fileName, Handler handler, long sequence) throws IOException {
+		appended = sequence;
+		durable = sequence;
+		channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			if (channel.size() == 0) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+				header.putInt(MAGIC).putInt(VERSION).flip();
+				writeFully(header, 0);
+				channel.force(true);
+			}
+			long end = replay(handler);
+			if (end < channel.size()) {
+				channel.truncate(end);
+			}
+			channel.position(end);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		} catch (RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the entries in the file and passes them to the handler.
+	 *
+	 * @param handler receives each entry, or null
+	 * @return the position just after the last complete entry
+	 * @throws IOException if the file cannot be read or is not a journal
+	 */
+	private long replay(Handler handler) throws IOException {
+		channel.position(0);
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+		if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+			throw new IOException("Not a registration journal");
+		}
+		long end = HEADER_BYTES;
+		CRC32 crc = new CRC32();
+		while (true) {
+			byte[] bytes;
+			try {
+				int length = in.readInt();
+				int checksum = in.readInt();
+				if (length < 1 || length > MAX_ENTRY_BYTES) {
+					break;
+				}
+				bytes = new byte[length];
+				in.readFully(bytes);
+				crc.reset();
+				crc.update(bytes, 0, length);
+				if ((int) crc.getValue() != checksum || bytes[0] < 1 || bytes[0] >= FIELDS.length) {
+					break;
+				}
+			} catch (EOFException e) {
+				break;
+			}
+			Entry entry;
+			try {
+				entry = decode(bytes);
+			} catch (IOException e) {
+				break;
+			}
+			if (handler != null) {
+				handler.apply(entry);
+			}
+			end += FRAME_BYTES + bytes.length;
+		}
+		return end;
+	}
+
+	/**
+	 * Adds an entry to the pending batch without waiting for it to reach the
+	 * disk. Callers that append while holding locks keep the journal in the same
+	 * order as their changes, and can sync after releasing them.
+	 *
+	 * @param type   the type of entry
+	 * @param fields the entry's fields, Strings or Integers as the type requires
+	 * @return the sequence number of the entry, to pass to sync()
+	 * @throws IllegalArgumentException if the fields do not match the type
+	 * @throws IllegalStateException    if the journal is closed or has failed
+	 */
+	public long append(byte type, Object... fields) {
+		byte[] entry = encode(type, fields);
+		synchronized (lock) {
+			checkUsable();
+			DataOutputStream out = new DataOutputStream(pending);
+			try {
+				out.writeInt(entry.length);
+				out.writeInt(checksum(entry));
+				out.write(entry);
+			} catch (IOException e) {
+				// cannot happen when writing to memory
+			}
+			return ++appended;
+		}
+	}
+
+	/**
+	 * Waits until the entry with the given sequence number, and every entry
+	 * before it, has been flushed to disk, writing the pending batch if no other
+	 * thread is already doing so.
+	 *
+	 * @param sequence the sequence number returned by append()
+	 * @throws IllegalStateException if the journal cannot be written
+	 */
+	public void sync(long sequence) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				byte[] batch;
+				long last;
+				synchronized (lock) {
+					while (durable < sequence && writing && failure == null) {
+						try {
+							lock.wait();
+						} catch (InterruptedException e) {
+							// the entry must still reach the disk
+							interrupted = true;
+						}
+					}
+					if (durable >= sequence) {
+						return;
+					}
+					// a closing journal still writes the entries appended before it closed
+					checkFailure();
+					writing = true;
+					batch = pending.toByteArray();
+					pending = new ByteArrayOutputStream();
+					last = appended;
+				}
+				IOException error = null;
+				try {
+					writeFully(ByteBuffer.wrap(batch), channel.position());
+					channel.position(channel.position() + batch.length);
+					channel.force(false);
+				} catch (IOException e) {
+					error = e;
+				}
+				synchronized (lock) {
+					writing = false;
+					if (error == null) {
+						durable = last;
+					} else {
+						failure = error;
+					}
+					lock.notifyAll();
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Returns the sequence number of the last entry appended.
+	 *
+	 * @return the sequence number
+	 */
+	public long getSequence() {
+		synchronized (lock) {
+			return appended;
+		}
+	}
+
+	/**
+	 * Appends an entry and waits for it to reach the disk.
+	 *
+	 * @param type   the type of entry
+	 * @param fields the entry's fields, Strings or Integers as the type requires
+	 * @throws IllegalArgumentException if the fields do not match the type
+	 * @throws IllegalStateException    if the journal cannot be written
+	 */
+	public void write(byte type, Object... fields) {
+		sync(append(type, fields));
+	}
+
+	/**
+	 * Flushes any pending entries and closes the file. Later appends throw
+	 * IllegalStateException.
+	 *
+	 * @throws IOException if the pending entries cannot be written or the file
+	 *                     cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		long last;
+		synchronized (lock) {
+			if (closed) {
+				return;
+			}
+			// rejected from here on, so every entry appended is in the batch synced below
+			closed = true;
+			last = appended;
+		}
+		try {
+			sync(last);
+		} catch (IllegalStateException e) {
+			throw new IOException(e.getMessage(), e.getCause());
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Throws an exception if entries can no longer be appended. Must be called
+	 * while holding the lock.
+	 *
+	 * @throws IllegalStateException if the journal is closed or has failed
+	 */
+	private void checkUsable() {
+		checkFailure();
+		if (closed) {
+			throw new IllegalStateException("Journal is closed");
+		}
+	}
+
+	/**
+	 * Throws an exception if an earlier write failed. Must be called while
+	 * holding the lock.
+	 *
+	 * @throws IllegalStateException if the journal has failed
+	 */
+	private void checkFailure() {
+		if (failure != null) {
+			throw new IllegalStateException("Unable to write journal", failure);
+		}
+	}
+
+	/**
+	 * Writes every byte of a buffer to the file starting at a position.
+	 *
+	 * @param buffer   the bytes to write
+	 * @param position where to write them
+	 * @throws IOException if the bytes cannot be written
+	 */
+	private void writeFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/**
+	 * Encodes an entry's type and fields.
+	 *
+	 * @param type   the type of entry
+	 * @param fields the entry's fields
+	 * @return the encoded entry
+	 * @throws IllegalArgumentException if the fields do not match the type
+	 */
+	private static byte[] encode(byte type, Object[] fields) {
+		if (type < 1 || type >= FIELDS.length || fields.length != FIELDS[type].length()) {
+			throw new IllegalArgumentException("Invalid journal entry");
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(type);
+			for (int i = 0; i < fields.length; i++) {
+				if (FIELDS[type].charAt(i) == 'I') {
+					if (!(fields[i] instanceof Integer)) {
+						throw new IllegalArgumentException("Invalid journal entry");
+					}
+					out.writeInt((Integer) fields[i]);
+				} else if (fields[i] == null) {
+					out.writeBoolean(false);
+				} else if (fields[i] instanceof String) {
+					out.writeBoolean(true);
+					out.writeUTF((String) fields[i]);
+				} else {
+					throw new IllegalArgumentException("Invalid journal entry");
+				}
+			}
+		} catch (IOException e) {
+			// writeUTF rejects strings longer than 64K when encoded
+			throw new IllegalArgumentException("Invalid journal entry");
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decodes an entry's type and fields.
+	 *
+	 * @param bytes the encoded entry, starting with a valid type
+	 * @return the entry
+	 * @throws IOException if the fields are cut short
+	 */
+	private static Entry decode(byte[] bytes) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		byte type = in.readByte();
+		String format = FIELDS[type];
+		Object[] fields = new Object[format.length()];
+		for (int i = 0; i < fields.length; i++) {
+			if (format.charAt(i) == 'I') {
+				fields[i] = in.readInt();
+			} else if (in.readBoolean()) {
+				fields[i] = in.readUTF();
+			}
+		}
+		return new Entry(type, fields);
+	}
+
+	/**
+	 * Returns the CRC-32 of an encoded entry.
+	 *
+	 * @param bytes the encoded entry
+	 * @return the checksum
+	 */
+	private static int checksum(byte[] bytes) {
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Receives the entries of a journal as it is replayed.
+	 *
+	 * @author Anton Nikulsin
+	 */
+	public interface Handler {
+
+		/**
+		 * Applies one entry.
+		 *
+		 * @param entry the entry
+		 */
+		void apply(Entry entry);
+	}
+
+	/**
+	 * One change recorded in the journal.
+	 *
+	 * @author Anton Nikulsin
+	 */
+	public static class Entry {
+
+		/** The type of change */
+		private final byte type;
+		/** The fields of the change */
+		private final Object[] fields;
+
+		/**
+		 * Creates an entry.
+		 *
+		 * @param type   the type of change
+		 * @param fields the fields of the change
+		 */
+		Entry(byte type, Object[] fields) {
+			this.type = type;
+			this.fields = fields;
+		}
+
+		/**
+		 * Returns the type of change, one of the constants in RegistrationJournal.
+		 *
+		 * @return the type
+		 */
+		public byte getType() {
+			return type;
+		}
+
+		/**
+		 * Returns a string field.
+		 *
+		 * @param index the position of the field
+		 * @return the field, which may be null
+		 * @throws ClassCastException if the field is not a string
+		 */
+		public String getString(int index) {
+			return (String) fields[index];
+		}
+
+		/**
+		 * Returns an int field.
+		 *
+		 * @param index the position of the field
+		 * @return the field
+		 * @throws ClassCastException if the field is not an int
+		 */
+		public int getInt(int index) {
+			return (Integer) fields[index];
+		}
+	}
+}
@@ -0,0 +1,391 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import edu.ncsu.csc216.pack_scheduler.catalog.CourseCatalog;
+import edu.ncsu.csc216.pack_scheduler.course.Course;
+import edu.ncsu.csc216.pack_scheduler.course.roll.CourseRoll;
+import edu.ncsu.csc216.pack_scheduler.directory.FacultyDirectory;
+import edu.ncsu.csc216.pack_scheduler.directory.StudentDirectory;
+import edu.ncsu.csc216.pack_scheduler.user.Faculty;
+import edu.ncsu.csc216.pack_scheduler.user.Student;
+
+/**
+ * The complete registration data at one moment: every faculty, student and
+ * course, and who is enrolled in and waitlisted for each course, in one compact
+ * binary file. Students on rolls and waitlists are written as their position in
+ * the student list rather than their id, and schedules are rebuilt from the
+ * rolls, so nothing is stored twice.
+ *
+ * A snapshot is captured into memory, which is quick enough to do while changes
+ * are held off, and can then be written to disk on another thread. Each
+ * snapshot carries the generation of the journal segment that follows it, so
+ * recovery restores the snapshot and replays only the segments from that
+ * generation on. The file ends with a CRC-32 of its contents, and a snapshot
+ * that fails the check is rejected as a whole.
+ *
+ * @author Anton Nikulsin
+ */
+public class RegistrationSnapshot {
+
+	/** Marks the start of a snapshot file */
+	private static final int MAGIC = 0x50535331;
+	/** Version of the file format */
+	private static final int VERSION = 1;
+
+	/** Generation of the journal segment that follows the snapshot */
+	private final long generation;
+	/** The encoded snapshot, including its checksum */
+	private final byte[] bytes;
+
+	/**
+	 * Creates a snapshot from its encoded form.
+	 *
+	 * @param generation generation of the journal segment that follows it
+	 * @param bytes      the encoded snapshot
+	 */
+	private RegistrationSnapshot(long generation, byte[] bytes) {
+		this.generation = generation;
+		this.bytes = bytes;
+	}
+
+	/**
+	 * Captures the current data into memory. The caller must keep the data from
+	 * changing until this returns.
+	 *
+	 * @param generation generation of the journal segment that records the
+	 *                   changes made after this snapshot
+	 * @param catalog    the course catalog
+	 * @param students   the student directory
+	 * @param faculty    the faculty directory
+	 * @return the snapshot
+	 */
+	public static RegistrationSnapshot capture(long generation, CourseCatalog catalog, StudentDirectory students,
+			FacultyDirectory faculty) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+		DataOutputStream out = new DataOutputStream(buffer);
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(generation);
+
+			List<Faculty> facultyList = faculty.getFaculty();
+			out.writeInt(facultyList.size());
+			for (Faculty f : facultyList) {
+				writeString(out, f.getFirstName());
+				writeString(out, f.getLastName());
+				writeString(out, f.getId());
+				writeString(out, f.getEmail());
+				writeString(out, f.getPassword());
+				out.writeInt(f.getMaxCourses());
+			}
+
+			List<Student> studentList = students.getStudents();
+			Map<String, Integer> studentIndex = new HashMap<String, Integer>(studentList.size() * 2);
+			out.writeInt(studentList.size());
+			for (Student s : studentList) {
+				studentIndex.put(s.getId(), studentIndex.size());
+				writeString(out, s.getFirstName());
+				writeString(out, s.getLastName());
+				writeString(out, s.getId());
+				writeString(out, s.getEmail());
+				writeString(out, s.getPassword());
+				out.writeInt(s.getMaxCredits());
+				writeString(out, s.getSchedule().getTitle());
+			}
+
+			List<Course> courseList = catalog.getCourses();
+			out.writeInt(courseList.size());
+			for (Course c : courseList) {
+				writeString(out, c.getName());
+				writeString(out, c.getTitle());
+				writeString(out, c.getSection());
+				out.writeInt(c.getCredits());
+				writeString(out, c.getInstructorId());
+				CourseRoll roll = c.getCourseRoll();
+				out.writeInt(roll.getEnrollmentCap());
+				writeString(out, c.getMeetingDays());
+				out.writeInt(c.getStartTime());
+				out.writeInt(c.getEndTime());
+				writeStudents(out, roll.getEnrolledIds(), studentIndex);
+				writeStudents(out, roll.getWaitlistIds(), studentIndex);
+			}
+			out.flush();
+		} catch (IOException e) {
+			// cannot happen when writing to memory
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buffer.toByteArray(), 0, buffer.size());
+		try {
+			out.writeInt((int) crc.getValue());
+		} catch (IOException e) {
+			// cannot happen when writing to memory
+		}
+		return new RegistrationSnapshot(generation, buffer.toByteArray());
+	}
+
+	/**
+	 * Returns the generation of the journal segment that follows the snapshot.
+	 *
+	 * @return the generation
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Writes the snapshot to a file, replacing it atomically.
+	 *
+	 * @param fileName the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(String fileName) throws IOException {
+		try (AtomicFileWriter writer = new AtomicFileWriter(fileName)) {
+			OutputStream out = writer.getOutputStream();
+			out.write(bytes);
+			out.flush();
+			writer.commit();
+		}
+	}
+
+	/**
+	 * Replaces the data in the catalog and directories with a snapshot read from
+	 * a file. Students are put back on the rolls and waitlists in their original
+	 * order, their schedules are rebuilt from the rolls, and courses are assigned
+	 * back to their instructors. The catalog and directories should not be
+	 * journaling while they are restored.
+	 *
+	 * @param fileName the snapshot file
+	 * @param catalog  the course catalog to restore
+	 * @param students the student directory to restore
+	 * @param faculty  the faculty directory to restore
+	 * @return the generation of the journal segment that follows the snapshot
+	 * @throws IOException if the file cannot be read, is not a snapshot, fails
+	 *                     its checksum, or its records do not fit together, in
+	 *                     which case nothing is changed
+	 */
+	public static long restore(String fileName, CourseCatalog catalog, StudentDirectory students,
+			FacultyDirectory faculty) throws IOException {
+		List<Faculty> facultyList;
+		List<Student> studentList;
+		List<Course> courseList;
+		List<String> instructorIds;
+		List<int[]> enrolled;
+		List<int[]> waitlisted;
+		long generation;
+		// Checked before anything is decoded, so a corrupt count is never trusted
+		byte[] bytes = Files.readAllBytes(Paths.get(fileName));
+		int length = bytes.length - 4;
+		if (length < 16) {
+			throw new IOException("Not a registration snapshot");
+		}
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, length);
+		if (ByteBuffer.wrap(bytes, length, 4).getInt() != (int) crc.getValue()) {
+			throw new IOException("Snapshot failed its checksum");
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, length))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Not a registration snapshot");
+			}
+			generation = in.readLong();
+			try {
+				int count = readCount(in, 9);
+				facultyList = new ArrayList<Faculty>(count);
+				for (int i = 0; i < count; i++) {
+					facultyList.add(new Faculty(readString(in), readString(in), readString(in), readString(in),
+							readString(in), in.readInt()));
+				}
+				count = readCount(in, 10);
+				studentList = new ArrayList<Student>(count);
+				for (int i = 0; i < count; i++) {
+					Student s = new Student(readString(in), readString(in), readString(in), readString(in),
+							readString(in), in.readInt());
+					s.getSchedule().setTitle(readString(in));
+					studentList.add(s);
+				}
+				count = readCount(in, 29);
+				courseList = new ArrayList<Course>(count);
+				instructorIds = new ArrayList<String>(count);
+				enrolled = new ArrayList<int[]>(count);
+				waitlisted = new ArrayList<int[]>(count);
+				for (int i = 0; i < count; i++) {
+					String name = readString(in);
+					String title = readString(in);
+					String section = readString(in);
+					int credits = in.readInt();
+					instructorIds.add(readString(in));
+					courseList.add(new Course(name, title, section, credits, null, in.readInt(), readString(in),
+							in.readInt(), in.readInt()));
+					enrolled.add(readStudents(in, studentList.size()));
+					waitlisted.add(readStudents(in, studentList.size()));
+				}
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Invalid record in snapshot", e);
+			}
+			if (in.available() > 0) {
+				throw new IOException("Unexpected data at the end of the snapshot");
+			}
+		}
+
+		// Link the new objects to each other before touching the live data, so a
+		// snapshot that does not fit together leaves everything as it was
+		Map<String, Faculty> instructors = new HashMap<String, Faculty>();
+		Map<String, Student> studentIds = new HashMap<String, Student>();
+		Set<String> courseKeys = new HashSet<String>();
+		try {
+			for (Faculty f : facultyList) {
+				if (instructors.put(f.getId(), f) != null) {
+					throw new IllegalArgumentException("Duplicate faculty " + f.getId());
+				}
+			}
+			for (Student s : studentList) {
+				if (studentIds.put(s.getId(), s) != null) {
+					throw new IllegalArgumentException("Duplicate student " + s.getId());
+				}
+			}
+			for (int i = 0; i < courseList.size(); i++) {
+				Course c = courseList.get(i);
+				if (!courseKeys.add(c.getName() + "," + c.getSection())) {
+					throw new IllegalArgumentException("Duplicate course " + c.getName());
+				}
+				String instructorId = instructorIds.get(i);
+				Faculty instructor = instructorId == null ? null : instructors.get(instructorId);
+				if (instructor != null) {
+					instructor.getSchedule().addCourseToSchedule(c);
+				} else {
+					c.setInstructorId(instructorId);
+				}
+				for (int index : enrolled.get(i)) {
+					Student s = studentList.get(index);
+					c.getCourseRoll().enroll(s);
+					s.getSchedule().addCourseToSchedule(c);
+				}
+				for (int index : waitlisted.get(i)) {
+					Student s = studentList.get(index);
+					c.getCourseRoll().waitlist(s);
+					s.getSchedule().addCourseToSchedule(c);
+				}
+			}
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Inconsistent snapshot", e);
+		}
+
+		faculty.newFacultyDirectory();
+		for (Faculty f : facultyList) {
+			faculty.addFaculty(f);
+		}
+		students.newStudentDirectory();
+		for (Student s : studentList) {
+			students.addStudent(s);
+		}
+		catalog.newCourseCatalog();
+		for (Course c : courseList) {
+			catalog.addCourse(c);
+		}
+		return generation;
+	}
+
+	/**
+	 * Writes the students on a roll or waitlist as their positions in the
+	 * student list.
+	 *
+	 * @param out   the stream to write to
+	 * @param ids   the ids of the students, in order
+	 * @param index positions of the students keyed by id
+	 * @throws IOException if the stream cannot be written
+	 */
+	private static void writeStudents(DataOutputStream out, List<String> ids, Map<String, Integer> index)
+			throws IOException {
+		List<Integer> positions = new ArrayList<Integer>(ids.size());
+		for (String id : ids) {
+			Integer position = index.get(id);
+			// a student removed from the directory no longer holds a seat
+			if (position != null) {
+				positions.add(position);
+			}
+		}
+		out.writeInt(positions.size());
+		for (int position : positions) {
+			out.writeInt(position);
+		}
+	}
+
+	/**
+	 * Reads the positions of the students on a roll or waitlist.
+	 *
+	 * @param in       the stream to read from
+	 * @param students the number of students in the snapshot
+	 * @return the positions, in order
+	 * @throws IOException if the stream cannot be read or a position is out of
+	 *                     range
+	 */
+	private static int[] readStudents(DataInputStream in, int students) throws IOException {
+		int[] positions = new int[readCount(in, 4)];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = in.readInt();
+			if (positions[i] < 0 || positions[i] >= students) {
+				throw new IOException("Invalid student in snapshot");
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * Reads the number of records that follow, checking that the rest of the
+	 * snapshot is long enough to hold them.
+	 *
+	 * @param in     the stream to read from, which must be reading from memory
+	 * @param record the fewest bytes one record can take
+	 * @return the number of records
+	 * @throws IOException if the stream cannot be read or the count does not fit
+	 *                     in the rest of the snapshot
+	 */
+	private static int readCount(DataInputStream in, int record) throws IOException {
+		int count = in.readInt();
+		if (count < 0 || count > in.available() / record) {
+			throw new IOException("Invalid count in snapshot");
+		}
+		return count;
+	}
+
+	/**
+	 * Writes a string that may be null.
+	 *
+	 * @param out   the stream to write to
+	 * @param value the string
+	 * @throws IOException if the stream cannot be written
+	 */
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	/**
+	 * Reads a string that may be null.
+	 *
+	 * @param in the stream to read from
+	 * @return the string
+	 * @throws IOException if the stream cannot be read
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+}
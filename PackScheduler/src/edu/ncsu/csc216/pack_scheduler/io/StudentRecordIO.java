@@ -16,6 +16,14 @@ import edu.ncsu.csc216.pack_scheduler.user.Student;
  */
 public class StudentRecordIO {
 
+	/** Parses student records in parallel */
+	private static final ParallelRecordLoader<Student> LOADER = new ParallelRecordLoader<Student>() {
+		@Override
+		Student parse(String line) {
+			return readStudent(line);
+		}
+	};
+
 	/**
 	 * Read through the file and save the data of student records, throw
 	 * FileNotFoundException when file can not be find. Create Sorted Array list of Student
@@ -26,69 +34,46 @@ public class StudentRecordIO {
 	 * @return studentRecords the student records data
 	 */
 	public static SortedList<Student> readStudentRecords(String fileName) throws FileNotFoundException {
-		Scanner fileReader = new Scanner(new FileInputStream(fileName));
 		SortedList<Student> studentRecords = new SortedList<Student>();
-		while (fileReader.hasNextLine()) {
-			try {
-				String fileLines = fileReader.nextLine();
-				Student studentRecord = readStudent(fileLines);
-				studentRecords.add(studentRecord);
-
-			} catch (IllegalArgumentException e) {
-				// skip the line
-			}
+		for (Student s : readStudentList(fileName)) {
+			studentRecords.add(s);
 		}
-		fileReader.close();
 		return studentRecords;
 	}
 
 	/**
-	 * Store the student from the file to Student, to check if they are valid data
+	 * Reads the valid student records in a file and returns them in sorted order,
+	 * without any records that exactly repeat an earlier one. The file is parsed
+	 * in parallel chunks and sorted once at the end, rather than inserting each
+	 * student into a sorted list.
+	 * 
+	 * @param fileName the file to read
+	 * @return the students in sorted order
+	 * @throws FileNotFoundException When file isn't found
+	 */
+	public static List<Student> readStudentList(String fileName) throws FileNotFoundException {
+		List<Student> students = new ArrayList<Student>(new LinkedHashSet<Student>(LOADER.load(fileName)));
+		Collections.sort(students);
+		return students;
+	}
+
+	/**
+	 * Store the student from the file to Student, to check if they are valid data.
+	 * Fields past the max credits are ignored.
 	 * 
 	 * @param student the student record info
 	 * @return the student record
+	 * @throws IllegalArgumentException if the record is not a valid Student
 	 */
 	private static Student readStudent(String student) {
-		String firstName = null;
-		String lastName = null;
-		String id = null;
-		String email = null;
-		String password = null;
-		int maxCredit = 0;
-		try {
-			Scanner read = new Scanner(student);
-			read.useDelimiter(",");
-			int i = 0;
-			while (read.hasNext()) {
-				if (i == 0) {
-					firstName = read.next();
-				}
-				if (i == 1) {
-					lastName = read.next();
-				}
-				if (i == 2) {
-					id = read.next();
-				}
-				if (i == 3) {
-					email = read.next();
-				}
-				if (i == 4) {
-					password = read.next();
-				}
-				if (i == 5) {
-					maxCredit = read.nextInt();
-				}
-				if (i == 6) {
-					break; 
-				}
-				i++;
-			}
-			read.close();
-		} catch (IllegalArgumentException e) {
-			//skip line
-		}
-		Student newStudent = new Student(firstName, lastName, id, email, password, maxCredit);
-		return newStudent;
+		List<String> fields = RecordLineReader.splitFields(student);
+		String firstName = fields.size() > 0 ? fields.get(0) : null;
+		String lastName = fields.size() > 1 ? fields.get(1) : null;
+		String id = fields.size() > 2 ? fields.get(2) : null;
+		String email = fields.size() > 3 ? fields.get(3) : null;
+		String password = fields.size() > 4 ? fields.get(4) : null;
+		int maxCredit = fields.size() > 5 ? Integer.parseInt(fields.get(5)) : 0;
+		return new Student(firstName, lastName, id, email, password, maxCredit);
 	}
 
 	/**
@@ -99,11 +84,22 @@ public class StudentRecordIO {
 	 * @throws IOException when File can not be write to
 	 */
 	public static void writeStudentRecords(String fileName, SortedList<Student> studentDirectory) throws IOException {
-		PrintStream fileWriter = new PrintStream(new File(fileName));
+		List<Student> students = new ArrayList<Student>(studentDirectory.size());
 		for (int i = 0; i < studentDirectory.size(); i++) {
-			fileWriter.println(studentDirectory.get(i).toString());
+			students.add(studentDirectory.get(i));
 		}
-		fileWriter.close();
+		writeStudentRecords(fileName, students);
+	}
+
+	/**
+	 * Write the student records to the file, one per line.
+	 *   
+	 * @param fileName         the file to write in
+	 * @param studentDirectory the students to write
+	 * @throws IOException when File can not be write to
+	 */
+	public static void writeStudentRecords(String fileName, List<Student> studentDirectory) throws IOException {
+		AtomicFileWriter.writeLines(fileName, studentDirectory);
 	}
 
 }
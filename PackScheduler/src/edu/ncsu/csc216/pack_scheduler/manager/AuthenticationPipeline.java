@@ -0,0 +1,340 @@
+package edu.ncsu.csc216.pack_scheduler.manager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.ncsu.csc216.pack_scheduler.user.User;
+
+/**
+ * Checks login attempts at a bounded cost. Each attempt passes through, in
+ * order:
+ * <ol>
+ * <li>a lookup of the id, which answers an id that does not exist without
+ * hashing anything or taking from the buckets</li>
+ * <li>a token bucket shared by every attempt for an existing id, which limits
+ * how many passwords are hashed each second</li>
+ * <li>a token bucket for each existing id, which every attempt takes a token
+ * from before its password is checked and a right password gives back, so
+ * after a few wrong passwords, even ones tried at the same moment, guesses at
+ * one user's password are only checked every so often, while other users log
+ * in as usual</li>
+ * <li>the password check itself</li>
+ * </ol>
+ * A rejected attempt is answered before any password is hashed. The result is
+ * returned as an Outcome rather than thrown, so a flood of bad attempts costs
+ * no more than the same number of good ones.
+ *
+ * The pipeline counts attempts, failures and rejected attempts, and the total
+ * and longest time taken to answer them.
+ *
+ * @author Anton Nikulsin
+ */
+public class AuthenticationPipeline {
+
+	/** The id and password matched */
+	public static final int AUTHENTICATED = 0;
+	/** The password did not match */
+	public static final int WRONG_PASSWORD = 1;
+	/** No user has the id */
+	public static final int UNKNOWN_ID = 2;
+	/** The attempt was rejected without checking the password */
+	public static final int THROTTLED = 3;
+
+	/** Attempts allowed at once by the shared bucket */
+	private static final int GLOBAL_BURST = 500;
+	/** Attempts added to the shared bucket each second */
+	private static final double GLOBAL_PER_SECOND = 250;
+	/** Wrong passwords allowed at once for one id */
+	private static final int ID_BURST = 5;
+	/** Wrong passwords allowed for one id each second after its burst is used */
+	private static final double ID_PER_SECOND = 1.0 / 30;
+
+	/** Outcome of every attempt with a wrong password */
+	private static final Outcome WRONG_PASSWORD_OUTCOME = new Outcome(WRONG_PASSWORD, null);
+	/** Outcome of every attempt with an unknown id */
+	private static final Outcome UNKNOWN_ID_OUTCOME = new Outcome(UNKNOWN_ID, null);
+	/** Outcome of every rejected attempt */
+	private static final Outcome THROTTLED_OUTCOME = new Outcome(THROTTLED, null);
+
+	/** The manager whose users are checked */
+	private final RegistrationManager manager;
+	/** Bucket shared by every attempt for an existing id */
+	private final TokenBucket global;
+	/** Size of the bucket for each id */
+	private final int idBurst;
+	/** Refill rate of the bucket for each id, in tokens per second */
+	private final double idPerSecond;
+	/** Bucket of each existing id that has had an attempt */
+	private final ConcurrentMap<String, TokenBucket> idBuckets = new ConcurrentHashMap<String, TokenBucket>();
+
+	/** Number of attempts */
+	private final AtomicLong attempts = new AtomicLong();
+	/** Number of attempts with an unknown id or wrong password */
+	private final AtomicLong failures = new AtomicLong();
+	/** Number of rejected attempts */
+	private final AtomicLong throttled = new AtomicLong();
+	/** Total time taken to answer every attempt, in nanoseconds */
+	private final AtomicLong totalNanos = new AtomicLong();
+	/** Longest time taken to answer one attempt, in nanoseconds */
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Creates a pipeline for a manager's users with the default limits.
+	 *
+	 * @param manager the manager whose users are checked
+	 */
+	public AuthenticationPipeline(RegistrationManager manager) {
+		this(manager, GLOBAL_BURST, GLOBAL_PER_SECOND, ID_BURST, ID_PER_SECOND);
+	}
+
+	/**
+	 * Creates a pipeline for a manager's users.
+	 *
+	 * @param manager         the manager whose users are checked
+	 * @param globalBurst     attempts allowed at once across every id
+	 * @param globalPerSecond attempts allowed each second across every id once
+	 *                        the burst is used
+	 * @param idBurst         wrong passwords allowed at once for one id
+	 * @param idPerSecond     wrong passwords allowed each second for one id once
+	 *                        its burst is used
+	 * @throws IllegalArgumentException if manager is null, a burst is less than
+	 *                                  1, or a rate is negative
+	 */
+	public AuthenticationPipeline(RegistrationManager manager, int globalBurst, double globalPerSecond, int idBurst,
+			double idPerSecond) {
+		if (manager == null) {
+			throw new IllegalArgumentException("Invalid manager.");
+		}
+		if (globalBurst < 1 || idBurst < 1 || globalPerSecond < 0 || idPerSecond < 0) {
+			throw new IllegalArgumentException("Invalid limit.");
+		}
+		this.manager = manager;
+		this.global = new TokenBucket(globalBurst, globalPerSecond, System.nanoTime());
+		this.idBurst = idBurst;
+		this.idPerSecond = idPerSecond;
+	}
+
+	/**
+	 * Checks a user's id and password. A user whose password is still stored as
+	 * a legacy hash has it replaced with a hex hash on a successful check.
+	 *
+	 * @param id       the user's id
+	 * @param password the user's password
+	 * @return the outcome, which holds the user if the check succeeded
+	 */
+	public Outcome authenticate(String id, String password) {
+		long start = System.nanoTime();
+		attempts.incrementAndGet();
+		Outcome outcome = check(id, password, start);
+		if (outcome.getResult() == THROTTLED) {
+			throttled.incrementAndGet();
+		} else if (outcome.getResult() != AUTHENTICATED) {
+			failures.incrementAndGet();
+		}
+		long elapsed = System.nanoTime() - start;
+		totalNanos.addAndGet(elapsed);
+		long max = maxNanos.get();
+		while (elapsed > max && !maxNanos.compareAndSet(max, elapsed)) {
+			max = maxNanos.get();
+		}
+		return outcome;
+	}
+
+	/**
+	 * Passes an attempt through each stage of the pipeline.
+	 *
+	 * @param id       the user's id
+	 * @param password the user's password
+	 * @param now      the time of the attempt, from System.nanoTime()
+	 * @return the outcome
+	 */
+	private Outcome check(String id, String password, long now) {
+		// Looked up in the directories each time, so an id added since is found
+		User user = manager.findUser(id);
+		if (user == null) {
+			return UNKNOWN_ID_OUTCOME;
+		}
+		if (!global.take(now)) {
+			return THROTTLED_OUTCOME;
+		}
+		TokenBucket bucket = idBuckets.get(id);
+		if (bucket == null) {
+			bucket = new TokenBucket(idBurst, idPerSecond, now);
+			TokenBucket existing = idBuckets.putIfAbsent(id, bucket);
+			if (existing != null) {
+				bucket = existing;
+			}
+		}
+		// Taken before the slow check, so attempts made at once cannot all pass
+		if (!bucket.take(now)) {
+			return THROTTLED_OUTCOME;
+		}
+		if (manager.checkPassword(user, password)) {
+			bucket.giveBack();
+			return new Outcome(AUTHENTICATED, user);
+		}
+		return WRONG_PASSWORD_OUTCOME;
+	}
+
+	/**
+	 * Forgets every id's wrong passwords. Called when the users are replaced, so
+	 * a new user with an old id starts with a full bucket. The counts are kept.
+	 */
+	public void reset() {
+		idBuckets.clear();
+	}
+
+	/**
+	 * Returns the number of attempts.
+	 *
+	 * @return the number of attempts
+	 */
+	public long getAttempts() {
+		return attempts.get();
+	}
+
+	/**
+	 * Returns the number of attempts with an unknown id or a wrong password.
+	 *
+	 * @return the number of failed attempts
+	 */
+	public long getFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * Returns the number of attempts rejected without checking the password.
+	 *
+	 * @return the number of rejected attempts
+	 */
+	public long getThrottled() {
+		return throttled.get();
+	}
+
+	/**
+	 * Returns the total time taken to answer every attempt.
+	 *
+	 * @return the total time in nanoseconds
+	 */
+	public long getTotalLatencyNanos() {
+		return totalNanos.get();
+	}
+
+	/**
+	 * Returns the longest time taken to answer one attempt.
+	 *
+	 * @return the longest time in nanoseconds
+	 */
+	public long getMaxLatencyNanos() {
+		return maxNanos.get();
+	}
+
+	/**
+	 * The result of one login attempt.
+	 *
+	 * @author Anton Nikulsin
+	 */
+	public static final class Outcome {
+
+		/** AUTHENTICATED, WRONG_PASSWORD, UNKNOWN_ID or THROTTLED */
+		private final int result;
+		/** The user, or null if the check did not succeed */
+		private final User user;
+
+		/**
+		 * Creates an outcome.
+		 *
+		 * @param result the result code
+		 * @param user   the user, or null if the check did not succeed
+		 */
+		private Outcome(int result, User user) {
+			this.result = result;
+			this.user = user;
+		}
+
+		/**
+		 * Returns the result code.
+		 *
+		 * @return AUTHENTICATED, WRONG_PASSWORD, UNKNOWN_ID or THROTTLED
+		 */
+		public int getResult() {
+			return result;
+		}
+
+		/**
+		 * Returns the logged in user.
+		 *
+		 * @return the user, or null if the check did not succeed
+		 */
+		public User getUser() {
+			return user;
+		}
+	}
+
+	/**
+	 * Holds up to a fixed number of tokens and gains them back at a steady rate.
+	 *
+	 * @author Anton Nikulsin
+	 */
+	private static final class TokenBucket {
+
+		/** Most tokens the bucket holds */
+		private final double capacity;
+		/** Tokens gained each nanosecond */
+		private final double perNano;
+		/** Tokens held at the time of the last update */
+		private double tokens;
+		/** Time of the last update, from System.nanoTime() */
+		private long updated;
+
+		/**
+		 * Creates a full bucket.
+		 *
+		 * @param capacity  most tokens the bucket holds
+		 * @param perSecond tokens gained each second
+		 * @param now       the current time, from System.nanoTime()
+		 */
+		TokenBucket(int capacity, double perSecond, long now) {
+			this.capacity = capacity;
+			this.perNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+			this.tokens = capacity;
+			this.updated = now;
+		}
+
+		/**
+		 * Takes a token if one is held.
+		 *
+		 * @param now the current time, from System.nanoTime()
+		 * @return true if a token was taken
+		 */
+		synchronized boolean take(long now) {
+			refill(now);
+			if (tokens < 1) {
+				return false;
+			}
+			tokens--;
+			return true;
+		}
+
+		/**
+		 * Returns a token taken for something that turned out not to need it.
+		 */
+		synchronized void giveBack() {
+			tokens = Math.min(capacity, tokens + 1);
+		}
+
+		/**
+		 * Adds the tokens gained since the last update.
+		 *
+		 * @param now the current time, from System.nanoTime()
+		 */
+		private void refill(long now) {
+			if (now > updated) {
+				tokens = Math.min(capacity, tokens + (now - updated) * perNano);
+				updated = now;
+			}
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package edu.ncsu.csc216.pack_scheduler.manager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.ncsu.csc216.pack_scheduler.course.Course;
+
+/**
+ * Reports how each course of a batch enrollment was handled. The batch is
+ * committed only if every course could be added, in which case each course is
+ * ENROLLED or WAITLISTED. Otherwise nothing is changed, each course that could
+ * not be added has the reason, and each course that could have been added
+ * keeps the result it would have had.
+ *
+ * @author Anton Nikulsin
+ */
+public final class EnrollmentReport {
+
+	/** The student holds a seat in the course */
+	public static final int ENROLLED = 0;
+	/** The student is on the course's waitlist */
+	public static final int WAITLISTED = 1;
+	/** The schedule or an earlier course in the batch has a course with the same name */
+	public static final int DUPLICATE = 2;
+	/** The course conflicts with the schedule or an earlier course in the batch */
+	public static final int CONFLICT = 3;
+	/** The course and those before it take the student over their credit limit */
+	public static final int CREDIT_LIMIT = 4;
+	/** The course's roll and waitlist have no room for the student */
+	public static final int FULL = 5;
+
+	/** The courses of the batch, in the order given */
+	private final List<Course> courses;
+	/** The result for each course */
+	private final int[] results;
+	/** True if the batch was committed */
+	private final boolean committed;
+
+	/**
+	 * Creates a report.
+	 *
+	 * @param courses   the courses of the batch
+	 * @param results   the result for each course
+	 * @param committed true if the batch was committed
+	 */
+	EnrollmentReport(Course[] courses, int[] results, boolean committed) {
+		this.courses = Collections.unmodifiableList(Arrays.asList(courses));
+		this.results = results;
+		this.committed = committed;
+	}
+
+	/**
+	 * Returns true if every course was added.
+	 *
+	 * @return true if the batch was committed, or false if nothing was changed
+	 */
+	public boolean isCommitted() {
+		return committed;
+	}
+
+	/**
+	 * Returns the courses of the batch.
+	 *
+	 * @return the courses, in the order given
+	 */
+	public List<Course> getCourses() {
+		return courses;
+	}
+
+	/**
+	 * Returns the result for one course of the batch.
+	 *
+	 * @param index the index of the course in the batch
+	 * @return ENROLLED, WAITLISTED, DUPLICATE, CONFLICT, CREDIT_LIMIT or FULL
+	 * @throws IndexOutOfBoundsException if index is not the index of a course
+	 */
+	public int getResult(int index) {
+		return results[index];
+	}
+}
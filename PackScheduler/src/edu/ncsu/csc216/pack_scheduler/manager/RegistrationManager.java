@@ -1,18 +1,33 @@
 package edu.ncsu.csc216.pack_scheduler.manager;
 
+import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import edu.ncsu.csc216.pack_scheduler.catalog.CourseCatalog;
 import edu.ncsu.csc216.pack_scheduler.course.Course;
 import edu.ncsu.csc216.pack_scheduler.course.roll.CourseRoll;
 import edu.ncsu.csc216.pack_scheduler.directory.FacultyDirectory;
 import edu.ncsu.csc216.pack_scheduler.directory.StudentDirectory;
+import edu.ncsu.csc216.pack_scheduler.io.EnrollmentRecordIO;
+import edu.ncsu.csc216.pack_scheduler.io.RegistrationJournal;
+import edu.ncsu.csc216.pack_scheduler.io.RegistrationSnapshot;
 import edu.ncsu.csc216.pack_scheduler.user.Faculty;
+import edu.ncsu.csc216.pack_scheduler.user.PasswordHasher;
 import edu.ncsu.csc216.pack_scheduler.user.Student;
 import edu.ncsu.csc216.pack_scheduler.user.User;
 import edu.ncsu.csc216.pack_scheduler.user.schedule.Schedule;
@@ -21,6 +36,26 @@ import edu.ncsu.csc216.pack_scheduler.user.schedule.Schedule;
  * Class that handles user authentication and decides what student directory and
  * course catalog to display depending on the user.
  * 
+ * Enrollment operations are safe to call from many threads at once. Each one
+ * holds a lock for the student involved, then a lock for the course, then the
+ * student's Schedule, always in that order, so two students can never take the
+ * last seat in a section and one student's concurrent requests cannot exceed
+ * their credit limit. The locks are striped by id, so requests for different
+ * students and courses rarely wait on each other.
+ * 
+ * Once a journal is opened, every change is also recorded in it before the
+ * method that made the change returns. Enrollment changes are appended while
+ * their locks are held, so the journal keeps conflicting changes in the order
+ * they happened, and are flushed to disk after the locks are released, so
+ * concurrent changes share one write.
+ * 
+ * To keep the journal short, recover() splits it into numbered segments and
+ * takeSnapshot() periodically writes the whole state to one file. A snapshot
+ * is captured in memory while changes are briefly held off, and a new segment
+ * is started at the same moment; the file is then written on a background
+ * thread, after which the older segments are deleted. Recovery loads the
+ * snapshot and replays only the segments written since.
+ * 
  * @author Ethan Mancini
  * @author NCSU CSC216 Teaching Staff
  * @version February 24, 2020
@@ -38,9 +73,33 @@ public class RegistrationManager {
 	/** The user in the registrar */
 	private User registrar;
 	/** The current user of the system */
-	private User currentUser = null;
-	/** Hashing algorithm */
-	private static final String HASH_ALGORITHM = "SHA-256";
+	private volatile User currentUser = null;
+	/** Checks every login attempt */
+	private final AuthenticationPipeline authentication = new AuthenticationPipeline(this);
+	/** Sessions of the users logged in other than through login() */
+	private final SessionManager sessions = new SessionManager();
+	/** Number of lock stripes used for students and for courses */
+	private static final int LOCK_STRIPES = 64;
+	/** Locks guarding each student's enrollment requests, striped by student id */
+	private final Object[] studentLocks = newLockStripes();
+	/** Locks guarding each course's roll and waitlist, striped by course name and section */
+	private final Object[] courseLocks = newLockStripes();
+	/** Journal recording every change, or null if changes are not recorded */
+	private volatile RegistrationJournal journal;
+	/** Why changes can no longer be journaled, or null if they can */
+	private volatile Throwable failure;
+	/** Held shared by every enrollment change and exclusively while a snapshot is captured */
+	private final ReentrantReadWriteLock changeLock = new ReentrantReadWriteLock();
+	/** Snapshot file written by takeSnapshot(), or null if snapshots are not taken */
+	private String snapshotFile;
+	/** Journal segments are named by this prefix, a dot, and their generation */
+	private String journalPrefix;
+	/** Generation of the journal segment being written */
+	private long generation;
+	/** Writes snapshots in the background, created on first use */
+	private ScheduledExecutorService snapshotExecutor;
+	/** The periodic snapshots, or null if none are scheduled */
+	private ScheduledFuture<?> periodicSnapshots;
 	/** File where the registrar information is stored */
 	private static final String PROP_FILE = "registrar.properties";
 
@@ -60,7 +119,7 @@ public class RegistrationManager {
 		try (InputStream input = new FileInputStream(PROP_FILE)) {
 			prop.load(input);
 
-			String hashPW = hashPW(prop.getProperty("pw"));
+			String hashPW = PasswordHasher.hash(prop.getProperty("pw"));
 
 			registrar = new Registrar(prop.getProperty("first"), prop.getProperty("last"), prop.getProperty("id"),
 					prop.getProperty("email"), hashPW);
@@ -69,22 +128,12 @@ public class RegistrationManager {
 		}
 	}
 
-	private String hashPW(String pw) {
-		try {
-			MessageDigest digest1 = MessageDigest.getInstance(HASH_ALGORITHM);
-			digest1.update(pw.getBytes());
-			return new String(digest1.digest());
-		} catch (NoSuchAlgorithmException e) {
-			throw new IllegalArgumentException("Cannot hash password");
-		}
-	}
-
 	/**
 	 * Method used to have the RegistrationManager return an instance of itself
 	 * 
 	 * @return Returns an instance of itself
 	 */
-	public static RegistrationManager getInstance() {
+	public static synchronized RegistrationManager getInstance() {
 		if (instance == null) {
 			instance = new RegistrationManager();
 		}
@@ -138,77 +187,168 @@ public class RegistrationManager {
 	}
 
 	/**
-	 * Method used to login a user
+	 * Method used to login a user. The attempt goes through the authentication
+	 * pipeline, so unknown ids are rejected without hashing the password and
+	 * repeated wrong passwords are rejected without being checked again.
 	 * 
 	 * @param id       The users id
 	 * @param password The users password
 	 * @return true if the login was successful
-	 * @throws IllegalArgumentException If the user does not exist
+	 * @throws IllegalArgumentException If the user does not exist, or too many
+	 *                                  attempts have been made
 	 */
 	public boolean login(String id, String password) throws IllegalArgumentException {
 		if (currentUser != null) {
 			return false;
 		}
-		Student s = studentDirectory.getStudentById(id);
-		Faculty f = facultyDirectory.getFacultyById(id);
-		if (s != null) {
-			try {
-				MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
-				digest.update(password.getBytes());
-				String localHashPW = new String(digest.digest());
-
-				if (s.getPassword().equals(localHashPW)) {
-					currentUser = s;
-					return true;
-				} else {
-					return false;
-				}
-			} catch (NoSuchAlgorithmException e) {
-				throw new IllegalArgumentException();
-			}
-		} else if (f != null) {
-			try {
-				MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
-				digest.update(password.getBytes());
-				String localHashPW = new String(digest.digest());
-
-				if (f.getPassword().equals(localHashPW)) {
-					currentUser = f;
-					return true;
-				} else {
-					return false;
-				}
-			} catch (NoSuchAlgorithmException e) {
-				throw new IllegalArgumentException();
-			}
+		AuthenticationPipeline.Outcome outcome = authentication.authenticate(id, password);
+		switch (outcome.getResult()) {
+		case AuthenticationPipeline.UNKNOWN_ID:
+			throw new IllegalArgumentException("User doesn't exist.");
+		case AuthenticationPipeline.THROTTLED:
+			throw new IllegalArgumentException("Too many login attempts.");
+		case AuthenticationPipeline.WRONG_PASSWORD:
+			return false;
+		default:
+			currentUser = outcome.getUser();
+			return true;
 		}
-		if (registrar.getId().equals(id)) {
-			try {
-				MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
-				digest.update(password.getBytes());
-				String localHashPW = new String(digest.digest());
-
-				if (registrar.getPassword().equals(localHashPW)) {
-					currentUser = registrar;
-					return true;
-				} else {
-					return false;
-				}
-			} catch (NoSuchAlgorithmException e) {
-				throw new IllegalArgumentException();
+	}
+
+	/**
+	 * Returns the pipeline that checks login attempts. Callers that keep their
+	 * own logged in users, such as a server handling many sessions, check each
+	 * attempt through it.
+	 * 
+	 * @return the authentication pipeline
+	 */
+	public AuthenticationPipeline getAuthentication() {
+		return authentication;
+	}
+
+	/**
+	 * Returns the sessions of users logged in other than through login(). A
+	 * server handling many users checks each login attempt through
+	 * getAuthentication(), opens a session for the user, and passes the
+	 * session's user to the methods that take the acting user.
+	 * 
+	 * @return the session manager
+	 */
+	public SessionManager getSessions() {
+		return sessions;
+	}
+
+	/**
+	 * Checks a user's id and password without changing the current user or
+	 * limiting the number of attempts. A user whose password is still stored as
+	 * a legacy hash has it replaced with a hex hash on a successful check.
+	 * 
+	 * @param id       The users id
+	 * @param password The users password
+	 * @return the user with the given id if the password matches, or null if it
+	 *         does not
+	 * @throws IllegalArgumentException If the user does not exist
+	 */
+	public User authenticate(String id, String password) {
+		User user = findUser(id);
+		if (user == null) {
+			throw new IllegalArgumentException("User doesn't exist.");
+		}
+		return checkPassword(user, password) ? user : null;
+	}
+
+	/**
+	 * Finds the student, faculty or registrar with an id.
+	 * 
+	 * @param id the id
+	 * @return the user, or null if no user has the id
+	 */
+	User findUser(String id) {
+		if (id == null) {
+			return null;
+		}
+		User user = studentDirectory.getStudentById(id);
+		if (user == null) {
+			user = facultyDirectory.getFacultyById(id);
+		}
+		if (user == null && registrar.getId().equals(id)) {
+			user = registrar;
+		}
+		return user;
+	}
+
+	/**
+	 * Returns true if a password matches a user's, replacing a legacy hash with
+	 * a hex hash when it does.
+	 * 
+	 * @param user     the user
+	 * @param password the password
+	 * @return true if the password matches
+	 */
+	boolean checkPassword(User user, String password) {
+		String stored = user.getPassword();
+		if (!PasswordHasher.matches(password, stored)) {
+			return false;
+		}
+		if (PasswordHasher.isLegacy(stored)) {
+			// the password is known now, so replace the legacy hash with a hex one
+			user.setPassword(PasswordHasher.hash(password));
+		}
+		return true;
+	}
+
+	/**
+	 * Saves who is enrolled in and waitlisted for every course in the catalog.
+	 * Enrollment changes wait until the file is written, so it holds one
+	 * consistent view of every roll.
+	 * 
+	 * @param fileName the file to write
+	 * @throws IllegalArgumentException if the file cannot be written
+	 */
+	public void saveEnrollments(String fileName) {
+		changeLock.writeLock().lock();
+		try {
+			synchronized (courseCatalog) {
+				EnrollmentRecordIO.writeEnrollmentRecords(fileName, courseCatalog.getCourses());
 			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to write to file " + fileName);
+		} finally {
+			changeLock.writeLock().unlock();
+		}
+	}
 
+	/**
+	 * Restores the rolls and waitlists saved by saveEnrollments() onto the
+	 * courses and students already loaded, rebuilding each student's schedule.
+	 * Like loading the catalog or directories, this is not recorded in the
+	 * journal.
+	 * 
+	 * @param fileName the file to read
+	 * @return the number of students placed on a roll or waitlist
+	 * @throws IllegalArgumentException if the file cannot be read
+	 */
+	public int loadEnrollmentsFromFile(String fileName) {
+		changeLock.writeLock().lock();
+		try {
+			return EnrollmentRecordIO.readEnrollmentRecords(fileName, courseCatalog, studentDirectory);
+		} catch (FileNotFoundException e) {
+			throw new IllegalArgumentException("Unable to read file " + fileName);
+		} finally {
+			changeLock.writeLock().unlock();
 		}
-		throw new IllegalArgumentException("User doesn't exist.");
 	}
 
 	/**
-	 * Clears course catalog and student directory data
+	 * Clears course catalog and student directory data, and ends every session
 	 */
 	public void clearData() {
 		courseCatalog.newCourseCatalog();
 		studentDirectory.newStudentDirectory();
 		facultyDirectory.newFacultyDirectory();
+		authentication.reset();
+		sessions.closeAll();
+		failure = null;
 	}
 
 	/**
@@ -241,25 +381,218 @@ public class RegistrationManager {
 	 * @return true if enrolled
 	 */
 	public boolean enrollStudentInCourse(Course c) {
-	    if (currentUser == null || !(currentUser instanceof Student)) {
-	        throw new IllegalArgumentException("Illegal Action");
-	    }
-	    
-	    try {
-	        Student s = (Student)currentUser;
-	        Schedule schedule = s.getSchedule();
-	        CourseRoll roll = c.getCourseRoll();
-	        
-	        if (s.canAdd(c) && roll.canEnroll(s)) {
-	            schedule.addCourseToSchedule(c);
-	            roll.enroll(s);
-	            return true;
-	        }
-	        
-	    } catch (IllegalArgumentException e) {
-	        return false;
-	    }
-	    return false;
+		return enrollStudentInCourse(currentUser, c);
+	}
+
+	/**
+	 * Enrolls the given user in the given course if they are a student and can
+	 * enroll. This lets a caller that tracks its own logged in users, such as one
+	 * session per connection, enroll them without going through the single
+	 * current user.
+	 * 
+	 * @param user the user enrolling, who must be a Student
+	 * @param c    Course to enroll in
+	 * @return true if enrolled
+	 * @throws IllegalArgumentException if the user is not a Student
+	 * @throws IllegalStateException    if the change cannot be journaled
+	 */
+	public boolean enrollStudentInCourse(User user, Course c) {
+		Student s = toStudent(user);
+		long entry = 0;
+		changeLock.readLock().lock();
+		try {
+			synchronized (lockFor(studentLocks, s.getId())) {
+				synchronized (lockFor(courseLocks, c.getName() + "," + c.getSection())) {
+					try {
+						Schedule schedule = s.getSchedule();
+						CourseRoll roll = c.getCourseRoll();
+						synchronized (schedule) {
+							if (!s.canAdd(c) || !roll.canEnroll(s) || roll.getOpenSeats() == 0 && roll.isWaitlistFull()) {
+								return false;
+							}
+							// Journaled before the change, so no change is made in memory alone
+							entry = appendToJournal(RegistrationJournal.ENROLL, s.getId(), c.getName(), c.getSection());
+							roll.enroll(s);
+							schedule.addCourseToSchedule(c);
+						}
+					} catch (IllegalArgumentException e) {
+						return false;
+					}
+				}
+			}
+		} finally {
+			changeLock.readLock().unlock();
+		}
+		syncJournal(entry);
+		return true;
+	}
+
+	/**
+	 * Enrolls the logged in student in every course of a batch, or in none of
+	 * them.
+	 * 
+	 * @param cart the courses to enroll in
+	 * @return how each course was handled
+	 * @throws IllegalArgumentException if the current user is not a Student, or
+	 *                                  the batch or a course in it is null
+	 */
+	public EnrollmentReport enrollStudentInCourses(List<Course> cart) {
+		return enrollStudentInCourses(currentUser, cart);
+	}
+
+	/**
+	 * Enrolls the given user in every course of a batch, or in none of them. The
+	 * whole batch is checked once against the student's schedule while every
+	 * course in it is locked: each course against the schedule and against the
+	 * courses before it for duplicates and conflicts, the credit total of the
+	 * schedule and batch against the student's limit, and each course's roll and
+	 * waitlist for room. Only if every course passes is the student added to
+	 * each roll and the schedule, and the changes journaled together; otherwise
+	 * nothing is changed.
+	 * 
+	 * @param user the user enrolling, who must be a Student
+	 * @param cart the courses to enroll in
+	 * @return how each course was handled
+	 * @throws IllegalArgumentException if the user is not a Student, or the batch
+	 *                                  or a course in it is null
+	 * @throws IllegalStateException    if the changes cannot be journaled
+	 */
+	public EnrollmentReport enrollStudentInCourses(User user, List<Course> cart) {
+		Student s = toStudent(user);
+		if (cart == null || cart.contains(null)) {
+			throw new IllegalArgumentException("Invalid course.");
+		}
+		Course[] courses = cart.toArray(new Course[cart.size()]);
+		// Course locks are taken in stripe order, so two batches cannot wait on each other
+		boolean[] needed = new boolean[LOCK_STRIPES];
+		for (Course c : courses) {
+			needed[stripeOf(c.getName() + "," + c.getSection())] = true;
+		}
+		int[] stripes = new int[LOCK_STRIPES];
+		int count = 0;
+		for (int i = 0; i < needed.length; i++) {
+			if (needed[i]) {
+				stripes[count++] = i;
+			}
+		}
+		long[] entry = new long[1];
+		EnrollmentReport report;
+		changeLock.readLock().lock();
+		try {
+			synchronized (lockFor(studentLocks, s.getId())) {
+				report = enrollLocked(s, courses, stripes, count, 0, entry);
+			}
+		} finally {
+			changeLock.readLock().unlock();
+		}
+		syncJournal(entry[0]);
+		return report;
+	}
+
+	/**
+	 * Takes the remaining course locks of a batch one at a time, then checks and
+	 * commits the batch while holding all of them.
+	 * 
+	 * @param s       the student enrolling
+	 * @param courses the courses of the batch
+	 * @param stripes the course lock stripes to take, in order
+	 * @param count   the number of stripes to take
+	 * @param next    the index of the next stripe to take
+	 * @param entry   receives the journal entry to sync
+	 * @return how each course was handled
+	 */
+	private EnrollmentReport enrollLocked(Student s, Course[] courses, int[] stripes, int count, int next,
+			long[] entry) {
+		if (next < count) {
+			synchronized (courseLocks[stripes[next]]) {
+				return enrollLocked(s, courses, stripes, count, next + 1, entry);
+			}
+		}
+		Schedule schedule = s.getSchedule();
+		synchronized (schedule) {
+			int[] results = new int[courses.length];
+			boolean valid = true;
+			int credits = schedule.getScheduleCredits();
+			for (int i = 0; i < courses.length; i++) {
+				results[i] = check(s, courses, i);
+				if (results[i] == EnrollmentReport.ENROLLED || results[i] == EnrollmentReport.WAITLISTED) {
+					credits += courses[i].getCredits();
+					if (credits > s.getMaxCredits()) {
+						results[i] = EnrollmentReport.CREDIT_LIMIT;
+					}
+				}
+				valid &= results[i] == EnrollmentReport.ENROLLED || results[i] == EnrollmentReport.WAITLISTED;
+			}
+			if (!valid) {
+				return new EnrollmentReport(courses, results, false);
+			}
+			// Journaled before the changes, so no change is made in memory alone
+			for (Course c : courses) {
+				entry[0] = appendToJournal(RegistrationJournal.ENROLL, s.getId(), c.getName(), c.getSection());
+			}
+			int added = 0;
+			try {
+				for (; added < courses.length; added++) {
+					// Take the seat first so a full waitlist leaves the schedule untouched
+					courses[added].getCourseRoll().enroll(s);
+					try {
+						schedule.addCourseToSchedule(courses[added]);
+					} catch (IllegalArgumentException e) {
+						courses[added].getCourseRoll().drop(s);
+						throw e;
+					}
+				}
+			} catch (IllegalArgumentException e) {
+				// Not reached after the checks above, but never leave part of a batch
+				for (int i = added - 1; i >= 0; i--) {
+					schedule.removeCourseFromSchedule(courses[i]);
+					courses[i].getCourseRoll().drop(s);
+				}
+				if (entry[0] > 0) {
+					// The journal now holds enrollments that were not made
+					throw fail(e);
+				}
+				return new EnrollmentReport(courses, results, false);
+			}
+			return new EnrollmentReport(courses, results, true);
+		}
+	}
+
+	/**
+	 * Checks one course of a batch against the student's schedule, the courses
+	 * before it in the batch, and its roll.
+	 * 
+	 * @param s       the student enrolling
+	 * @param courses the courses of the batch
+	 * @param index   the index of the course to check
+	 * @return ENROLLED or WAITLISTED if the course can be added, or the reason it
+	 *         cannot
+	 */
+	private static int check(Student s, Course[] courses, int index) {
+		Course c = courses[index];
+		Schedule schedule = s.getSchedule();
+		if (schedule.hasCourseNamed(c.getName())) {
+			return EnrollmentReport.DUPLICATE;
+		}
+		if (!schedule.canAdd(c)) {
+			return EnrollmentReport.CONFLICT;
+		}
+		for (int i = 0; i < index; i++) {
+			if (c.hasSameName(courses[i])) {
+				return EnrollmentReport.DUPLICATE;
+			}
+			if (c.conflictsWith(courses[i])) {
+				return EnrollmentReport.CONFLICT;
+			}
+		}
+		CourseRoll roll = c.getCourseRoll();
+		if (!roll.canEnroll(s)) {
+			return EnrollmentReport.FULL;
+		}
+		if (roll.getOpenSeats() > 0) {
+			return EnrollmentReport.ENROLLED;
+		}
+		return roll.isWaitlistFull() ? EnrollmentReport.FULL : EnrollmentReport.WAITLISTED;
 	}
 
 	/**
@@ -268,18 +601,44 @@ public class RegistrationManager {
 	 * @return true if dropped
 	 */
 	public boolean dropStudentFromCourse(Course c) {
-	    if (currentUser == null || !(currentUser instanceof Student)) {
-	        throw new IllegalArgumentException("Illegal Action");
-	    }
-	    
-	    try {
-	        Student s = (Student)currentUser;
-	        c.getCourseRoll().drop(s);
-	        return s.getSchedule().removeCourseFromSchedule(c);
-	    } catch (IllegalArgumentException e) {
-	        return false; 
-	    }
-	    
+		return dropStudentFromCourse(currentUser, c);
+	}
+
+	/**
+	 * Drops the given user from the given course if they are a student.
+	 * 
+	 * @param user the user dropping, who must be a Student
+	 * @param c    Course to drop
+	 * @return true if dropped
+	 * @throws IllegalArgumentException if the user is not a Student
+	 * @throws IllegalStateException    if the change cannot be journaled
+	 */
+	public boolean dropStudentFromCourse(User user, Course c) {
+		Student s = toStudent(user);
+		long entry = 0;
+		boolean dropped;
+		changeLock.readLock().lock();
+		try {
+			synchronized (lockFor(studentLocks, s.getId())) {
+				synchronized (lockFor(courseLocks, c.getName() + "," + c.getSection())) {
+					CourseRoll roll = c.getCourseRoll();
+					// Journaled before the change, and not at all if it would change nothing
+					if (roll.hasStudent(s) || s.getSchedule().hasCourseNamed(c.getName())) {
+						entry = appendToJournal(RegistrationJournal.DROP, s.getId(), c.getName(), c.getSection());
+					}
+					try {
+						roll.drop(s);
+						dropped = s.getSchedule().removeCourseFromSchedule(c);
+					} catch (IllegalArgumentException e) {
+						return false;
+					}
+				}
+			}
+		} finally {
+			changeLock.readLock().unlock();
+		}
+		syncJournal(entry);
+		return dropped;
 	}
 
 	/**
@@ -287,23 +646,93 @@ public class RegistrationManager {
 	 * from every course and then resetting the schedule.
 	 */
 	public void resetSchedule() {
-	    if (currentUser == null || !(currentUser instanceof Student)) {
-	        throw new IllegalArgumentException("Illegal Action");
-	    }
-	    
-	    try {
-	        Student s = (Student)currentUser;
-	        Schedule schedule = s.getSchedule();
-	        String [][] scheduleArray = schedule.getScheduledCourses();
-	        for (int i = 0; i < scheduleArray.length; i++) {
-	            Course c = courseCatalog.getCourseFromCatalog(scheduleArray[i][0], scheduleArray[i][1]);
-	            c.getCourseRoll().drop(s);
-	        }
-	        schedule.resetSchedule();
-	    } catch (IllegalArgumentException e) {
-	        //do nothing 
-	    }
-	    
+		resetSchedule(currentUser);
+	}
+
+	/**
+	 * Resets the given user's schedule by dropping them from every course and
+	 * then resetting the schedule.
+	 * 
+	 * @param user the user whose schedule is reset, who must be a Student
+	 * @throws IllegalArgumentException if the user is not a Student
+	 * @throws IllegalStateException    if the changes cannot be journaled
+	 */
+	public void resetSchedule(User user) {
+		Student s = toStudent(user);
+		long entry = 0;
+		changeLock.readLock().lock();
+		try {
+			synchronized (lockFor(studentLocks, s.getId())) {
+				try {
+					Schedule schedule = s.getSchedule();
+					String [][] scheduleArray = schedule.getScheduledCourses();
+					for (int i = 0; i < scheduleArray.length; i++) {
+						Course c = courseCatalog.getCourseFromCatalog(scheduleArray[i][0], scheduleArray[i][1]);
+						synchronized (lockFor(courseLocks, c.getName() + "," + c.getSection())) {
+							// Journaled per course, so a seat freed here is replayed before anyone who took it
+							entry = appendToJournal(RegistrationJournal.DROP, s.getId(), c.getName(), c.getSection());
+							c.getCourseRoll().drop(s);
+						}
+					}
+					entry = appendToJournal(RegistrationJournal.RESET_SCHEDULE, s.getId());
+					schedule.resetSchedule();
+				} catch (IllegalArgumentException e) {
+					//do nothing 
+				}
+			}
+		} finally {
+			changeLock.readLock().unlock();
+		}
+		syncJournal(entry);
+	}
+
+	/**
+	 * Returns the given user as a Student, or throws an exception if they are not
+	 * one.
+	 * 
+	 * @param user the user to check
+	 * @return the user as a Student
+	 * @throws IllegalArgumentException if the user is null or not a Student
+	 */
+	private static Student toStudent(User user) {
+		if (user == null || !(user instanceof Student)) {
+			throw new IllegalArgumentException("Illegal Action");
+		}
+		return (Student) user;
+	}
+	
+	/**
+	 * Creates the lock objects for one set of lock stripes.
+	 * 
+	 * @return the new locks
+	 */
+	private static Object[] newLockStripes() {
+		Object[] locks = new Object[LOCK_STRIPES];
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new Object();
+		}
+		return locks;
+	}
+	
+	/**
+	 * Returns the lock stripe guarding the given key.
+	 * 
+	 * @param locks the set of lock stripes
+	 * @param key   the id of the student or course to lock
+	 * @return the lock for the key
+	 */
+	private static Object lockFor(Object[] locks, String key) {
+		return locks[stripeOf(key)];
+	}
+
+	/**
+	 * Returns the index of the lock stripe guarding the given key.
+	 * 
+	 * @param key the id of the student or course to lock
+	 * @return the index of the stripe
+	 */
+	private static int stripeOf(String key) {
+		return (key.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES;
 	}
 	
 	/**
@@ -317,8 +746,39 @@ public class RegistrationManager {
 	 * @throws IllegalArgumentException if the current user is not the registrar
 	 */
 	public boolean addFacultyToCourse(Course c, Faculty f) {
-		if (currentUser != null && currentUser.equals(registrar)) {
-			return f.getSchedule().addCourseToSchedule(c);
+		return addFacultyToCourse(currentUser, c, f);
+	}
+
+	/**
+	 * Adds the specified Faculty to the specified Course on behalf of the given
+	 * user, who must be the registrar.
+	 * 
+	 * @param user the user making the change
+	 * @param c    the Course to add the Faculty to
+	 * @param f    the Faculty to add to the Course
+	 * @return true if the Faculty is successfully added
+	 * @throws IllegalArgumentException if the user is not the registrar
+	 * @throws IllegalStateException    if the change cannot be journaled
+	 */
+	public boolean addFacultyToCourse(User user, Course c, Faculty f) {
+		if (user != null && user.equals(registrar)) {
+			long entry;
+			boolean added;
+			changeLock.readLock().lock();
+			try {
+				synchronized (lockFor(courseLocks, c.getName() + "," + c.getSection())) {
+					synchronized (f.getSchedule()) {
+						// Journaled first; a change that then fails also fails when it is replayed
+						entry = appendToJournal(RegistrationJournal.ADD_FACULTY_TO_COURSE, f.getId(), c.getName(),
+								c.getSection());
+						added = f.getSchedule().addCourseToSchedule(c);
+					}
+				}
+			} finally {
+				changeLock.readLock().unlock();
+			}
+			syncJournal(entry);
+			return added;
 		}
 		else {
 			throw new IllegalArgumentException("Illegal Action");
@@ -337,8 +797,38 @@ public class RegistrationManager {
 	 * @throws IllegalArgumentException if the current user is not the registrar
 	 */
 	public boolean removeFacultyFromCourse(Course c, Faculty f) {
-		if (currentUser != null && currentUser.equals(registrar)) {
-			return f.getSchedule().removeCourseFromSchedule(c);
+		return removeFacultyFromCourse(currentUser, c, f);
+	}
+
+	/**
+	 * Removes the specified Faculty from the specified Course on behalf of the
+	 * given user, who must be the registrar.
+	 * 
+	 * @param user the user making the change
+	 * @param c    the Course to remove the Faculty from
+	 * @param f    the Faculty to remove from the Course
+	 * @return true if the Faculty is successfully removed
+	 * @throws IllegalArgumentException if the user is not the registrar
+	 * @throws IllegalStateException    if the change cannot be journaled
+	 */
+	public boolean removeFacultyFromCourse(User user, Course c, Faculty f) {
+		if (user != null && user.equals(registrar)) {
+			long entry;
+			boolean removed;
+			changeLock.readLock().lock();
+			try {
+				synchronized (lockFor(courseLocks, c.getName() + "," + c.getSection())) {
+					synchronized (f.getSchedule()) {
+						entry = appendToJournal(RegistrationJournal.REMOVE_FACULTY_FROM_COURSE, f.getId(), c.getName(),
+								c.getSection());
+						removed = f.getSchedule().removeCourseFromSchedule(c);
+					}
+				}
+			} finally {
+				changeLock.readLock().unlock();
+			}
+			syncJournal(entry);
+			return removed;
 		}
 		else {
 			throw new IllegalArgumentException("Illegal Action");
@@ -353,8 +843,31 @@ public class RegistrationManager {
 	 * @throws IllegalArgumentException if the current user is not the registrar
 	 */
 	public void resetFacultySchedule(Faculty f) {
-		if (currentUser != null && currentUser.equals(registrar)) {
-			f.getSchedule().resetSchedule();
+		resetFacultySchedule(currentUser, f);
+	}
+
+	/**
+	 * Resets the FacultySchedule of the specified Faculty on behalf of the given
+	 * user, who must be the registrar.
+	 * 
+	 * @param user the user making the change
+	 * @param f    the Faculty for which to reset their FacultySchedule
+	 * @throws IllegalArgumentException if the user is not the registrar
+	 * @throws IllegalStateException    if the change cannot be journaled
+	 */
+	public void resetFacultySchedule(User user, Faculty f) {
+		if (user != null && user.equals(registrar)) {
+			long entry;
+			changeLock.readLock().lock();
+			try {
+				synchronized (f.getSchedule()) {
+					entry = appendToJournal(RegistrationJournal.RESET_FACULTY_SCHEDULE, f.getId());
+					f.getSchedule().resetSchedule();
+				}
+			} finally {
+				changeLock.readLock().unlock();
+			}
+			syncJournal(entry);
 		}
 		else {
 			throw new IllegalArgumentException("Illegal Action");
@@ -362,4 +875,458 @@ public class RegistrationManager {
 		
 	}
 	
+	/**
+	 * Opens a journal of changes, first replaying every change already in it
+	 * onto the current data, and then records every later change in it. The
+	 * journal holds changes made since the data was loaded, so it should be
+	 * opened after loading the same data files as when it was written. Loading
+	 * or clearing data is not recorded. Any journal already open is closed first.
+	 * 
+	 * @param fileName the journal file, which is created if it does not exist
+	 * @return the number of changes replayed
+	 * @throws IllegalArgumentException if the journal cannot be opened
+	 */
+	public synchronized int openJournal(String fileName) {
+		closeJournal();
+		final int[] replayed = new int[1];
+		RegistrationJournal opened;
+		try {
+			opened = new RegistrationJournal(fileName, new RegistrationJournal.Handler() {
+				@Override
+				public void apply(RegistrationJournal.Entry entry) {
+					replay(entry);
+					replayed[0]++;
+				}
+			});
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to open journal " + fileName);
+		}
+		attachJournal(opened);
+		return replayed[0];
+	}
+
+	/**
+	 * Flushes and closes the journal, if one is open. Later changes are not
+	 * recorded.
+	 * 
+	 * @throws IllegalArgumentException if the journal cannot be flushed
+	 */
+	public synchronized void closeJournal() {
+		stopSnapshots();
+		snapshotFile = null;
+		journalPrefix = null;
+		RegistrationJournal closing = journal;
+		if (closing == null) {
+			return;
+		}
+		// No change is journaled while closing, and a change whose sync then finds
+		// the journal gone was either written by close() or sees the failure
+		changeLock.writeLock().lock();
+		try {
+			closing.close();
+		} catch (IOException e) {
+			fail(e);
+			throw new IllegalArgumentException("Unable to write journal");
+		} finally {
+			journal = null;
+			courseCatalog.setJournal(null);
+			studentDirectory.setJournal(null);
+			facultyDirectory.setJournal(null);
+			changeLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Restores the data from a snapshot, if one exists, and the journal segments
+	 * written after it, then records every later change in a journal segment.
+	 * Without a snapshot the segments are replayed onto the data already loaded,
+	 * as with openJournal(). Any journal already open is closed first.
+	 * 
+	 * @param snapshotFile  the snapshot file, read if it exists and written by
+	 *                      takeSnapshot()
+	 * @param journalPrefix the name of the journal segments, each of which is
+	 *                      this followed by a dot and its generation
+	 * @return the number of changes replayed from the journal
+	 * @throws IllegalArgumentException if the snapshot or journal cannot be read
+	 */
+	public synchronized int recover(String snapshotFile, String journalPrefix) {
+		closeJournal();
+		long first = 0;
+		if (new File(snapshotFile).exists()) {
+			try {
+				first = RegistrationSnapshot.restore(snapshotFile, courseCatalog, studentDirectory, facultyDirectory);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to read snapshot " + snapshotFile);
+			}
+		}
+		final int[] replayed = new int[1];
+		RegistrationJournal.Handler handler = new RegistrationJournal.Handler() {
+			@Override
+			public void apply(RegistrationJournal.Entry entry) {
+				replay(entry);
+				replayed[0]++;
+			}
+		};
+		RegistrationJournal segment = null;
+		long last = first;
+		try {
+			for (long g : journalSegments(journalPrefix)) {
+				if (g < first) {
+					// already covered by the snapshot
+					new File(segmentName(journalPrefix, g)).delete();
+					continue;
+				}
+				long sequence = 0;
+				if (segment != null) {
+					sequence = segment.getSequence();
+					segment.close();
+				}
+				segment = new RegistrationJournal(segmentName(journalPrefix, g), handler, sequence);
+				last = g;
+			}
+			if (segment == null) {
+				segment = new RegistrationJournal(segmentName(journalPrefix, last), null);
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to open journal " + journalPrefix);
+		}
+		this.snapshotFile = snapshotFile;
+		this.journalPrefix = journalPrefix;
+		generation = last;
+		attachJournal(segment);
+		return replayed[0];
+	}
+
+	/**
+	 * Captures a snapshot of all data and starts a new journal segment, then
+	 * writes the snapshot on a background thread and deletes the older segments
+	 * once it is safely on disk. Changes wait only while the snapshot is captured
+	 * in memory. If the snapshot cannot be written the older segments are kept,
+	 * so recovery falls back to the previous snapshot and replays them.
+	 * 
+	 * @return completes when the snapshot is written and the older segments are
+	 *         deleted, or fails with the IOException that stopped it
+	 * @throws IllegalArgumentException if the journal was not opened by recover()
+	 *                                  or a new segment cannot be created
+	 * @throws IllegalStateException    if the current segment cannot be closed,
+	 *                                  or a change could not be journaled earlier
+	 */
+	public synchronized Future<?> takeSnapshot() {
+		if (journalPrefix == null) {
+			throw new IllegalArgumentException("Snapshots need a journal opened by recover()");
+		}
+		checkNotFailed();
+		final String file = snapshotFile;
+		final String prefix = journalPrefix;
+		final long next = generation + 1;
+		final RegistrationSnapshot snapshot;
+		changeLock.writeLock().lock();
+		try {
+			// Catalog and directory changes synchronize on the object they change
+			synchronized (courseCatalog) {
+				synchronized (studentDirectory) {
+					synchronized (facultyDirectory) {
+						RegistrationJournal previous = journal;
+						RegistrationJournal segment;
+						try {
+							segment = new RegistrationJournal(segmentName(prefix, next), null, previous.getSequence());
+						} catch (IOException e) {
+							throw new IllegalArgumentException("Unable to open journal " + prefix);
+						}
+						snapshot = RegistrationSnapshot.capture(next, courseCatalog, studentDirectory,
+								facultyDirectory);
+						try {
+							previous.close();
+						} catch (IOException e) {
+							// Entries appended before the snapshot may be lost, and the new segment
+							// would report them durable, so the old journal stays failed instead
+							try {
+								segment.close();
+							} catch (IOException ignored) {
+								// nothing was written to it
+							}
+							new File(segmentName(prefix, next)).delete();
+							throw fail(e);
+						}
+						attachJournal(segment);
+						generation = next;
+					}
+				}
+			}
+		} finally {
+			changeLock.writeLock().unlock();
+		}
+		return getSnapshotExecutor().submit(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException {
+				snapshot.write(file);
+				for (long g : journalSegments(prefix)) {
+					if (g < next) {
+						new File(segmentName(prefix, g)).delete();
+					}
+				}
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Takes a snapshot every period until stopSnapshots() or closeJournal() is
+	 * called, replacing any periodic snapshots already scheduled. A snapshot that
+	 * fails is tried again at the next period, unless the manager has failed.
+	 * 
+	 * @param period time between the end of one snapshot and the start of the
+	 *               next
+	 * @param unit   the unit of period
+	 * @throws IllegalArgumentException if the journal was not opened by recover()
+	 *                                  or period is not positive
+	 */
+	public synchronized void startSnapshots(long period, TimeUnit unit) {
+		if (journalPrefix == null || period <= 0) {
+			throw new IllegalArgumentException("Snapshots need a journal opened by recover()");
+		}
+		stopSnapshots();
+		periodicSnapshots = getSnapshotExecutor().scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					// Returns once the snapshot is captured; it is written next on this same thread
+					takeSnapshot();
+				} catch (IllegalArgumentException e) {
+					// try again next period; an IllegalStateException ends the schedule
+				}
+			}
+		}, period, period, unit);
+	}
+
+	/**
+	 * Stops taking periodic snapshots. A snapshot already being written is
+	 * finished.
+	 */
+	public synchronized void stopSnapshots() {
+		if (periodicSnapshots != null) {
+			periodicSnapshots.cancel(false);
+			periodicSnapshots = null;
+		}
+	}
+
+	/**
+	 * Makes a journal the one that records every change.
+	 * 
+	 * @param opened the journal
+	 */
+	private void attachJournal(RegistrationJournal opened) {
+		journal = opened;
+		courseCatalog.setJournal(opened);
+		studentDirectory.setJournal(opened);
+		facultyDirectory.setJournal(opened);
+	}
+
+	/**
+	 * Returns the executor that writes snapshots, creating it on first use. Its
+	 * single thread is a daemon so it does not keep the program running.
+	 * 
+	 * @return the executor
+	 */
+	private synchronized ScheduledExecutorService getSnapshotExecutor() {
+		if (snapshotExecutor == null) {
+			snapshotExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "PackScheduler snapshots");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return snapshotExecutor;
+	}
+
+	/**
+	 * Returns the file name of a journal segment.
+	 * 
+	 * @param prefix     the name of the journal segments
+	 * @param generation the segment's generation
+	 * @return the segment's file name
+	 */
+	private static String segmentName(String prefix, long generation) {
+		return prefix + "." + generation;
+	}
+
+	/**
+	 * Returns the generations of the journal segments that exist, in order.
+	 * 
+	 * @param prefix the name of the journal segments
+	 * @return the generations found
+	 */
+	private static List<Long> journalSegments(String prefix) {
+		File base = new File(prefix).getAbsoluteFile();
+		String start = base.getName() + ".";
+		List<Long> generations = new ArrayList<Long>();
+		String[] names = base.getParentFile().list();
+		if (names != null) {
+			for (String name : names) {
+				if (name.startsWith(start)) {
+					try {
+						generations.add(Long.parseLong(name.substring(start.length())));
+					} catch (NumberFormatException e) {
+						// not a segment
+					}
+				}
+			}
+		}
+		Collections.sort(generations);
+		return generations;
+	}
+
+	/**
+	 * Applies one change read from the journal. The journal is not open while
+	 * replaying, so nothing is recorded twice. Changes that no longer apply, such
+	 * as an enrollment in a course missing from the catalog, are skipped.
+	 * 
+	 * @param entry the change to apply
+	 */
+	private void replay(RegistrationJournal.Entry entry) {
+		try {
+			switch (entry.getType()) {
+			case RegistrationJournal.ENROLL:
+			case RegistrationJournal.DROP:
+				Student student = studentDirectory.getStudentById(entry.getString(0));
+				Course course = courseCatalog.getCourseFromCatalog(entry.getString(1), entry.getString(2));
+				if (student != null && course != null) {
+					if (entry.getType() == RegistrationJournal.ENROLL) {
+						enrollStudentInCourse(student, course);
+					} else {
+						dropStudentFromCourse(student, course);
+					}
+				}
+				break;
+			case RegistrationJournal.RESET_SCHEDULE:
+				Student resetting = studentDirectory.getStudentById(entry.getString(0));
+				if (resetting != null) {
+					resetSchedule(resetting);
+				}
+				break;
+			case RegistrationJournal.ADD_FACULTY_TO_COURSE:
+			case RegistrationJournal.REMOVE_FACULTY_FROM_COURSE:
+				Faculty faculty = facultyDirectory.getFacultyById(entry.getString(0));
+				Course taught = courseCatalog.getCourseFromCatalog(entry.getString(1), entry.getString(2));
+				if (faculty != null && taught != null) {
+					if (entry.getType() == RegistrationJournal.ADD_FACULTY_TO_COURSE) {
+						faculty.getSchedule().addCourseToSchedule(taught);
+					} else {
+						faculty.getSchedule().removeCourseFromSchedule(taught);
+					}
+				}
+				break;
+			case RegistrationJournal.RESET_FACULTY_SCHEDULE:
+				Faculty resetFaculty = facultyDirectory.getFacultyById(entry.getString(0));
+				if (resetFaculty != null) {
+					resetFaculty.getSchedule().resetSchedule();
+				}
+				break;
+			case RegistrationJournal.ADD_COURSE:
+				courseCatalog.addCourseToCatalog(entry.getString(0), entry.getString(1), entry.getString(2),
+						entry.getInt(3), entry.getString(4), entry.getInt(5), entry.getString(6), entry.getInt(7),
+						entry.getInt(8));
+				break;
+			case RegistrationJournal.REMOVE_COURSE:
+				courseCatalog.removeCourseFromCatalog(entry.getString(0), entry.getString(1));
+				break;
+			case RegistrationJournal.ADD_STUDENT:
+				studentDirectory.addStudent(new Student(entry.getString(0), entry.getString(1), entry.getString(2),
+						entry.getString(3), entry.getString(4), entry.getInt(5)));
+				break;
+			case RegistrationJournal.REMOVE_STUDENT:
+				studentDirectory.removeStudent(entry.getString(0));
+				break;
+			case RegistrationJournal.ADD_FACULTY:
+				facultyDirectory.addFaculty(new Faculty(entry.getString(0), entry.getString(1), entry.getString(2),
+						entry.getString(3), entry.getString(4), entry.getInt(5)));
+				break;
+			case RegistrationJournal.REMOVE_FACULTY:
+				facultyDirectory.removeFaculty(entry.getString(0));
+				break;
+			default:
+				break;
+			}
+		} catch (IllegalArgumentException e) {
+			// the change failed when it was made as well
+		}
+	}
+
+	/**
+	 * Appends a change to the journal, if one is open, without waiting for it to
+	 * reach the disk.
+	 * 
+	 * @param type   the type of change
+	 * @param fields the fields of the change
+	 * @return the journal sequence number of the change, or 0 if no journal is
+	 *         open
+	 * @throws IllegalStateException if the journal cannot take the change, or an
+	 *                               earlier change could not be journaled
+	 */
+	private long appendToJournal(byte type, Object... fields) {
+		RegistrationJournal current = journal;
+		if (current == null) {
+			return 0;
+		}
+		checkNotFailed();
+		try {
+			return current.append(type, fields);
+		} catch (IllegalStateException e) {
+			throw fail(e);
+		}
+	}
+
+	/**
+	 * Waits for a change appended to the journal to reach the disk.
+	 * 
+	 * @param entry the sequence number returned by appendToJournal(), or 0 to
+	 *              not wait
+	 * @throws IllegalStateException if the change may not have reached the disk
+	 */
+	private void syncJournal(long entry) {
+		if (entry <= 0) {
+			return;
+		}
+		RegistrationJournal current = journal;
+		if (current != null) {
+			try {
+				current.sync(entry);
+			} catch (IllegalStateException e) {
+				throw fail(e);
+			}
+		}
+		// The journal the change went to may have been detached after failing to close
+		checkNotFailed();
+	}
+
+	/**
+	 * Marks the manager as failed after a change could not be journaled. The
+	 * journal may no longer hold every change made in memory, so from then on
+	 * every change that would be journaled is refused until clearData().
+	 * 
+	 * @param cause why the change could not be journaled
+	 * @return the exception to throw to the caller
+	 */
+	private IllegalStateException fail(Throwable cause) {
+		if (failure == null) {
+			failure = cause;
+		}
+		return new IllegalStateException("Unable to write journal", cause);
+	}
+
+	/**
+	 * Throws an exception if a change could not be journaled earlier.
+	 * 
+	 * @throws IllegalStateException if the manager has failed
+	 */
+	private void checkNotFailed() {
+		Throwable cause = failure;
+		if (cause != null) {
+			throw new IllegalStateException("Unable to write journal", cause);
+		}
+	}
+
 }
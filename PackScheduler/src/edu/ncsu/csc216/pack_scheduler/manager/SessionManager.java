@@ -0,0 +1,298 @@
+package edu.ncsu.csc216.pack_scheduler.manager;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import edu.ncsu.csc216.pack_scheduler.user.User;
+
+/**
+ * Keeps the sessions of every logged in user, so many users can be logged in
+ * to one RegistrationManager at once. Each session is named by an opaque
+ * random token, and its user is passed to the RegistrationManager methods that
+ * take the acting user.
+ *
+ * Sessions are kept in a concurrent table, so looking one up never waits on
+ * another session. A session that is not used for the idle time is ended.
+ * Sessions are filed on a timer wheel, a ring of slots each holding the
+ * sessions due to go idle during one tick, so ending idle sessions only looks
+ * at the slots that have come due. Using a session only records the time; a
+ * session found in a slot that was used since it was filed is moved to the
+ * slot of its new idle time. The wheel is turned by whichever call finds it
+ * behind, and a lookup that finds it busy does not wait for it.
+ *
+ * @author Anton Nikulsin
+ */
+public class SessionManager {
+
+	/** Time a session may go unused before it is ended, in milliseconds */
+	private static final long IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+	/** Time each slot of the wheel covers, in milliseconds */
+	private static final long TICK_MILLIS = 1000;
+	/** Number of random bits in a session token */
+	private static final int TOKEN_BITS = 128;
+
+	/** Sessions keyed by token */
+	private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<String, Session>();
+	/** Source of session tokens */
+	private final SecureRandom random = new SecureRandom();
+	/** Time a session may go unused, in nanoseconds */
+	private final long idleNanos;
+	/** Time each slot covers, in nanoseconds */
+	private final long tickNanos;
+	/** Time of tick 0, from now() */
+	private final long origin;
+	/** Sessions due to go idle during each tick, by tick modulo the number of slots */
+	private final List<Set<Session>> wheel;
+	/** Guards the wheel and each session's slot */
+	private final ReentrantLock wheelLock = new ReentrantLock();
+	/** Last tick whose slot was emptied */
+	private long tick;
+
+	/**
+	 * Creates a session manager that ends sessions unused for 30 minutes.
+	 */
+	public SessionManager() {
+		this(IDLE_MILLIS, TICK_MILLIS);
+	}
+
+	/**
+	 * Creates a session manager.
+	 *
+	 * @param idleMillis time a session may go unused before it is ended, in
+	 *                   milliseconds
+	 * @param tickMillis time each slot of the timer wheel covers, in
+	 *                   milliseconds, which is how late an idle session may be
+	 *                   ended
+	 * @throws IllegalArgumentException if either time is not positive or the
+	 *                                  tick is longer than the idle time
+	 */
+	public SessionManager(long idleMillis, long tickMillis) {
+		if (idleMillis <= 0 || tickMillis <= 0 || tickMillis > idleMillis) {
+			throw new IllegalArgumentException("Invalid session time.");
+		}
+		idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+		tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+		// a session is due at most idle ticks plus one ahead of the last tick
+		int slots = (int) (idleMillis / tickMillis) + 2;
+		wheel = new ArrayList<Set<Session>>(slots);
+		for (int i = 0; i < slots; i++) {
+			wheel.add(new HashSet<Session>());
+		}
+		origin = now();
+	}
+
+	/**
+	 * Starts a session for a user.
+	 *
+	 * @param user the logged in user
+	 * @return the session's token
+	 * @throws IllegalArgumentException if user is null
+	 */
+	public String open(User user) {
+		if (user == null) {
+			throw new IllegalArgumentException("Invalid user.");
+		}
+		long now = now();
+		Session session;
+		do {
+			session = new Session(new BigInteger(TOKEN_BITS, random).toString(16), user, now);
+		} while (sessions.putIfAbsent(session.token, session) != null);
+		wheelLock.lock();
+		try {
+			advance(now);
+			file(session, dueTick(session));
+		} finally {
+			wheelLock.unlock();
+		}
+		return session.token;
+	}
+
+	/**
+	 * Returns the user of a session and marks the session as used.
+	 *
+	 * @param token the session's token
+	 * @return the user, or null if there is no such session or it has gone idle
+	 */
+	public User getUser(String token) {
+		Session session = token == null ? null : sessions.get(token);
+		long now = now();
+		if (wheelLock.tryLock()) {
+			try {
+				advance(now);
+			} finally {
+				wheelLock.unlock();
+			}
+		}
+		if (session == null) {
+			return null;
+		}
+		if (now - session.used >= idleNanos) {
+			close(token);
+			return null;
+		}
+		session.used = now;
+		return session.user;
+	}
+
+	/**
+	 * Ends a session.
+	 *
+	 * @param token the session's token
+	 * @return true if the session was ended, or false if there was no such
+	 *         session
+	 */
+	public boolean close(String token) {
+		Session session = token == null ? null : sessions.remove(token);
+		if (session == null) {
+			return false;
+		}
+		wheelLock.lock();
+		try {
+			wheel.get(session.slot).remove(session);
+		} finally {
+			wheelLock.unlock();
+		}
+		return true;
+	}
+
+	/**
+	 * Ends every session.
+	 */
+	public void closeAll() {
+		wheelLock.lock();
+		try {
+			sessions.clear();
+			for (Set<Session> slot : wheel) {
+				slot.clear();
+			}
+		} finally {
+			wheelLock.unlock();
+		}
+	}
+
+	/**
+	 * Ends every session that has gone idle.
+	 *
+	 * @return the number of sessions ended
+	 */
+	public int expireIdleSessions() {
+		wheelLock.lock();
+		try {
+			return advance(now());
+		} finally {
+			wheelLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of sessions, after ending those that have gone idle.
+	 *
+	 * @return the number of sessions
+	 */
+	public int size() {
+		expireIdleSessions();
+		return sessions.size();
+	}
+
+	/**
+	 * Returns the current time. Tests in this package override it to move time
+	 * forward.
+	 *
+	 * @return the current time in nanoseconds, from an arbitrary origin
+	 */
+	long now() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Turns the wheel to the current tick, ending the sessions in each slot that
+	 * comes due and moving those used since they were filed. Called while
+	 * holding the wheel lock.
+	 *
+	 * @param now the current time
+	 * @return the number of sessions ended
+	 */
+	private int advance(long now) {
+		long current = (now - origin) / tickNanos;
+		// every slot is looked at once at most, however far the wheel is behind
+		long first = Math.max(tick + 1, current - wheel.size() + 1);
+		int ended = 0;
+		for (long t = first; t <= current; t++) {
+			int index = (int) (t % wheel.size());
+			Set<Session> due = wheel.set(index, new HashSet<Session>());
+			for (Session session : due) {
+				long dueTick = dueTick(session);
+				if (dueTick <= current) {
+					if (sessions.remove(session.token, session)) {
+						ended++;
+					}
+				} else {
+					file(session, dueTick);
+				}
+			}
+		}
+		tick = Math.max(tick, current);
+		return ended;
+	}
+
+	/**
+	 * Returns the first tick by whose start a session has gone idle.
+	 *
+	 * @param session the session
+	 * @return the tick
+	 */
+	private long dueTick(Session session) {
+		long idleAt = session.used + idleNanos - origin;
+		return (idleAt + tickNanos - 1) / tickNanos;
+	}
+
+	/**
+	 * Files a session in the slot of a tick. Called while holding the wheel
+	 * lock.
+	 *
+	 * @param session the session
+	 * @param dueTick the tick
+	 */
+	private void file(Session session, long dueTick) {
+		session.slot = (int) (dueTick % wheel.size());
+		wheel.get(session.slot).add(session);
+	}
+
+	/**
+	 * One user's session.
+	 *
+	 * @author Anton Nikulsin
+	 */
+	private static final class Session {
+
+		/** The session's token */
+		private final String token;
+		/** The logged in user */
+		private final User user;
+		/** Time the session was last used, from now() */
+		private volatile long used;
+		/** Slot of the wheel holding the session, guarded by the wheel lock */
+		private int slot;
+
+		/**
+		 * Creates a session.
+		 *
+		 * @param token the session's token
+		 * @param user  the logged in user
+		 * @param now   the current time
+		 */
+		Session(String token, User user, long now) {
+			this.token = token;
+			this.user = user;
+			this.used = now;
+		}
+	}
+}
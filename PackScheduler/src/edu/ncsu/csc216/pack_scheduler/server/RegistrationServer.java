@@ -0,0 +1,511 @@
+package edu.ncsu.csc216.pack_scheduler.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.ncsu.csc216.pack_scheduler.course.Course;
+import edu.ncsu.csc216.pack_scheduler.manager.AuthenticationPipeline;
+import edu.ncsu.csc216.pack_scheduler.manager.RegistrationManager;
+import edu.ncsu.csc216.pack_scheduler.user.Faculty;
+import edu.ncsu.csc216.pack_scheduler.user.Student;
+import edu.ncsu.csc216.pack_scheduler.user.User;
+
+/**
+ * Runs PackScheduler without the GUI as a local HTTP service that answers in
+ * JSON. Parameters are sent as a query string or a form encoded body, and every
+ * call after login passes the token it returned. The service supports:
+ * <ul>
+ * <li>POST /login with id and password, returning a session token, or 429 if
+ * too many attempts have been made</li>
+ * <li>POST /logout with token</li>
+ * <li>GET /catalog, listing every course and its open seats</li>
+ * <li>GET /schedule with token, listing the student's courses</li>
+ * <li>POST /enroll and POST /drop with token, name and section</li>
+ * <li>POST /reset with token, dropping every course on the schedule</li>
+ * </ul>
+ *
+ * Each logged in user gets their own session from the manager's SessionManager,
+ * which ends sessions left idle. Enrollment goes through the thread safe
+ * RegistrationManager methods that take the acting user, so many students can
+ * register at once. Requests run on virtual threads when the JVM supports them,
+ * and on a fixed pool of platform threads otherwise.
+ *
+ * @author Anton Nikulsin
+ */
+public class RegistrationServer {
+
+	/** Port used when none is given on the command line */
+	private static final int DEFAULT_PORT = 8080;
+	/** Number of platform threads per core used when virtual threads are unavailable */
+	private static final int THREADS_PER_CORE = 4;
+	/** Encoding used for requests and responses */
+	private static final String ENCODING = "UTF-8";
+
+	/** The manager that handles every request */
+	private RegistrationManager manager;
+	/** The underlying HTTP server, or null if not started */
+	private HttpServer server;
+	/** The executor that runs each request */
+	private ExecutorService executor;
+
+	/**
+	 * Creates a server for the given manager. The server does not accept
+	 * requests until it is started.
+	 *
+	 * @param manager the manager that handles every request
+	 * @throws IllegalArgumentException if manager is null
+	 */
+	public RegistrationServer(RegistrationManager manager) {
+		if (manager == null) {
+			throw new IllegalArgumentException("Invalid manager.");
+		}
+		this.manager = manager;
+	}
+
+	/**
+	 * Starts accepting requests on the loopback interface.
+	 *
+	 * @param port the port to listen on, or 0 to pick any free port
+	 * @throws IOException if the server cannot bind to the port
+	 */
+	public void start(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		executor = newRequestExecutor();
+		server.setExecutor(executor);
+		server.createContext("/", new RequestHandler());
+		server.start();
+	}
+
+	/**
+	 * Returns the port the server is listening on.
+	 *
+	 * @return the port
+	 * @throws IllegalStateException if the server has not been started
+	 */
+	public int getPort() {
+		if (server == null) {
+			throw new IllegalStateException("Server not started.");
+		}
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Stops accepting requests. Sessions belong to the manager, which may be
+	 * shared with other callers, so they are left to go idle or to be ended by
+	 * its clearData().
+	 */
+	public void stop() {
+		if (server != null) {
+			server.stop(0);
+			executor.shutdown();
+			server = null;
+		}
+	}
+
+	/**
+	 * Starts a server with the given data files. The arguments are, in order and
+	 * all optional: the port, the faculty records file, the student records file,
+	 * the course records file, and a journal file. Faculty are loaded first so
+	 * courses can be bound to their instructors, and legacy password hashes in the
+	 * records are converted where possible. The journal is replayed onto the
+	 * loaded data and then records every change made through the server.
+	 *
+	 * @param args the command line arguments
+	 * @throws IOException if the server cannot bind to the port
+	 */
+	public static void main(String[] args) throws IOException {
+		RegistrationManager manager = RegistrationManager.getInstance();
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		if (args.length > 1) {
+			manager.getFacultyDirectory().loadFacultyFromFile(args[1]);
+			manager.getFacultyDirectory().migratePasswords();
+		}
+		if (args.length > 2) {
+			manager.getStudentDirectory().loadStudentsFromFile(args[2]);
+			manager.getStudentDirectory().migratePasswords();
+		}
+		if (args.length > 3) {
+			manager.getCourseCatalog().loadCoursesFromFile(args[3]);
+		}
+		if (args.length > 4) {
+			manager.openJournal(args[4]);
+		}
+		RegistrationServer server = new RegistrationServer(manager);
+		server.start(port);
+		System.out.println("PackScheduler listening on port " + server.getPort());
+	}
+
+	/**
+	 * Creates the executor that runs requests. A thread per task executor of
+	 * virtual threads is used when the JVM provides one, so open connections do
+	 * not each hold a platform thread. It is looked up reflectively since the
+	 * project targets JVMs that predate virtual threads.
+	 *
+	 * @return the executor for requests
+	 */
+	private static ExecutorService newRequestExecutor() {
+		try {
+			Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) virtual.invoke(null);
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+			return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * THREADS_PER_CORE);
+		}
+	}
+
+	/**
+	 * Routes each request to the matching operation and writes its JSON response.
+	 *
+	 * @author Anton Nikulsin
+	 */
+	private class RequestHandler implements HttpHandler {
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			int status = 200;
+			String body;
+			try {
+				Map<String, String> params = readParams(exchange);
+				String path = exchange.getRequestURI().getPath();
+				boolean post = "POST".equals(exchange.getRequestMethod());
+				switch (path) {
+				case "/login":
+					body = post ? login(params) : null;
+					break;
+				case "/logout":
+					body = post ? logout(params) : null;
+					break;
+				case "/catalog":
+					body = post ? null : catalog();
+					break;
+				case "/schedule":
+					body = post ? null : schedule(params);
+					break;
+				case "/enroll":
+					body = post ? enroll(params) : null;
+					break;
+				case "/drop":
+					body = post ? drop(params) : null;
+					break;
+				case "/reset":
+					body = post ? reset(params) : null;
+					break;
+				default:
+					throw new RequestException(404, "Not found.");
+				}
+				if (body == null) {
+					throw new RequestException(405, "Method not allowed.");
+				}
+			} catch (RequestException e) {
+				status = e.status;
+				body = error(e.getMessage());
+			} catch (IllegalArgumentException e) {
+				status = 400;
+				body = error(e.getMessage());
+			} catch (IOException e) {
+				// the request body could not be read
+				status = 400;
+				body = error("Unable to read request.");
+			} catch (RuntimeException e) {
+				status = 500;
+				body = error("Internal error.");
+			}
+
+			try {
+				byte[] bytes = body.getBytes(ENCODING);
+				exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+				exchange.sendResponseHeaders(status, bytes.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(bytes);
+				out.close();
+			} finally {
+				exchange.close();
+			}
+		}
+	}
+
+	/**
+	 * Logs a user in and starts a session for them.
+	 *
+	 * @param params the request parameters
+	 * @return the response body
+	 * @throws RequestException if the id or password is wrong, or too many
+	 *                          attempts have been made
+	 */
+	private String login(Map<String, String> params) throws RequestException {
+		String id = required(params, "id");
+		AuthenticationPipeline.Outcome outcome = manager.getAuthentication().authenticate(id,
+				required(params, "password"));
+		if (outcome.getResult() == AuthenticationPipeline.THROTTLED) {
+			throw new RequestException(429, "Too many login attempts.");
+		}
+		User user = outcome.getUser();
+		if (user == null) {
+			throw new RequestException(401, "Invalid id or password.");
+		}
+		String token = manager.getSessions().open(user);
+		String type = user instanceof Student ? "student" : user instanceof Faculty ? "faculty" : "registrar";
+		return "{\"token\":" + quote(token) + ",\"id\":" + quote(user.getId()) + ",\"type\":" + quote(type) + "}";
+	}
+
+	/**
+	 * Ends a session.
+	 *
+	 * @param params the request parameters
+	 * @return the response body
+	 * @throws RequestException if the token is missing
+	 */
+	private String logout(Map<String, String> params) throws RequestException {
+		boolean ended = manager.getSessions().close(required(params, "token"));
+		return "{\"loggedOut\":" + ended + "}";
+	}
+
+	/**
+	 * Lists every course in the catalog.
+	 *
+	 * @return the response body
+	 */
+	private String catalog() {
+		return "{\"courses\":" + courses(manager.getCourseCatalog().getCourseCatalog()) + "}";
+	}
+
+	/**
+	 * Lists the courses on the session student's schedule.
+	 *
+	 * @param params the request parameters
+	 * @return the response body
+	 * @throws RequestException if the session is missing or not a student's
+	 */
+	private String schedule(Map<String, String> params) throws RequestException {
+		Student s = student(params);
+		return "{\"courses\":" + courses(s.getSchedule().getScheduledCourses()) + "}";
+	}
+
+	/**
+	 * Enrolls the session student in a course.
+	 *
+	 * @param params the request parameters
+	 * @return the response body
+	 * @throws RequestException if the session or course is missing
+	 */
+	private String enroll(Map<String, String> params) throws RequestException {
+		Student s = student(params);
+		boolean enrolled = manager.enrollStudentInCourse(s, course(params));
+		return "{\"enrolled\":" + enrolled + "}";
+	}
+
+	/**
+	 * Drops the session student from a course.
+	 *
+	 * @param params the request parameters
+	 * @return the response body
+	 * @throws RequestException if the session or course is missing
+	 */
+	private String drop(Map<String, String> params) throws RequestException {
+		Student s = student(params);
+		boolean dropped = manager.dropStudentFromCourse(s, course(params));
+		return "{\"dropped\":" + dropped + "}";
+	}
+
+	/**
+	 * Drops the session student from every course on their schedule.
+	 *
+	 * @param params the request parameters
+	 * @return the response body
+	 * @throws RequestException if the session is missing or not a student's
+	 */
+	private String reset(Map<String, String> params) throws RequestException {
+		manager.resetSchedule(student(params));
+		return "{\"reset\":true}";
+	}
+
+	/**
+	 * Returns the student logged in to the request's session.
+	 *
+	 * @param params the request parameters
+	 * @return the session's student
+	 * @throws RequestException if there is no such session or its user is not a
+	 *                          student
+	 */
+	private Student student(Map<String, String> params) throws RequestException {
+		User user = manager.getSessions().getUser(required(params, "token"));
+		if (user == null) {
+			throw new RequestException(401, "Not logged in.");
+		}
+		if (!(user instanceof Student)) {
+			throw new RequestException(403, "Illegal Action");
+		}
+		return (Student) user;
+	}
+
+	/**
+	 * Returns the catalog course named by the request.
+	 *
+	 * @param params the request parameters
+	 * @return the course
+	 * @throws RequestException if the course is not in the catalog
+	 */
+	private Course course(Map<String, String> params) throws RequestException {
+		Course c = manager.getCourseCatalog().getCourseFromCatalog(required(params, "name"), required(params, "section"));
+		if (c == null) {
+			throw new RequestException(404, "Course not found.");
+		}
+		return c;
+	}
+
+	/**
+	 * Returns a required request parameter.
+	 *
+	 * @param params the request parameters
+	 * @param name   the parameter's name
+	 * @return the parameter's value
+	 * @throws RequestException if the parameter is missing
+	 */
+	private static String required(Map<String, String> params, String name) throws RequestException {
+		String value = params.get(name);
+		if (value == null) {
+			throw new RequestException(400, "Missing " + name + ".");
+		}
+		return value;
+	}
+
+	/**
+	 * Reads the parameters of a request from its query string and, for a POST,
+	 * its form encoded body.
+	 *
+	 * @param exchange the request
+	 * @return the parameters by name
+	 * @throws IOException if the body cannot be read
+	 */
+	private static Map<String, String> readParams(HttpExchange exchange) throws IOException {
+		Map<String, String> params = new HashMap<String, String>();
+		parseParams(exchange.getRequestURI().getRawQuery(), params);
+		if ("POST".equals(exchange.getRequestMethod())) {
+			InputStream in = exchange.getRequestBody();
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			byte[] buffer = new byte[1024];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				body.write(buffer, 0, read);
+			}
+			in.close();
+			parseParams(body.toString(ENCODING), params);
+		}
+		return params;
+	}
+
+	/**
+	 * Adds the parameters in a form encoded string to the given map.
+	 *
+	 * @param encoded the form encoded parameters, or null if there are none
+	 * @param params  the map to add them to
+	 * @throws UnsupportedEncodingException if UTF-8 is unsupported
+	 */
+	private static void parseParams(String encoded, Map<String, String> params) throws UnsupportedEncodingException {
+		if (encoded == null || encoded.isEmpty()) {
+			return;
+		}
+		for (String pair : encoded.split("&")) {
+			int eq = pair.indexOf('=');
+			if (eq > 0) {
+				params.put(URLDecoder.decode(pair.substring(0, eq), ENCODING), URLDecoder.decode(pair.substring(eq + 1), ENCODING));
+			}
+		}
+	}
+
+	/**
+	 * Formats display rows from Course.getShortDisplayArray() as a JSON array of
+	 * objects.
+	 *
+	 * @param rows the display rows
+	 * @return the JSON array
+	 */
+	private static String courses(String[][] rows) {
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < rows.length; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("{\"name\":").append(quote(rows[i][0]));
+			json.append(",\"section\":").append(quote(rows[i][1]));
+			json.append(",\"title\":").append(quote(rows[i][2]));
+			json.append(",\"meeting\":").append(quote(rows[i][3]));
+			json.append(",\"openSeats\":").append(rows[i][4]).append('}');
+		}
+		return json.append(']').toString();
+	}
+
+	/**
+	 * Formats an error message as a JSON object.
+	 *
+	 * @param message the message
+	 * @return the JSON object
+	 */
+	private static String error(String message) {
+		return "{\"error\":" + quote(message == null ? "Invalid request." : message) + "}";
+	}
+
+	/**
+	 * Quotes and escapes a string as a JSON string.
+	 *
+	 * @param value the string to quote
+	 * @return the JSON string, or the JSON null literal if value is null
+	 */
+	private static String quote(String value) {
+		if (value == null) {
+			return "null";
+		}
+		StringBuilder json = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			} else if (c < ' ') {
+				json.append(String.format("\\u%04x", (int) c));
+			} else {
+				json.append(c);
+			}
+		}
+		return json.append('"').toString();
+	}
+
+	/**
+	 * Signals that a request cannot be completed, with the HTTP status to answer
+	 * it with.
+	 *
+	 * @author Anton Nikulsin
+	 */
+	private static class RequestException extends Exception {
+
+		/** ID used for serialization. */
+		private static final long serialVersionUID = 1L;
+		/** The HTTP status for the response */
+		private final int status;
+
+		/**
+		 * Creates an exception with the given status and message.
+		 *
+		 * @param status  the HTTP status for the response
+		 * @param message the message for the response
+		 */
+		public RequestException(int status, String message) {
+			super(message);
+			this.status = status;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package edu.ncsu.csc216.pack_scheduler.user;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashes passwords for every kind of User. A password is hashed with SHA-256
+ * over its UTF-8 bytes and stored as 64 lowercase hex digits, which can be
+ * written to and read from the record files safely. Each thread keeps its own
+ * MessageDigest, so hashing never looks up the algorithm or waits on another
+ * thread.
+ *
+ * Older records hold the raw digest bytes decoded as a String in the platform's
+ * default charset. Those legacy hashes still match their passwords. migrate()
+ * converts one to hex when the digest bytes can be recovered exactly, and
+ * otherwise it stays until the user next logs in and can be hashed again.
+ *
+ * @author Anton Nikulsin
+ */
+public final class PasswordHasher {
+
+	/** Hashing algorithm */
+	private static final String HASH_ALGORITHM = "SHA-256";
+	/** Length of a digest in bytes */
+	private static final int DIGEST_BYTES = 32;
+	/** Character a charset decodes bytes it cannot map to */
+	private static final char REPLACEMENT = '\ufffd';
+	/** Hex digits, in order */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/** The digest of each thread */
+	private static final ThreadLocal<MessageDigest> DIGEST = new ThreadLocal<MessageDigest>() {
+		@Override
+		protected MessageDigest initialValue() {
+			try {
+				return MessageDigest.getInstance(HASH_ALGORITHM);
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalArgumentException("Cannot hash password");
+			}
+		}
+	};
+
+	/**
+	 * The hasher only has static methods.
+	 */
+	private PasswordHasher() {
+		// not used
+	}
+
+	/**
+	 * Hashes a password.
+	 *
+	 * @param password the password
+	 * @return the hash as 64 lowercase hex digits
+	 * @throws IllegalArgumentException if the password is null or empty, or the
+	 *                                  algorithm is not available
+	 */
+	public static String hash(String password) {
+		if (password == null || password.isEmpty()) {
+			throw new IllegalArgumentException("Invalid password");
+		}
+		return toHex(DIGEST.get().digest(password.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Returns true if a password matches a stored hash, which may be a legacy
+	 * hash.
+	 *
+	 * @param password the password
+	 * @param stored   the stored hash
+	 * @return true if the password matches
+	 */
+	public static boolean matches(String password, String stored) {
+		if (password == null || password.isEmpty() || stored == null) {
+			return false;
+		}
+		if (isLegacy(stored)) {
+			return legacyHash(password).equals(stored);
+		}
+		if (sameDigits(hash(password), stored)) {
+			return true;
+		}
+		// A migrated legacy hash was taken over the password's bytes in the default
+		// charset, which differ from UTF-8 only for passwords that are not ASCII
+		Charset charset = Charset.defaultCharset();
+		return !charset.equals(StandardCharsets.UTF_8) && !isAscii(password)
+				&& sameDigits(toHex(DIGEST.get().digest(password.getBytes(charset))), stored);
+	}
+
+	/**
+	 * Returns true if a stored hash is in the legacy form rather than hex.
+	 *
+	 * @param stored the stored hash
+	 * @return true if the hash is not 64 lowercase hex digits
+	 */
+	public static boolean isLegacy(String stored) {
+		if (stored.length() != DIGEST_BYTES * 2) {
+			return true;
+		}
+		for (int i = 0; i < stored.length(); i++) {
+			char c = stored.charAt(i);
+			if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Converts a legacy hash to hex if the digest bytes it was decoded from can
+	 * be recovered exactly. A digest whose bytes the default charset could not
+	 * decode was stored with replacement characters and cannot be recovered.
+	 *
+	 * @param stored the stored hash
+	 * @return the hex hash, or the stored hash unchanged if it is already hex or
+	 *         cannot be converted
+	 */
+	public static String migrate(String stored) {
+		if (!isLegacy(stored) || stored.indexOf(REPLACEMENT) >= 0) {
+			return stored;
+		}
+		Charset charset = Charset.defaultCharset();
+		byte[] digest = stored.getBytes(charset);
+		if (digest.length != DIGEST_BYTES || !new String(digest, charset).equals(stored)) {
+			return stored;
+		}
+		return toHex(digest);
+	}
+
+	/**
+	 * Hashes a password the way older records were hashed.
+	 *
+	 * @param password the password
+	 * @return the legacy hash
+	 */
+	static String legacyHash(String password) {
+		return new String(DIGEST.get().digest(password.getBytes()));
+	}
+
+	/**
+	 * Compares two hex hashes of the same length, looking at every digit so the
+	 * time taken does not reveal where they first differ.
+	 *
+	 * @param hashed the hash of the password being checked
+	 * @param stored the stored hash
+	 * @return true if the hashes are the same
+	 */
+	private static boolean sameDigits(String hashed, String stored) {
+		int difference = 0;
+		for (int i = 0; i < hashed.length(); i++) {
+			difference |= hashed.charAt(i) ^ stored.charAt(i);
+		}
+		return difference == 0;
+	}
+
+	/**
+	 * Returns true if every character of a string is ASCII.
+	 *
+	 * @param value the string
+	 * @return true if the string is ASCII
+	 */
+	private static boolean isAscii(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) > 0x7f) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Encodes bytes as lowercase hex digits.
+	 *
+	 * @param bytes the bytes
+	 * @return the hex digits
+	 */
+	private static String toHex(byte[] bytes) {
+		char[] hex = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+			hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+		}
+		return new String(hex);
+	}
+}
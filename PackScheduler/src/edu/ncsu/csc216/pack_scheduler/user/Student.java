@@ -165,10 +165,11 @@ public class Student extends User implements Comparable<Student> {
 	 * or the student has too many credits to add the course, true otherwise.
 	 */
 	public boolean canAdd(Course c) {
-		if (!schedule.canAdd(c)) {
+		// The credit total is kept by the schedule, so only the conflict check looks at every course
+		if (c == null || schedule.getScheduleCredits() + c.getCredits() > maxCredits) {
 			return false;
 		}
-		return schedule.getScheduleCredits() + c.getCredits() <= maxCredits;
+		return schedule.canAdd(c);
 	}
 	
 }
@@ -1,6 +1,5 @@
 package edu.ncsu.csc216.pack_scheduler.user.schedule;
 
-import edu.ncsu.csc216.pack_scheduler.course.ConflictException;
 import edu.ncsu.csc216.pack_scheduler.course.Course;
 import edu.ncsu.csc216.pack_scheduler.util.LinkedListRecursive;
 
@@ -31,12 +30,11 @@ public class FacultySchedule {
 	 */
 	public boolean addCourseToSchedule(Course course) {
 		for (int i = 0; i < schedule.size(); i++) {
-			if (schedule.get(i).isDuplicate(course)) {
+			Course scheduled = schedule.get(i);
+			if (scheduled.hasSameName(course)) {
 				throw new IllegalArgumentException("Already assigned " + course.getName());
 			}
-			try {
-				schedule.get(i).checkConflict(course);
-			} catch (ConflictException e) {
+			if (scheduled.conflictsWith(course)) {
 				throw new IllegalArgumentException("The course cannot be assigned due to a conflict.");
 			}
 		}
@@ -1,6 +1,8 @@
 package edu.ncsu.csc216.pack_scheduler.user.schedule;
 
-import edu.ncsu.csc216.pack_scheduler.course.ConflictException;
+import java.util.HashMap;
+import java.util.Map;
+
 import edu.ncsu.csc216.pack_scheduler.course.Course;
 import edu.ncsu.csc216.pack_scheduler.util.ArrayList;
 
@@ -9,6 +11,13 @@ import edu.ncsu.csc216.pack_scheduler.util.ArrayList;
  * functionality for adding or removing a Course, resetting the Schedule, getting a formatted 2D String Array containing scheduled Course
  * information, as well as getting and setting the value of the Schedule's title
  * 
+ * Every method synchronizes on the Schedule, so a caller that needs to check and then add a Course without another
+ * thread changing the Schedule in between can hold the Schedule's lock around both calls
+ * 
+ * The Schedule keeps its credit total and the credits of each Course by name as Courses are added and removed, so the
+ * credit total and whether a Course name is scheduled are answered without looking at every Course.  A Course counts
+ * the credits it had when it was added
+ * 
  * @author Ethan Mancini
  * @version 3/3/2020
  */
@@ -18,6 +27,10 @@ public class Schedule {
 	private ArrayList<Course> schedule;
 	/** The title of the Schedule */
 	private String title;
+	/** The credits of each Course in the Schedule, keyed by Course name */
+	private Map<String, Integer> creditsByName;
+	/** The total credits of the Courses in the Schedule */
+	private int credits;
 	/** The default title to be applied to a Schedule whose title was not specified or was reset */
 	private static final String DEFAULT_TITLE = "My Schedule";
 	
@@ -27,6 +40,7 @@ public class Schedule {
 	public Schedule() {
 		this.schedule = new ArrayList<Course>();
 		this.title = DEFAULT_TITLE;
+		this.creditsByName = new HashMap<String, Integer>();
 	}
 	
 	/**
@@ -38,25 +52,21 @@ public class Schedule {
 	 * 					  Schedule
 	 * @return boolean true if the Course is successfully added to the Schedule
 	 */
-	public boolean addCourseToSchedule(Course courseToAdd) {
+	public synchronized boolean addCourseToSchedule(Course courseToAdd) {
+		if (this.creditsByName.containsKey(courseToAdd.getName())) {
+			throw new IllegalArgumentException("You are already enrolled in " + courseToAdd.getName());
+		}
+		
 		for (int i = 0; i < this.schedule.size(); i++) {
-			Course c = this.schedule.get(i);
-			
-			if (courseToAdd.getName().equals(c.getName())) {
-				throw new IllegalArgumentException("You are already enrolled in " + c.getName());
-			}
-			
-			try {
-				courseToAdd.checkConflict(c);
-			}
-			catch (ConflictException e) {
+			if (courseToAdd.conflictsWith(this.schedule.get(i))) {
 				throw new IllegalArgumentException("The course cannot be added due to a conflict.");
 			}
-			
 		}
 		
 		// Double check correct index
 		this.schedule.add(schedule.size(), courseToAdd);
+		this.creditsByName.put(courseToAdd.getName(), courseToAdd.getCredits());
+		this.credits += courseToAdd.getCredits();
 		return true;
 	}
 	
@@ -68,8 +78,8 @@ public class Schedule {
 	 * @param courseToRemove the Course to try to remove from the Schedule
 	 * @return boolean true if the Course specified is found in and removed from the Schedule, false otherwise
 	 */
-	public boolean removeCourseFromSchedule(Course courseToRemove) {
-		if (courseToRemove == null) {
+	public synchronized boolean removeCourseFromSchedule(Course courseToRemove) {
+		if (courseToRemove == null || !this.creditsByName.containsKey(courseToRemove.getName())) {
 			return false;
 		}
 		
@@ -78,6 +88,7 @@ public class Schedule {
 			
 			if (courseToRemove.equals(c)) {
 				this.schedule.remove(i);
+				this.credits -= this.creditsByName.remove(c.getName());
 				return true;
 			}
 			
@@ -89,9 +100,11 @@ public class Schedule {
 	/**
 	 * A method which simply resets the schedule and title fields to their initial values.=
 	 */
-	public void resetSchedule() {
+	public synchronized void resetSchedule() {
 		this.schedule = new ArrayList<Course>();
 		this.title = DEFAULT_TITLE;
+		this.creditsByName = new HashMap<String, Integer>();
+		this.credits = 0;
 	}
 	
 	/**
@@ -105,7 +118,7 @@ public class Schedule {
 	 * 
 	 * @return String[][] a 2D String Array formatted to contain the name, section, title and meeting string of all Courses in the Schedule
 	 */
-	public String[][] getScheduledCourses() {
+	public synchronized String[][] getScheduledCourses() {
 		String[][] scheduledCoursesArray = new String[this.schedule.size()][5];
 		
 		for (int i = 0; i < this.schedule.size(); i++) {
@@ -117,16 +130,11 @@ public class Schedule {
 	}
 	
 	/**
-	 * Calculates the total number of credits the schedule has among all courses.
+	 * Returns the total number of credits the schedule has among all courses.
 	 * @return the total number of credits.
 	 */
-	public int getScheduleCredits() {
-		int totalCredits = 0;
-		for (int i = 0; i < this.schedule.size(); i++) {
-			Course c = this.schedule.get(i);
-			totalCredits += c.getCredits();
-		}
-		return totalCredits;
+	public synchronized int getScheduleCredits() {
+		return this.credits;
 	}
 
 	/**
@@ -134,30 +142,31 @@ public class Schedule {
 	 * @param course the course to check.
 	 * @return false if the course is null, already in the schedule, or conflicts with a course in the schedule, true otherwise.
 	 */
-	public boolean canAdd(Course course) {
-		if (course == null) return false;
+	public synchronized boolean canAdd(Course course) {
+		if (course == null || this.creditsByName.containsKey(course.getName())) return false;
 		for (int i = 0; i < this.schedule.size(); i++) {
-			Course c = this.schedule.get(i);
-			try {
-				course.isDuplicate(c);
-			} catch (IllegalArgumentException e) {
-				return false;
-			}
-			try {
-				course.checkConflict(c);
-			} catch (ConflictException e) {
+			if (course.conflictsWith(this.schedule.get(i))) {
 				return false;
 			}
 		}
 		return true;
 	}
 	
+	/**
+	 * Checks whether the schedule has a course with the given name, in any section.
+	 * @param name the name of the course.
+	 * @return true if a course with the name is in the schedule, false otherwise.
+	 */
+	public synchronized boolean hasCourseNamed(String name) {
+		return this.creditsByName.containsKey(name);
+	}
+	
 	/**
 	 * A standard setter method which sets the value of the Schedules's title field to the value passed to the title parameter
 	 * 
 	 * @param title the title to set
 	 */
-	public void setTitle(String title) {
+	public synchronized void setTitle(String title) {
 		if(title == null) {
 			throw new IllegalArgumentException("Title cannot be null.");
 		}
@@ -169,7 +178,7 @@ public class Schedule {
 	 * 
 	 * @return String the title of the Schedule
 	 */
-	public String getTitle() {
+	public synchronized String getTitle() {
 		return this.title;
 	}
 	
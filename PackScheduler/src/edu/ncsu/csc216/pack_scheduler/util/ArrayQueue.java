@@ -6,7 +6,10 @@ package edu.ncsu.csc216.pack_scheduler.util;
 import java.util.NoSuchElementException;
 
 /**
- * ArrayQueue class
+ * ArrayQueue class. Elements are held in a circular array, with head pointing
+ * at the front of the queue and wrapping around to the start of the array, so
+ * both enqueue and dequeue take constant time. The array starts small and
+ * doubles as needed, up to the capacity.
  * 
  * @author Anton
  * 
@@ -14,8 +17,17 @@ import java.util.NoSuchElementException;
  */
 public class ArrayQueue<E> implements Queue<E> {
 
-	/** Queue list */
-	private ArrayList<E> list;
+	/** Initial length of the array, unless the capacity is smaller */
+	private static final int INITIAL_LENGTH = 10;
+
+	/** Queue elements, starting at head and wrapping around the end */
+	private E[] elements;
+	
+	/** Index of the front of the queue */
+	private int head;
+	
+	/** Number of elements in the queue */
+	private int size;
 	
 	/** ArrayQueue capacity */
 	private int capacity;
@@ -25,9 +37,14 @@ public class ArrayQueue<E> implements Queue<E> {
 	 * Constructor for this class
 	 * 
 	 * @param capacity the queue capacity to be set
+	 * @throws IllegalArgumentException if the capacity is negative
 	 */
+	@SuppressWarnings("unchecked")
 	public ArrayQueue(int capacity) {
-		list = new ArrayList<E>(capacity);
+		if (capacity < 0) {
+			throw new IllegalArgumentException();
+		}
+		elements = (E[]) new Object[Math.min(capacity, INITIAL_LENGTH)];
 		this.capacity = capacity;
 	}
 
@@ -36,13 +53,21 @@ public class ArrayQueue<E> implements Queue<E> {
 	 * 
 	 * @param element element to be added to the back of queue
 	 * @throws IllegalArgumentException if the queue is already full
+	 * @throws NullPointerException if the element is null
 	 */
 	@Override
 	public void enqueue(E element) {
-		if(list.size() == capacity) {
+		if(size == capacity) {
 			throw new IllegalArgumentException();
 		}
-		list.add(list.size(), element);
+		if(element == null) {
+			throw new NullPointerException();
+		}
+		if(size == elements.length) {
+			grow();
+		}
+		elements[(head + size) % elements.length] = element;
+		size++;
 	}
 
 	/**
@@ -53,10 +78,14 @@ public class ArrayQueue<E> implements Queue<E> {
 	 */
 	@Override
 	public E dequeue() {
-		if(list.size() == 0) {
+		if(size == 0) {
 			throw new NoSuchElementException();
 		}
-		return list.remove(0);
+		E element = elements[head];
+		elements[head] = null;
+		head = (head + 1) % elements.length;
+		size--;
+		return element;
 	}
 
 	/**
@@ -66,10 +95,7 @@ public class ArrayQueue<E> implements Queue<E> {
 	 */
 	@Override
 	public boolean isEmpty() {
-		if(list.size() == 0) {
-			return true;
-		}
-		return false;
+		return size == 0;
 	}
 
 	/**
@@ -84,7 +110,7 @@ public class ArrayQueue<E> implements Queue<E> {
 		if(capacity < 0) {
 			throw new IllegalArgumentException();
 		}
-		if(list != null && capacity < list.size()) {
+		if(capacity < size) {
 			throw new IllegalArgumentException();
 		}
 		this.capacity = capacity;
@@ -97,7 +123,22 @@ public class ArrayQueue<E> implements Queue<E> {
 	 */
 	@Override
 	public int size() {
-		return list.size();
+		return size;
+	}
+
+	/**
+	 * Doubles the length of the array, without going past the capacity, and
+	 * moves the front of the queue to the start of the new array.
+	 */
+	@SuppressWarnings("unchecked")
+	private void grow() {
+		int length = (int) Math.min(capacity, Math.max(1L, elements.length * 2L));
+		E[] grown = (E[]) new Object[length];
+		for (int i = 0; i < size; i++) {
+			grown[i] = elements[(head + i) % elements.length];
+		}
+		elements = grown;
+		head = 0;
 	}
 
 }
@@ -152,11 +152,18 @@ public class LinkedList<E> extends AbstractSequentialList<E> {
 				throw new IndexOutOfBoundsException();
 			}
 			
-			next = front;
-			for (int i = 0; i < index; i++) {
-				next = next.next;
+			// Walk in from whichever end of the list is closer to index
+			if (index <= size / 2) {
+				next = front.next;
+				for (int i = 0; i < index; i++) {
+					next = next.next;
+				}
+			} else {
+				next = back;
+				for (int i = size; i > index; i--) {
+					next = next.prev;
+				}
 			}
-			next = next.next;
 			previous = next.prev;
 			previousIndex = index - 1;
 			nextIndex = index;
@@ -216,7 +223,8 @@ public class LinkedList<E> extends AbstractSequentialList<E> {
 		/**
 		 * {@inheritDoc}
 		 * <br><br>
-		 * This implementation also decrements size
+		 * This implementation also decrements size, and may only be called once after each call to next() or
+		 * previous()
 		 * 
 		 * @throws IllegalStateException if lastRetrieved contains a null reference
 		 */
@@ -228,7 +236,16 @@ public class LinkedList<E> extends AbstractSequentialList<E> {
 			
 			lastRetrieved.prev.next = lastRetrieved.next;
 			lastRetrieved.next.prev = lastRetrieved.prev;
+			// Step past the removed node so the iterator stays between two nodes in the list
+			if (lastRetrieved == previous) {
+				previous = lastRetrieved.prev;
+				previousIndex--;
+				nextIndex--;
+			} else {
+				next = lastRetrieved.next;
+			}
 			size--;
+			lastRetrieved = null;
 		}
 		
 		/**
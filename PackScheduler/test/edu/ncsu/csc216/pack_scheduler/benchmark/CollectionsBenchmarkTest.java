@@ -0,0 +1,96 @@
+package edu.ncsu.csc216.pack_scheduler.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the CollectionsBenchmark class
+ *
+ * @author Anton Nikulsin
+ */
+public class CollectionsBenchmarkTest {
+
+	/** History file written by the tests */
+	private static final File HISTORY = new File("test-files/benchmark_history.csv");
+
+	/**
+	 * Deletes the history file.
+	 */
+	@After
+	public void tearDown() {
+		HISTORY.delete();
+	}
+
+	/**
+	 * Tests that every collection is benchmarked at every size and that results
+	 * are tracked in the history file.
+	 *
+	 * @throws IOException if the history file cannot be read or written
+	 */
+	@Test
+	public void testRunAndRecord() throws IOException {
+		CollectionsBenchmark benchmark = new CollectionsBenchmark();
+		benchmark.setOption("sizes", "10,100");
+		benchmark.setOption("warmups", "1");
+		benchmark.setOption("iterations", "1");
+		benchmark.setOption("history", HISTORY.getPath());
+		benchmark.setOption("label", "first");
+		Map<String, Double> results = benchmark.run();
+		assertTrue(results.containsKey("ArrayList.add/10"));
+		assertTrue(results.containsKey("LinkedAbstractList.removeLast/100"));
+		assertTrue(results.containsKey("LinkedListRecursive.get/100"));
+		assertTrue(results.containsKey("ArrayQueue.dequeue/100"));
+		assertTrue(results.containsKey("LinkedStack.pop/10"));
+		for (double nsPerOp : results.values()) {
+			assertTrue(nsPerOp > 0);
+		}
+
+		assertTrue(benchmark.record(results).isEmpty());
+		List<String> lines = Files.readAllLines(HISTORY.toPath(), StandardCharsets.UTF_8);
+		assertEquals("time,label,benchmark,size,nsPerOp", lines.get(0));
+		assertEquals(results.size() + 1, lines.size());
+		assertTrue(lines.get(1).contains(",first,ArrayList.add,10,"));
+
+		// Doubling every result is well past the default 25% threshold
+		for (Map.Entry<String, Double> e : results.entrySet()) {
+			e.setValue(e.getValue() * 2 + 1);
+		}
+		benchmark.setOption("label", "second");
+		List<String> regressions = benchmark.record(results);
+		assertEquals(results.size(), regressions.size());
+		assertTrue(regressions.get(0).startsWith("ArrayList.add/10: "));
+		assertEquals(2 * results.size() + 1, Files.readAllLines(HISTORY.toPath(),
+				StandardCharsets.UTF_8).size());
+	}
+
+	/**
+	 * Tests that invalid options are rejected.
+	 */
+	@Test
+	public void testSetOptionInvalid() {
+		CollectionsBenchmark benchmark = new CollectionsBenchmark();
+		try {
+			benchmark.setOption("sizes", "10,-1");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("sizes must be positive", e.getMessage());
+		}
+		try {
+			benchmark.setOption("label", "a,b");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("label cannot contain a comma", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package edu.ncsu.csc216.pack_scheduler.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.ncsu.csc216.pack_scheduler.manager.RegistrationManager;
+
+/**
+ * Tests the RegistrationBenchmark class with a small registration rush
+ *
+ * @author Anton Nikulsin
+ */
+public class RegistrationBenchmarkTest {
+
+	/** Directory the benchmark writes its data files to, deleted after each test */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Clears the data the benchmark loaded.
+	 */
+	@After
+	public void tearDown() {
+		RegistrationManager.getInstance().clearData();
+	}
+
+	/**
+	 * Tests that a small run sends every request and leaves the rolls, waitlists
+	 * and schedules consistent.
+	 *
+	 * @throws Exception if the benchmark fails to run
+	 */
+	@Test
+	public void testRun() throws Exception {
+		RegistrationBenchmark benchmark = new RegistrationBenchmark();
+		benchmark.setOption("courses", "60");
+		benchmark.setOption("students", "300");
+		benchmark.setOption("faculty", "20");
+		benchmark.setOption("threads", "4");
+		benchmark.setOption("ops", "2000");
+		benchmark.setOption("dir", folder.getRoot().getPath());
+		RegistrationBenchmark.Report report = benchmark.run(RegistrationManager.getInstance());
+		assertEquals(8000, report.getOperations());
+		assertEquals(0, report.getViolations());
+		assertTrue(report.toString().contains("Invariants:  OK"));
+		assertEquals(60, RegistrationManager.getInstance().getCourseCatalog().getCourseCatalog().length);
+	}
+
+	/**
+	 * Tests that invalid options are rejected.
+	 */
+	@Test
+	public void testSetOptionInvalid() {
+		RegistrationBenchmark benchmark = new RegistrationBenchmark();
+		try {
+			benchmark.setOption("threads", "0");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("threads must be positive", e.getMessage());
+		}
+		try {
+			benchmark.setOption("speed", "1");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unknown option speed", e.getMessage());
+		}
+	}
+}
@@ -8,11 +8,15 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.io.IOException;
 import java.util.Scanner;
+import java.util.Set;
 
+import org.junit.After;
 import org.junit.Test;
 
 import edu.ncsu.csc216.collections.list.SortedList;
 import edu.ncsu.csc216.pack_scheduler.course.Course;
+import edu.ncsu.csc216.pack_scheduler.directory.FacultyDirectory;
+import edu.ncsu.csc216.pack_scheduler.user.schedule.Schedule;
 
 /**
  * Test the CourseCatalog
@@ -45,6 +49,16 @@ public class CourseCatalogTest {
 	private static final String VALID_FILE = "test-files/actual_course_records.txt";
 	/** Invalid File Name */
 	private static final String INVALID_FILE = "test-files/actual_course.txt";
+	/** Binary catalog written by the tests */
+	private static final String BINARY_FILE = "test-files/actual_course_catalog.bin";
+
+	/**
+	 * Deletes the binary catalog written by the tests.
+	 */
+	@After
+	public void tearDown() {
+		new File(BINARY_FILE).delete();
+	}
 
 	/**
 	 * Test method for CourseCatalog.
@@ -82,6 +96,62 @@ public class CourseCatalogTest {
 		} catch (IllegalArgumentException e) {
 			fail();
 		}
+		String[][] loaded = catalog.getCourseCatalog();
+		for (int i = 0; i < loaded.length; i++) {
+			assertEquals(loaded[i][0], catalog.getCourseFromCatalog(loaded[i][0], loaded[i][1]).getName());
+			assertFalse(catalog.addCourseToCatalog(loaded[i][0], TITLE, loaded[i][1], CREDITS, INSTRUCTOR_ID, ENROLLMENT_CAP,
+					MEETING_DAYS, START_TIME, END_TIME));
+		}
+	}
+
+	/**
+	 * Tests loading courses against a faculty directory other than the
+	 * RegistrationManager's, and the report of unmatched instructor ids.
+	 */
+	@Test
+	public void testLoadCoursesFromFileWithFacultyDirectory() {
+		FacultyDirectory faculty = new FacultyDirectory();
+		faculty.loadFacultyFromFile("test-files/faculty_records.txt");
+		CourseCatalog catalog = new CourseCatalog();
+		Set<String> unmatched = catalog.loadCoursesFromFile("test-files/starter_course_records.txt", faculty);
+		assertEquals(8, catalog.getCourseCatalog().length);
+		assertEquals("[dbsturgi, jdyoung2, jep, jtking, sesmith5, spbalik, tbdimitr, tmbarnes]", unmatched.toString());
+		assertNull(catalog.getCourseFromCatalog(NAME, SECTION).getInstructorId());
+
+		faculty.loadFacultyFromFile("test-files/faculty_records_extended.txt");
+		unmatched = catalog.loadCoursesFromFile("test-files/starter_course_records.txt", faculty);
+		assertEquals(0, unmatched.size());
+		assertEquals(8, catalog.getCourseCatalog().length);
+		assertEquals(INSTRUCTOR_ID, catalog.getCourseFromCatalog(NAME, SECTION).getInstructorId());
+		assertEquals("jtking", catalog.getCourseFromCatalog("CSC216", "002").getInstructorId());
+		// The duplicate CSC116-002 line must not leave a course on jtking's schedule
+		assertEquals(1, faculty.getFacultyById("jtking").getSchedule().getNumScheduledCourses());
+	}
+
+	/**
+	 * Tests saving the catalog in binary form and loading it back, trusted and
+	 * validated.
+	 */
+	@Test
+	public void testBinaryCourseCatalog() {
+		CourseCatalog catalog = new CourseCatalog();
+		catalog.loadCoursesFromFile(VALID_FILE);
+		catalog.saveCourseCatalogBinary(BINARY_FILE);
+
+		CourseCatalog trusted = new CourseCatalog();
+		trusted.loadCoursesFromBinaryFile(BINARY_FILE, true);
+		assertArrayEquals(catalog.getCourseCatalog(), trusted.getCourseCatalog());
+		CourseCatalog validated = new CourseCatalog();
+		validated.loadCoursesFromBinaryFile(BINARY_FILE, false);
+		assertArrayEquals(catalog.getCourseCatalog(), validated.getCourseCatalog());
+
+		try {
+			trusted.loadCoursesFromBinaryFile(VALID_FILE, true);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to read file " + VALID_FILE, e.getMessage());
+			assertArrayEquals(catalog.getCourseCatalog(), trusted.getCourseCatalog());
+		}
 	}
 
 	/**
@@ -120,6 +190,20 @@ public class CourseCatalogTest {
 		assertTrue(cc.removeCourseFromCatalog("CSC116", "002"));
 		assertTrue(cc.removeCourseFromCatalog("CSC216", "005"));
 		assertFalse(cc.removeCourseFromCatalog("MA141", "008"));
+		assertNull(cc.getCourseFromCatalog("CSC116", "002"));
+		assertFalse(cc.removeCourseFromCatalog("CSC116", "002"));
+		assertEquals(0, cc.getCourseCatalog().length);
+
+		// A removed course can be added back
+		assertTrue(cc.addCourseToCatalog("CSC116", "Intro to Computer Science- Java", "002", 3, "sheckman", ENROLLMENT_CAP, "MWF", 1100,
+				1300));
+		assertNotNull(cc.getCourseFromCatalog("CSC116", "002"));
+
+		// Clearing the catalog clears the lookups
+		cc.newCourseCatalog();
+		assertNull(cc.getCourseFromCatalog("CSC116", "002"));
+		assertTrue(cc.addCourseToCatalog("CSC116", "Intro to Computer Science- Java", "002", 3, "sheckman", ENROLLMENT_CAP, "MWF", 1100,
+				1300));
 	}
 
 	/**
@@ -163,6 +247,65 @@ public class CourseCatalogTest {
 		}
 	}
 
+	/**
+	 * Test for the getCoursesMeetingDuring() method
+	 */
+	@Test
+	public void testGetCoursesMeetingDuring() {
+		CourseCatalog cc = new CourseCatalog();
+		cc.addCourseToCatalog("CSC116", "Intro to Computer Science- Java", "002", 3, "sheckman", ENROLLMENT_CAP, "MWF", 1100, 1300);
+		cc.addCourseToCatalog("CSC216", "Programming Concepts- Java", "005", 4, "sesmith5", ENROLLMENT_CAP, "TH", 1330, 1420);
+		cc.addCourseToCatalog("CSC216", "Programming Concepts- Java", "001", 4, "sesmith5", ENROLLMENT_CAP, "TH", 1500, 1615);
+		cc.addCourseToCatalog("CSC217", "Programming Concepts Lab", "211", 1, "sesmith5", ENROLLMENT_CAP, "A", 0, 0);
+
+		String[][] found = cc.getCoursesMeetingDuring("T", 1330, 1500);
+		assertEquals(2, found.length);
+		assertEquals("CSC216", found[0][0]);
+		assertEquals("001", found[0][1]);
+		assertEquals("CSC216", found[1][0]);
+		assertEquals("005", found[1][1]);
+
+		assertEquals(1, cc.getCoursesMeetingDuring("MTWHF", 1200, 1329).length);
+		assertEquals(0, cc.getCoursesMeetingDuring("T", 1421, 1459).length);
+
+		cc.removeCourseFromCatalog("CSC216", "005");
+		assertEquals(1, cc.getCoursesMeetingDuring("T", 1330, 1500).length);
+
+		try {
+			cc.getCoursesMeetingDuring("T", 1500, 1330);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid time range.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for the getNonConflictingCourses() method
+	 */
+	@Test
+	public void testGetNonConflictingCourses() {
+		CourseCatalog cc = new CourseCatalog();
+		cc.addCourseToCatalog("CSC116", "Intro to Computer Science- Java", "002", 3, "sheckman", ENROLLMENT_CAP, "MWF", 1100, 1300);
+		cc.addCourseToCatalog("CSC216", "Programming Concepts- Java", "005", 4, "sesmith5", ENROLLMENT_CAP, "TH", 1330, 1420);
+		cc.addCourseToCatalog("CSC216", "Programming Concepts- Java", "001", 4, "sesmith5", ENROLLMENT_CAP, "TH", 1500, 1615);
+		cc.addCourseToCatalog("CSC226", "Discrete Mathematics", "001", 3, "sesmith5", ENROLLMENT_CAP, "TH", 1400, 1515);
+		cc.addCourseToCatalog("CSC217", "Programming Concepts Lab", "211", 1, "sesmith5", ENROLLMENT_CAP, "A", 0, 0);
+
+		Schedule schedule = new Schedule();
+		assertEquals(5, cc.getNonConflictingCourses(schedule).length);
+
+		schedule.addCourseToSchedule(cc.getCourseFromCatalog("CSC226", "001"));
+		String[][] open = cc.getNonConflictingCourses(schedule);
+		assertEquals(2, open.length);
+		assertEquals("CSC116", open[0][0]);
+		assertEquals("CSC217", open[1][0]);
+
+		schedule.addCourseToSchedule(cc.getCourseFromCatalog("CSC217", "211"));
+		open = cc.getNonConflictingCourses(schedule);
+		assertEquals(1, open.length);
+		assertEquals("CSC116", open[0][0]);
+	}
+
 	/**
 	 * Test for the saveCourseCatalog() method
 	 */
@@ -0,0 +1,121 @@
+package edu.ncsu.csc216.pack_scheduler.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc216.pack_scheduler.course.ConflictException;
+import edu.ncsu.csc216.pack_scheduler.course.Course;
+
+/**
+ * Tests the TimeSlotIndex class
+ *
+ * @author Anton Nikulsin
+ */
+public class TimeSlotIndexTest {
+
+	/** Course meeting MW in the early afternoon */
+	private static final Course CSC216 = new Course("CSC216", "Programming Concepts - Java", "001", 4, null, 50, "MW", 1330, 1445);
+	/** Course meeting TH around lunch */
+	private static final Course CSC116 = new Course("CSC116", "Intro to Programming - Java", "002", 3, null, 50, "TH", 1130, 1320);
+	/** Course meeting TH in the afternoon */
+	private static final Course CSC226 = new Course("CSC226", "Discrete Mathematics", "001", 3, null, 50, "TH", 1500, 1615);
+	/** Course meeting F in the morning */
+	private static final Course CSC230 = new Course("CSC230", "C and Software Tools", "001", 3, null, 50, "MWF", 800, 850);
+	/** Arranged course */
+	private static final Course CSC217 = new Course("CSC217", "Programming Concepts Lab", "211", 1, null, 50, "A");
+
+	/** Index under test */
+	private TimeSlotIndex index;
+
+	/**
+	 * Creates an index containing every test course.
+	 */
+	@Before
+	public void setUp() {
+		index = new TimeSlotIndex();
+		index.add(CSC216);
+		index.add(CSC116);
+		index.add(CSC226);
+		index.add(CSC230);
+		index.add(CSC217);
+	}
+
+	/**
+	 * Tests getOverlapping() against a single day and time range.
+	 */
+	@Test
+	public void testGetOverlapping() {
+		Set<Course> found = index.getOverlapping("T", 1330, 1500);
+		assertEquals(1, found.size());
+		assertTrue(found.contains(CSC226));
+
+		found = index.getOverlapping("T", 1300, 1500);
+		assertEquals(2, found.size());
+		assertTrue(found.contains(CSC116));
+		assertTrue(found.contains(CSC226));
+
+		assertEquals(0, index.getOverlapping("T", 1321, 1459).size());
+		assertEquals(0, index.getOverlapping("A", 0, 2359).size());
+		assertEquals(0, index.getOverlapping("F", 900, 2359).size());
+	}
+
+	/**
+	 * Tests that a course meeting on several of the queried days is only returned
+	 * once.
+	 */
+	@Test
+	public void testGetOverlappingMultipleDays() {
+		Set<Course> found = index.getOverlapping("MTWHF", 0, 2359);
+		assertEquals(4, found.size());
+
+		found = index.getOverlapping("MW", 800, 1330);
+		assertEquals(2, found.size());
+		assertTrue(found.contains(CSC216));
+		assertTrue(found.contains(CSC230));
+	}
+
+	/**
+	 * Tests that the index agrees with Activity.checkConflict() for every pair of
+	 * courses.
+	 */
+	@Test
+	public void testMatchesCheckConflict() {
+		Course[] courses = { CSC216, CSC116, CSC226, CSC230, CSC217 };
+		for (Course c : courses) {
+			Set<Course> found = index.getOverlapping(c.getMeetingDays(), c.getStartTime(), c.getEndTime());
+			for (Course other : courses) {
+				boolean conflict;
+				try {
+					c.checkConflict(other);
+					conflict = false;
+				} catch (ConflictException e) {
+					conflict = true;
+				}
+				assertEquals(c.getName() + " and " + other.getName(), conflict, found.contains(other));
+			}
+		}
+	}
+
+	/**
+	 * Tests that removed courses are no longer returned and that clear() empties
+	 * the index.
+	 */
+	@Test
+	public void testRemoveAndClear() {
+		index.remove(CSC116);
+		Set<Course> found = index.getOverlapping("TH", 0, 2359);
+		assertEquals(1, found.size());
+		assertTrue(found.contains(CSC226));
+
+		index.add(CSC116);
+		assertEquals(2, index.getOverlapping("TH", 0, 2359).size());
+
+		index.clear();
+		assertEquals(0, index.getOverlapping("MTWHF", 0, 2359).size());
+	}
+}
@@ -45,4 +45,66 @@ public class ActivityTest {
 	    }
 	}
 
-}
+	/**
+	 * Test method for Check Conflict on the edges of the day and time comparison: a single shared day,
+	 * touching end points, back to back times, and arranged activities.
+	 */
+	@Test
+	public void testCheckConflictEdges() {
+		Activity a1 = new Course("CSC216", "Programming Concepts - Java", "001", 4, "sesmith5", 50, "MWF", 900, 950);
+		Activity a2 = new Course("CSC226", "Discrete Mathematics", "001", 3, "sesmith5", 50, "F", 950, 1040);
+		try {
+			a1.checkConflict(a2);
+			fail("Activities sharing only Friday and a single minute should conflict.");
+		} catch (ConflictException e) {
+			assertEquals("MWF 9:00AM-9:50AM", a1.getMeetingString());
+		}
+
+		a2.setActivityTime(951, 1040);
+		try {
+			a1.checkConflict(a2);
+			a2.checkConflict(a1);
+		} catch (ConflictException e) {
+			fail("Back to back activities should not conflict.");
+		}
+
+		a2.setMeetingDays("TH");
+		a2.setActivityTime(900, 950);
+		try {
+			a1.checkConflict(a2);
+		} catch (ConflictException e) {
+			fail("Activities on distinct days should not conflict.");
+		}
+
+		Activity a3 = new Course("CSC230", "C and Software Tools", "001", 3, "sesmith5", 50, "A");
+		try {
+			a1.checkConflict(a3);
+			a3.checkConflict(a1);
+			a3.checkConflict(a3);
+		} catch (ConflictException e) {
+			fail("Arranged activities should never conflict.");
+		}
+		assertEquals("A", a3.getMeetingDays());
+		assertEquals("Arranged", a3.getMeetingString());
+	}
+
+	/**
+	 * Test method for conflictsWith, which answers the same question as Check Conflict without throwing.
+	 */
+	@Test
+	public void testConflictsWith() {
+		Activity a1 = new Course("CSC216", "Programming Concepts - Java", "001", 4, "sesmith5", 50, "MWF", 900, 950);
+		Activity a2 = new Course("CSC226", "Discrete Mathematics", "001", 3, "sesmith5", 50, "F", 950, 1040);
+		assertTrue(a1.conflictsWith(a2));
+		assertTrue(a2.conflictsWith(a1));
+		a2.setActivityTime(951, 1040);
+		assertFalse(a1.conflictsWith(a2));
+		a2.setMeetingDays("TH");
+		a2.setActivityTime(900, 950);
+		assertFalse(a1.conflictsWith(a2));
+		Activity a3 = new Course("CSC230", "C and Software Tools", "001", 3, "sesmith5", 50, "A");
+		assertFalse(a3.conflictsWith(a3));
+		assertFalse(a1.conflictsWith(a3));
+	}
+
+}
\ No newline at end of file
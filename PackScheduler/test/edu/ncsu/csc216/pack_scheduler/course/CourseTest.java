@@ -694,6 +694,25 @@ public class CourseTest {
 		assertEquals(s2, c2.toString());
 	}
 	
+	/**
+	 * Tests the hasSameName() and isDuplicate() methods
+	 */
+	@Test
+	public void testHasSameName() {
+		Course c1 = new Course(NAME, TITLE, SECTION, CREDITS, INSTRUCTOR_ID, ENROLLMENT_CAP, MEETING_DAYS, START_TIME, END_TIME);
+		Course c2 = new Course(NAME, "Other Title", "002", CREDITS, INSTRUCTOR_ID, ENROLLMENT_CAP, "A");
+		Course c3 = new Course("CSC226", TITLE, SECTION, CREDITS, INSTRUCTOR_ID, ENROLLMENT_CAP, MEETING_DAYS, START_TIME, END_TIME);
+		assertTrue(c1.hasSameName(c2));
+		assertFalse(c1.hasSameName(c3));
+		assertFalse(c1.isDuplicate(c3));
+		try {
+			c1.isDuplicate(c2);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Already assigned " + NAME, e.getMessage());
+		}
+	}
+	
 	/**
 	 * Tests the compareTo() method
 	 */
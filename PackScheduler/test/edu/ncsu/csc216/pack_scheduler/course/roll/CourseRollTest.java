@@ -79,4 +79,139 @@ public class CourseRollTest {
 		newRoll.drop(s2);
 		newRoll.drop(w3);
 	}
+
+	/**
+	 * Testing that dropping a waitlisted student keeps the rest of the waitlist in order and that the waitlist is
+	 * promoted first in, first out
+	 */
+	@Test
+	public void testWaitlistOrder() {
+		Course c = new Course("CSC216", "Programming Concepts - Java", "001", 4, "sesmith5", 10, "MW", 1330, 1445);
+		CourseRoll roll = c.getCourseRoll();
+		Student[] enrolled = new Student[10];
+		for (int i = 0; i < enrolled.length; i++) {
+			enrolled[i] = new Student("first" + i, "last" + i, "id" + i, "email" + i + "@ncsu.edu", "hashedpassword");
+			roll.enroll(enrolled[i]);
+		}
+		Student w1 = new Student("wait1", "list1", "waitlist1", "emailw1@ncsu.edu", "hashedpassword");
+		Student w2 = new Student("wait2", "list2", "waitlist2", "emailw2@ncsu.edu", "hashedpassword");
+		Student w3 = new Student("wait3", "list3", "waitlist3", "emailw3@ncsu.edu", "hashedpassword");
+		roll.enroll(w1);
+		roll.enroll(w2);
+		roll.enroll(w3);
+		assertEquals(3, roll.getNumberOnWaitlist());
+
+		// Enrolled and waitlisted students cannot enroll again
+		try {
+			roll.enroll(enrolled[0]);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(3, roll.getNumberOnWaitlist());
+		}
+		try {
+			roll.enroll(w2);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(3, roll.getNumberOnWaitlist());
+		}
+
+		// Dropping from the middle of the waitlist
+		roll.drop(w2);
+		assertEquals(2, roll.getNumberOnWaitlist());
+		assertTrue(roll.canEnroll(w2));
+
+		// The first student on the waitlist is promoted
+		roll.drop(enrolled[3]);
+		assertEquals(0, roll.getOpenSeats());
+		assertEquals(1, roll.getNumberOnWaitlist());
+		assertFalse(roll.canEnroll(w1));
+		assertEquals(1, w1.getSchedule().getScheduledCourses().length);
+		assertEquals(0, w3.getSchedule().getScheduledCourses().length);
+
+		roll.drop(enrolled[4]);
+		assertEquals(0, roll.getNumberOnWaitlist());
+		assertEquals(1, w3.getSchedule().getScheduledCourses().length);
+
+		// Dropping a student who is not in the roll does nothing
+		roll.drop(enrolled[3]);
+		assertEquals(0, roll.getOpenSeats());
+	}
+
+	/**
+	 * Testing that promoting a waitlisted student who already holds the course on their schedule, as every student
+	 * enrolled through the RegistrationManager does, keeps the course on the schedule once and does not throw
+	 */
+	@Test
+	public void testDropPromotesScheduledStudent() {
+		Course c = new Course("CSC216", "Programming Concepts - Java", "001", 4, "sesmith5", 10, "MW", 1330, 1445);
+		CourseRoll roll = c.getCourseRoll();
+		Student[] enrolled = new Student[10];
+		for (int i = 0; i < enrolled.length; i++) {
+			enrolled[i] = new Student("first" + i, "last" + i, "id" + i, "email" + i + "@ncsu.edu", "hashedpassword");
+			roll.enroll(enrolled[i]);
+			enrolled[i].getSchedule().addCourseToSchedule(c);
+		}
+		Student w1 = new Student("wait1", "list1", "waitlist1", "emailw1@ncsu.edu", "hashedpassword");
+		Student w2 = new Student("wait2", "list2", "waitlist2", "emailw2@ncsu.edu", "hashedpassword");
+		roll.enroll(w1);
+		w1.getSchedule().addCourseToSchedule(c);
+		roll.enroll(w2);
+		w2.getSchedule().addCourseToSchedule(c);
+		assertEquals(0, roll.getOpenSeats());
+		assertEquals(2, roll.getNumberOnWaitlist());
+
+		roll.drop(enrolled[0]);
+		enrolled[0].getSchedule().removeCourseFromSchedule(c);
+		assertEquals(0, roll.getOpenSeats());
+		assertEquals(1, roll.getNumberOnWaitlist());
+		assertTrue(roll.getEnrolledIds().contains("waitlist1"));
+		String[][] scheduled = w1.getSchedule().getScheduledCourses();
+		assertEquals(1, scheduled.length);
+		assertEquals("CSC216", scheduled[0][0]);
+		assertEquals(4, w1.getSchedule().getScheduleCredits());
+		assertEquals(1, w2.getSchedule().getScheduledCourses().length);
+		assertEquals(0, enrolled[0].getSchedule().getScheduledCourses().length);
+	}
+
+	/**
+	 * Testing that a student can be waitlisted while the roll has open seats, and is promoted only by a drop
+	 */
+	@Test
+	public void testWaitlist() {
+		Course c = new Course("CSC216", "Programming Concepts - Java", "001", 4, "sesmith5", 10, "MW", 1330, 1445);
+		CourseRoll roll = c.getCourseRoll();
+		Student s1 = new Student("first", "last", "id", "email@ncsu.edu", "hashedpassword");
+		Student w1 = new Student("wait1", "list1", "waitlist1", "emailw1@ncsu.edu", "hashedpassword");
+		roll.enroll(s1);
+		roll.waitlist(w1);
+		assertEquals(9, roll.getOpenSeats());
+		assertEquals(1, roll.getNumberOnWaitlist());
+		try {
+			roll.waitlist(s1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(1, roll.getNumberOnWaitlist());
+		}
+		try {
+			roll.waitlist(w1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(1, roll.getNumberOnWaitlist());
+		}
+		for (int i = 0; i < 9; i++) {
+			roll.waitlist(new Student("wait" + i, "list" + i, "waitid" + i, "emailw" + i + "@ncsu.edu", "hashedpassword"));
+		}
+		assertTrue(roll.isWaitlistFull());
+		try {
+			roll.waitlist(new Student("extra", "student", "extra", "extra@ncsu.edu", "hashedpassword"));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(10, roll.getNumberOnWaitlist());
+		}
+
+		roll.drop(s1);
+		assertEquals(9, roll.getOpenSeats());
+		assertEquals(9, roll.getNumberOnWaitlist());
+		assertEquals("waitlist1", roll.getEnrolledIds().get(0));
+	}
 }
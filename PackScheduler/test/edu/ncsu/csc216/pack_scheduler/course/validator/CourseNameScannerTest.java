@@ -0,0 +1,71 @@
+package edu.ncsu.csc216.pack_scheduler.course.validator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Tests the CourseNameScanner class
+ *
+ * @author Anton Nikulsin
+ */
+public class CourseNameScannerTest {
+
+	/**
+	 * Tests the result code for valid names and for each way a name can be
+	 * invalid.
+	 */
+	@Test
+	public void testScan() {
+		assertEquals(CourseNameScanner.VALID, CourseNameScanner.scan("C101"));
+		assertEquals(CourseNameScanner.VALID, CourseNameScanner.scan("CSCA216Z"));
+		assertEquals(CourseNameScanner.VALID, CourseNameScanner.scan("\u00c9T101"));
+		assertTrue(CourseNameScanner.isValid("MA141"));
+
+		assertEquals(CourseNameScanner.INCOMPLETE, CourseNameScanner.scan(""));
+		assertEquals(CourseNameScanner.INCOMPLETE, CourseNameScanner.scan("CSC21"));
+		assertEquals(CourseNameScanner.INCOMPLETE, CourseNameScanner.scan(null));
+		assertEquals(CourseNameScanner.NOT_ALPHANUMERIC, CourseNameScanner.scan("CS-216"));
+		assertEquals(CourseNameScanner.NOT_ALPHANUMERIC, CourseNameScanner.scan("CSC216\u2013"));
+		assertEquals(CourseNameScanner.STARTS_WITH_DIGIT, CourseNameScanner.scan("216"));
+		assertEquals(CourseNameScanner.TOO_MANY_LETTERS, CourseNameScanner.scan("CSCAB216"));
+		assertEquals(CourseNameScanner.TOO_FEW_DIGITS, CourseNameScanner.scan("CSC21A"));
+		assertEquals(CourseNameScanner.TOO_MANY_DIGITS, CourseNameScanner.scan("CSC2160"));
+		assertEquals(CourseNameScanner.SUFFIX_TOO_LONG, CourseNameScanner.scan("CSC216AB"));
+		assertEquals(CourseNameScanner.DIGIT_AFTER_SUFFIX, CourseNameScanner.scan("CSC216A1"));
+		assertFalse(CourseNameScanner.isValid("CSC216A1"));
+	}
+
+	/**
+	 * Tests that the wrappers return or throw as the Finite State Machine did,
+	 * with the message for each result code.
+	 */
+	@Test
+	public void testWrappers() {
+		assertNull(CourseNameScanner.getMessage(CourseNameScanner.VALID));
+		assertNull(CourseNameScanner.getMessage(CourseNameScanner.INCOMPLETE));
+		CourseNameValidatorFSM fsm = new CourseNameValidatorFSM();
+		try {
+			assertTrue(fsm.isValid("CSC216"));
+			assertFalse(fsm.isValid("CSC21"));
+		} catch (InvalidTransitionException e) {
+			fail();
+		}
+		try {
+			fsm.isValid("CSCAB216");
+			fail();
+		} catch (InvalidTransitionException e) {
+			assertEquals("Course name cannot start with more than 4 letters.", e.getMessage());
+		}
+		try {
+			new CourseNameValidator().isValid("CSC216A1");
+			fail();
+		} catch (InvalidTransitionException e) {
+			assertEquals("Course name cannot contain digits after the suffix.", e.getMessage());
+		}
+	}
+}
@@ -195,6 +195,15 @@ public class FacultyDirectoryTest {
 		assertTrue(sd.removeFaculty("lwalls"));
 		facultyDirectory = sd.getFacultyDirectory();
 		assertEquals(6, facultyDirectory.length);
+		assertNull(sd.getFacultyById("awitt"));
+		assertNull(sd.getFacultyById("lwalls"));
+		assertFalse(sd.removeFaculty("awitt"));
+		assertNotNull(sd.getFacultyById("nbrady"));
+
+		// A removed id can be added back
+		assertTrue(sd.addFaculty("Ashely", "Witt", "awitt", "mollis@Fuscealiquetmagna.net", "pw", "pw", 2));
+		assertEquals("awitt", sd.getFacultyById("awitt").getId());
+		assertEquals(7, sd.getFacultyDirectory().length);
 	}
 
 	/**
@@ -12,6 +12,7 @@ import java.util.Scanner;
 import org.junit.Before;
 import org.junit.Test;
 
+import edu.ncsu.csc216.pack_scheduler.user.PasswordHasher;
 import edu.ncsu.csc216.pack_scheduler.user.Student;
 
 /**
@@ -189,6 +190,28 @@ public class StudentDirectoryTest {
 		assertTrue(sd.removeStudent("gstone"));
 		studentDirectory = sd.getStudentDirectory();
 		assertEquals(8, studentDirectory.length);
+		assertNull(sd.getStudentById("efrost"));
+		assertNull(sd.getStudentById("gstone"));
+		assertFalse(sd.removeStudent("efrost"));
+		assertNotNull(sd.getStudentById("zking"));
+
+		// A removed id can be added back
+		assertTrue(sd.addStudent("Emerald", "Frost", "efrost", "adipiscing@acipsumPhasellus.edu", "pw", "pw", 3));
+		assertEquals("efrost", sd.getStudentById("efrost").getId());
+		assertEquals(9, sd.getStudentDirectory().length);
+	}
+
+	/**
+	 * Tests StudentDirectory.migratePasswords().
+	 */
+	@Test
+	public void testMigratePasswords() {
+		StudentDirectory sd = new StudentDirectory();
+		sd.addStudent("Zahir", "King", "zking", "orci.Donec@ametmassaQuisque.com", "pw", "pw", 15);
+		sd.addStudent(new Student("Lane", "Berg", "lberg", "sociis@non.org", "\ufffdnot a digest", 14));
+		assertEquals(0, sd.migratePasswords());
+		assertEquals(PasswordHasher.hash("pw"), sd.getStudentById("zking").getPassword());
+		assertEquals("\ufffdnot a digest", sd.getStudentById("lberg").getPassword());
 	}
 
 	/**
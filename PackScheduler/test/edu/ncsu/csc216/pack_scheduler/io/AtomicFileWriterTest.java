@@ -0,0 +1,83 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the AtomicFileWriter class
+ *
+ * @author Anton Nikulsin
+ */
+public class AtomicFileWriterTest {
+
+	/** File written by the tests */
+	private final Path path = Paths.get("test-files", "actual_atomic_records.txt");
+
+	/**
+	 * Deletes the test file.
+	 *
+	 * @throws IOException if the file cannot be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Tests that writeLines() replaces the file's contents and leaves no
+	 * temporary file behind.
+	 *
+	 * @throws IOException if the file cannot be written or read
+	 */
+	@Test
+	public void testWriteLines() throws IOException {
+		Files.write(path, Arrays.asList("old", "contents", "that are longer"), Charset.defaultCharset());
+		AtomicFileWriter.writeLines(path.toString(), Arrays.asList("first", 2, "third"));
+		assertEquals(Arrays.asList("first", "2", "third"), Files.readAllLines(path, Charset.defaultCharset()));
+		assertNoTempFiles();
+	}
+
+	/**
+	 * Tests that closing without committing leaves the file as it was.
+	 *
+	 * @throws IOException if the file cannot be written or read
+	 */
+	@Test
+	public void testCloseWithoutCommit() throws IOException {
+		Files.write(path, Arrays.asList("old"), Charset.defaultCharset());
+		try (AtomicFileWriter writer = new AtomicFileWriter(path.toString())) {
+			writer.write("partial");
+			writer.newLine();
+		}
+		assertEquals(Arrays.asList("old"), Files.readAllLines(path, Charset.defaultCharset()));
+		assertNoTempFiles();
+
+		try {
+			AtomicFileWriter.writeLines("test-files/missing/actual_atomic_records.txt", Arrays.asList("x"));
+			fail();
+		} catch (IOException e) {
+			assertFalse(new File("test-files/missing").exists());
+		}
+	}
+
+	/**
+	 * Checks that no temporary files are left in the test directory.
+	 */
+	private void assertNoTempFiles() {
+		for (String name : new File("test-files").list()) {
+			assertFalse(name, name.endsWith(".tmp"));
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.ncsu.csc216.pack_scheduler.course.ConflictException;
+import edu.ncsu.csc216.pack_scheduler.course.Course;
+
+/**
+ * Tests the BinaryCourseRecordIO class
+ *
+ * @author Anton Nikulsin
+ */
+public class BinaryCourseRecordIOTest {
+
+	/** Valid course records */
+	private final String validTestFile = "test-files/course_records.txt";
+	/** Binary file written by the tests */
+	private final Path binaryPath = Paths.get("test-files", "actual_course_records.bin");
+	/** Text file written by the tests */
+	private final Path textPath = Paths.get("test-files", "actual_converted_course_records.txt");
+
+	/**
+	 * Deletes the files written by the tests.
+	 *
+	 * @throws IOException if a file cannot be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(binaryPath);
+		Files.deleteIfExists(textPath);
+	}
+
+	/**
+	 * Tests that converting the text form to binary and back keeps every course
+	 * and instructor id in file order.
+	 *
+	 * @throws IOException if a file cannot be read or written
+	 */
+	@Test
+	public void testConvert() throws IOException {
+		ParsedCourseRecords original = CourseRecordIO.parseCourseRecords(validTestFile);
+		assertEquals(original.size(), BinaryCourseRecordIO.convertToBinary(validTestFile, binaryPath.toString()));
+		assertEquals(original.size(),
+				BinaryCourseRecordIO.convertToText(binaryPath.toString(), textPath.toString()));
+
+		ParsedCourseRecords converted = CourseRecordIO.parseCourseRecords(textPath.toString());
+		assertEquals(original.size(), converted.size());
+		for (int i = 0; i < original.size(); i++) {
+			assertEquals(original.getCourse(i).toString(), converted.getCourse(i).toString());
+			assertEquals(original.getInstructorId(i), converted.getInstructorId(i));
+		}
+	}
+
+	/**
+	 * Tests that trusted and validated loading create the same courses, with
+	 * the same times and meeting days.
+	 *
+	 * @throws IOException if a file cannot be read or written
+	 */
+	@Test
+	public void testTrustedLoad() throws IOException {
+		List<Course> courses = new ArrayList<Course>();
+		courses.add(new Course("CSC216", "Programming Concepts - Java", "001", 4, "sesmith5", 10, "TH", 1330, 1445));
+		courses.add(new Course("CSC230", "C and Software Tools", "001", 3, null, 12, "A"));
+		courses.add(new Course("CSC316", "Data Structures", "001", 3, "jtking", 15, "FWM", 830, 945));
+		BinaryCourseRecordIO.writeBinaryCourseRecords(binaryPath.toString(), courses);
+
+		ParsedCourseRecords trusted = BinaryCourseRecordIO.parseBinaryCourseRecords(binaryPath.toString(), true);
+		ParsedCourseRecords validated = BinaryCourseRecordIO.parseBinaryCourseRecords(binaryPath.toString(), false);
+		assertEquals(3, trusted.size());
+		assertEquals(3, validated.size());
+		for (int i = 0; i < courses.size(); i++) {
+			Course t = trusted.getCourse(i);
+			assertEquals(validated.getCourse(i).toString(), t.toString());
+			assertEquals(courses.get(i).getStartTime(), t.getStartTime());
+			assertEquals(courses.get(i).getEndTime(), t.getEndTime());
+			assertEquals(courses.get(i).getCourseRoll().getEnrollmentCap(), t.getCourseRoll().getEnrollmentCap());
+		}
+		assertEquals("sesmith5", trusted.getInstructorId(0));
+		assertEquals("null", trusted.getInstructorId(1));
+		// meeting days are stored as a set
+		assertEquals("MWF", trusted.getCourse(2).getMeetingDays());
+
+		// the trusted courses still detect conflicts
+		Course conflicting = new Course("CSC226", "Discrete Math", "001", 3, null, 10, "MW", 900, 1000);
+		try {
+			trusted.getCourse(2).checkConflict(conflicting);
+			fail();
+		} catch (ConflictException e) {
+			// overlaps on Monday and Wednesday
+		}
+	}
+
+	/**
+	 * Tests that invalid courses are skipped, that a trusted file still has its
+	 * credits and times checked, and that missing and damaged files are
+	 * rejected.
+	 *
+	 * @throws IOException if a file cannot be read or written
+	 */
+	@Test
+	public void testInvalid() throws IOException {
+		List<Course> courses = new ArrayList<Course>();
+		courses.add(new Course("CSC216", "Programming Concepts - Java", "001", 4, null, 10, "MW", 1000, 1050));
+		courses.add(new Course("CSC116", "Intro to Programming - Java", "001", 3, null, 10, "MW", 910, 1100));
+		courses.add(new Course("CSC226", "Discrete Mathematics", "001", 3, null, 10, "A"));
+		courses.add(new Course("CSC316", "Data Structures", "001", 3, null, 10, "MW", 1200, 1315));
+		BinaryCourseRecordIO.writeBinaryCourseRecords(binaryPath.toString(), courses);
+		byte[] bytes = Files.readAllBytes(binaryPath);
+		// Damage every course but CSC116 in its fixed-width record, the last part of the file
+		int records = bytes.length - 4 * 24;
+		bytes[records + 16] = 9; // credits
+		bytes[records + 2 * 24 + 20] = 0;
+		bytes[records + 2 * 24 + 21] = 60; // an arranged course meeting at 1:00
+		bytes[records + 3 * 24 + 22] = 0;
+		bytes[records + 3 * 24 + 23] = 0; // ending at midnight, before it starts
+		Files.write(binaryPath, bytes);
+		ParsedCourseRecords trusted = BinaryCourseRecordIO.parseBinaryCourseRecords(binaryPath.toString(), true);
+		assertEquals(1, trusted.size());
+		assertEquals("CSC116", trusted.getCourse(0).getName());
+		ParsedCourseRecords validated = BinaryCourseRecordIO.parseBinaryCourseRecords(binaryPath.toString(), false);
+		assertEquals(1, validated.size());
+		assertEquals("CSC116", validated.getCourse(0).getName());
+
+		try {
+			BinaryCourseRecordIO.parseBinaryCourseRecords("test-files/no_such_file.bin", true);
+			fail();
+		} catch (FileNotFoundException e) {
+			// missing
+		}
+		Files.write(binaryPath, Arrays.copyOf(bytes, bytes.length - 1));
+		try {
+			BinaryCourseRecordIO.parseBinaryCourseRecords(binaryPath.toString(), true);
+			fail();
+		} catch (IOException e) {
+			// truncated
+		}
+		try {
+			BinaryCourseRecordIO.parseBinaryCourseRecords(validTestFile, true);
+			fail();
+		} catch (IOException e) {
+			// not binary
+		}
+	}
+}
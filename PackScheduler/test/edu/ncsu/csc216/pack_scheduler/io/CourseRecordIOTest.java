@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Scanner;
 
 import org.junit.Before;
@@ -95,6 +96,38 @@ public class CourseRecordIOTest {
 		}
 	}
 
+	/**
+	 * Tests readCourseList() with duplicate and invalid lines, Windows line endings
+	 * and no line ending on the last line.
+	 * 
+	 * @throws IOException if the test file cannot be written
+	 */
+	@Test
+	public void testReadCourseList() throws IOException {
+		RegistrationManager.getInstance().getFacultyDirectory().loadFacultyFromFile(facultyFile);
+		Path path = FileSystems.getDefault().getPath("test-files", "actual_course_list.txt");
+		String records = validCourse7 + "\r\n" + validCourse1 + "\r\n"
+				+ "CSC226,Duplicate Section,001,3,tmbarnes,10,TH,935,1025\r\n"
+				+ "CSC216,Programming Concepts - Java,601,4,jep,10,MW,1330\r\n"
+				+ "CSC216,Programming Concepts - Java,601,4,jep,ten,A\r\n\r\n"
+				+ validCourse6;
+		Files.write(path, records.getBytes("UTF-8"));
+
+		List<Course> courses = CourseRecordIO.readCourseList(path.toString());
+		assertEquals(3, courses.size());
+		assertEquals(validCourse1, courses.get(0).toString());
+		assertEquals(validCourse6, courses.get(1).toString());
+		assertEquals(validCourse7, courses.get(2).toString());
+		Files.delete(path);
+
+		try {
+			CourseRecordIO.readCourseList("test-files/missing_course_records.txt");
+			fail();
+		} catch (FileNotFoundException e) {
+			// expected
+		}
+	}
+
 	/**
 	 * Tests writeCourseRecords()
 	 */
@@ -0,0 +1,164 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc216.pack_scheduler.catalog.CourseCatalog;
+import edu.ncsu.csc216.pack_scheduler.course.Course;
+import edu.ncsu.csc216.pack_scheduler.directory.FacultyDirectory;
+import edu.ncsu.csc216.pack_scheduler.directory.StudentDirectory;
+import edu.ncsu.csc216.pack_scheduler.user.Student;
+
+/**
+ * Tests the EnrollmentRecordIO class
+ *
+ * @author Anton Nikulsin
+ */
+public class EnrollmentRecordIOTest {
+
+	/** File written by the tests */
+	private final Path path = Paths.get("test-files", "actual_enrollment_records.txt");
+	/** Catalog the rolls are restored onto */
+	private CourseCatalog catalog;
+	/** Students enrolled by the records */
+	private StudentDirectory students;
+
+	/**
+	 * Loads the catalog and students used by the tests.
+	 */
+	@Before
+	public void setUp() {
+		catalog = new CourseCatalog();
+		catalog.loadCoursesFromFile("test-files/course_records.txt", new FacultyDirectory());
+		students = new StudentDirectory();
+		students.loadStudentsFromFile("test-files/student_records.txt");
+	}
+
+	/**
+	 * Deletes the test file.
+	 *
+	 * @throws IOException if the file cannot be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Tests reading a file with valid and invalid lines.
+	 *
+	 * @throws FileNotFoundException if the file cannot be read
+	 */
+	@Test
+	public void testReadEnrollmentRecords() throws FileNotFoundException {
+		assertEquals(5, EnrollmentRecordIO.readEnrollmentRecords("test-files/enrollment_records.txt", catalog,
+				students));
+		Course csc216 = catalog.getCourseFromCatalog("CSC216", "001");
+		assertEquals(Arrays.asList("zking", "daustin", "lberg"), csc216.getCourseRoll().getEnrolledIds());
+		assertEquals(2, students.getStudentById("zking").getSchedule().getScheduledCourses().length);
+		assertEquals(1, students.getStudentById("daustin").getSchedule().getScheduledCourses().length);
+		// A waitlisted student stays on the waitlist even if the roll has open seats
+		assertEquals(0, catalog.getCourseFromCatalog("CSC226", "001").getCourseRoll().getEnrolledIds().size());
+		assertEquals(Arrays.asList("ahicks"),
+				catalog.getCourseFromCatalog("CSC226", "001").getCourseRoll().getWaitlistIds());
+		assertEquals(1, students.getStudentById("ahicks").getSchedule().getScheduledCourses().length);
+		assertEquals(0, catalog.getCourseFromCatalog("CSC230", "001").getCourseRoll().getEnrolledIds().size());
+		assertEquals(0, catalog.getCourseFromCatalog("CSC116", "001").getCourseRoll().getEnrolledIds().size());
+
+		try {
+			EnrollmentRecordIO.readEnrollmentRecords("test-files/no_such_file.txt", catalog, students);
+			fail();
+		} catch (FileNotFoundException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Tests that writing and reading the records restores every roll and
+	 * waitlist in order.
+	 *
+	 * @throws IOException if the file cannot be written or read
+	 */
+	@Test
+	public void testWriteEnrollmentRecords() throws IOException {
+		for (int i = 0; i < 3; i++) {
+			students.addStudent("Extra", "Student", "extra" + i, "extra" + i + "@ncsu.edu", "pw", "pw", 18);
+		}
+		Course csc216 = catalog.getCourseFromCatalog("CSC216", "001");
+		List<String> ids = new ArrayList<String>();
+		for (String[] row : students.getStudentDirectory()) {
+			ids.add(row[2]);
+		}
+		for (String id : ids) {
+			Student s = students.getStudentById(id);
+			if (s.canAdd(csc216)) {
+				csc216.getCourseRoll().enroll(s);
+				s.getSchedule().addCourseToSchedule(csc216);
+			}
+		}
+		Student zking = students.getStudentById("zking");
+		Course csc116 = catalog.getCourseFromCatalog("CSC116", "002");
+		csc116.getCourseRoll().enroll(zking);
+		zking.getSchedule().addCourseToSchedule(csc116);
+
+		EnrollmentRecordIO.writeEnrollmentRecords(path.toString(), catalog.getCourses());
+		List<String> lines = Files.readAllLines(path, Charset.defaultCharset());
+		assertEquals(2, lines.size());
+		assertEquals("CSC116,002,1,zking", lines.get(0));
+
+		CourseCatalog restoredCatalog = new CourseCatalog();
+		restoredCatalog.loadCoursesFromFile("test-files/course_records.txt", new FacultyDirectory());
+		StudentDirectory restoredStudents = new StudentDirectory();
+		restoredStudents.loadStudentsFromFile("test-files/student_records.txt");
+		for (int i = 0; i < 3; i++) {
+			restoredStudents.addStudent("Extra", "Student", "extra" + i, "extra" + i + "@ncsu.edu", "pw", "pw", 18);
+		}
+		int total = csc216.getCourseRoll().getEnrolledIds().size() + csc216.getCourseRoll().getNumberOnWaitlist() + 1;
+		assertEquals(total, EnrollmentRecordIO.readEnrollmentRecords(path.toString(), restoredCatalog,
+				restoredStudents));
+		Course restored216 = restoredCatalog.getCourseFromCatalog("CSC216", "001");
+		assertEquals(csc216.getCourseRoll().getEnrolledIds(), restored216.getCourseRoll().getEnrolledIds());
+		assertEquals(csc216.getCourseRoll().getWaitlistIds(), restored216.getCourseRoll().getWaitlistIds());
+		assertEquals(2, restoredStudents.getStudentById("zking").getSchedule().getScheduledCourses().length);
+	}
+
+	/**
+	 * Tests that a student on the roll who is no longer in the directory leaves
+	 * their seat open rather than letting a waitlisted student onto the roll.
+	 *
+	 * @throws IOException if the file cannot be written or read
+	 */
+	@Test
+	public void testReadMissingEnrolledStudent() throws IOException {
+		Course csc216 = catalog.getCourseFromCatalog("CSC216", "001");
+		csc216.getCourseRoll().setEnrollmentCap(10);
+		StringBuilder record = new StringBuilder("CSC216,001,10");
+		for (int i = 0; i < 12; i++) {
+			if (i != 3) {
+				students.addStudent("Extra", "Student", "extra" + i, "extra" + i + "@ncsu.edu", "pw", "pw", 18);
+			}
+			record.append(",extra").append(i);
+		}
+		Files.write(path, Arrays.asList(record.toString()), Charset.defaultCharset());
+
+		assertEquals(11, EnrollmentRecordIO.readEnrollmentRecords(path.toString(), catalog, students));
+		assertEquals(1, csc216.getCourseRoll().getOpenSeats());
+		assertEquals(9, csc216.getCourseRoll().getEnrolledIds().size());
+		assertEquals(Arrays.asList("extra10", "extra11"), csc216.getCourseRoll().getWaitlistIds());
+		assertEquals(1, students.getStudentById("extra10").getSchedule().getScheduledCourses().length);
+	}
+}
@@ -11,14 +11,13 @@ import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.Scanner;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import edu.ncsu.csc216.pack_scheduler.user.Faculty;
+import edu.ncsu.csc216.pack_scheduler.user.PasswordHasher;
 import edu.ncsu.csc216.pack_scheduler.util.LinkedList;
 
 /**
@@ -45,8 +44,6 @@ public class FacultyRecordIOTest {
 	/** the hash version of the password */
 	private String hashPW;
 
-	/** Algorithm used to has password */
-	private static final String HASH_ALGORITHM = "SHA-256";
 
 	/**
 	 * Resets actual_faculty_records.txt and replaces the passwords in valid faculty
@@ -54,17 +51,9 @@ public class FacultyRecordIOTest {
 	 */
 	@Before
 	public void setUp() {
-		try {
-			String password = "pw";
-			MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
-			digest.update(password.getBytes());
-			hashPW = new String(digest.digest());
-
-			for (int i = 0; i < validFaculty.length; i++) {
-				validFaculty[i] = validFaculty[i].replace(",pw,", "," + hashPW + ",");
-			}
-		} catch (NoSuchAlgorithmException e) {
-			fail("Unable to create hash during setup");
+		hashPW = PasswordHasher.hash("pw");
+		for (int i = 0; i < validFaculty.length; i++) {
+			validFaculty[i] = validFaculty[i].replace(",pw,", "," + hashPW + ",");
 		}
 		Path source = FileSystems.getDefault().getPath("test-files", "actual_faculty_records.txt");
 		try {
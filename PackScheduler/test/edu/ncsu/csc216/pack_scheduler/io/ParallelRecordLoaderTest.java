@@ -0,0 +1,91 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the ParallelRecordLoader class
+ *
+ * @author Anton Nikulsin
+ */
+public class ParallelRecordLoaderTest {
+
+	/** File written by the tests */
+	private final Path path = Paths.get("test-files", "actual_parallel_records.txt");
+
+	/** Loader that parses each line as an int, skipping lines that are not */
+	private final ParallelRecordLoader<Integer> loader = new ParallelRecordLoader<Integer>() {
+		@Override
+		Integer parse(String line) {
+			return Integer.valueOf(line);
+		}
+	};
+
+	/**
+	 * Deletes the test file.
+	 *
+	 * @throws IOException if the file cannot be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Tests that a file large enough to be split is parsed completely and in
+	 * order, and that every chunk starts at the beginning of a line.
+	 *
+	 * @throws IOException if the test file cannot be written or read
+	 */
+	@Test
+	public void testLoadChunked() throws IOException {
+		StringBuilder records = new StringBuilder();
+		for (int i = 0; i < 400000; i++) {
+			records.append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+			if (i % 1000 == 0) {
+				records.append("not a number\n\n");
+			}
+		}
+		Files.write(path, records.toString().getBytes("UTF-8"));
+
+		try (FileInputStream in = new FileInputStream(path.toFile())) {
+			FileChannel channel = in.getChannel();
+			long[] bounds = ParallelRecordLoader.chunkBounds(channel, 8);
+			assertEquals(9, bounds.length);
+			assertEquals(0, bounds[0]);
+			assertEquals(channel.size(), bounds[8]);
+			for (int i = 1; i < 8; i++) {
+				assertTrue(bounds[i] > bounds[i - 1]);
+				assertEquals('\n', records.charAt((int) bounds[i] - 1));
+			}
+		}
+
+		List<Integer> loaded = loader.load(path.toString());
+		assertEquals(400000, loaded.size());
+		for (int i = 0; i < loaded.size(); i++) {
+			assertEquals(i, loaded.get(i).intValue());
+		}
+	}
+
+	/**
+	 * Tests a small file with a last line that has no line terminator.
+	 *
+	 * @throws IOException if the test file cannot be written or read
+	 */
+	@Test
+	public void testLoadSmall() throws IOException {
+		Files.write(path, "1\r2\r\n\r\nx\n3".getBytes("UTF-8"));
+		assertEquals("[1, 2, 3]", loader.load(path.toString()).toString());
+	}
+}
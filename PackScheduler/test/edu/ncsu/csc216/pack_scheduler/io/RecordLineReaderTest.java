@@ -0,0 +1,62 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests the RecordLineReader class
+ *
+ * @author Anton Nikulsin
+ */
+public class RecordLineReaderTest {
+
+	/**
+	 * Tests readLine() with every kind of line ending and with lines longer than
+	 * the reader's buffer.
+	 *
+	 * @throws IOException if the test file cannot be written or read
+	 */
+	@Test
+	public void testReadLine() throws IOException {
+		StringBuilder longLine = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			longLine.append((char) ('a' + i % 26));
+		}
+		Path path = Paths.get("test-files", "actual_record_lines.txt");
+		Files.write(path, ("first\nsecond\r\nthird\r\n\r" + longLine + "\nlast").getBytes("UTF-8"));
+
+		RecordLineReader reader = new RecordLineReader(path.toString());
+		assertEquals("first", reader.readLine());
+		assertEquals("second", reader.readLine());
+		assertEquals("third", reader.readLine());
+		assertEquals("", reader.readLine());
+		assertEquals(longLine.toString(), reader.readLine());
+		assertEquals("last", reader.readLine());
+		assertNull(reader.readLine());
+		assertNull(reader.readLine());
+		reader.close();
+		Files.delete(path);
+	}
+
+	/**
+	 * Tests that splitFields() splits on commas the same way a Scanner delimited
+	 * by commas does.
+	 */
+	@Test
+	public void testSplitFields() {
+		assertEquals(Arrays.asList("a", "b", "c"), RecordLineReader.splitFields("a,b,c"));
+		assertEquals(Arrays.asList("a", "", "b"), RecordLineReader.splitFields("a,,b"));
+		assertEquals(Arrays.asList("a", "b"), RecordLineReader.splitFields("a,b,"));
+		assertEquals(Arrays.asList("a", "b", ""), RecordLineReader.splitFields("a,b,,"));
+		assertEquals(Arrays.asList("a"), RecordLineReader.splitFields(",a"));
+		assertEquals(0, RecordLineReader.splitFields("").size());
+	}
+}
@@ -0,0 +1,203 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the RegistrationJournal class
+ *
+ * @author Anton Nikulsin
+ */
+public class RegistrationJournalTest {
+
+	/** Journal written by the tests */
+	private final Path path = Paths.get("test-files", "actual_journal.bin");
+
+	/**
+	 * Deletes the test journal.
+	 *
+	 * @throws IOException if the file cannot be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Tests that appended entries are replayed in order with their fields when
+	 * the journal is opened again.
+	 *
+	 * @throws IOException if the journal cannot be written or read
+	 */
+	@Test
+	public void testReplay() throws IOException {
+		try (RegistrationJournal journal = new RegistrationJournal(path.toString(), null)) {
+			journal.write(RegistrationJournal.ENROLL, "zking", "CSC216", "001");
+			journal.write(RegistrationJournal.ADD_COURSE, "CSC316", "Data Structures", "001", 3, null, 10, "A", 0,
+					0);
+			journal.append(RegistrationJournal.REMOVE_STUDENT, "zking");
+		}
+
+		List<RegistrationJournal.Entry> entries = replay();
+		assertEquals(3, entries.size());
+		assertEquals(RegistrationJournal.ENROLL, entries.get(0).getType());
+		assertEquals("zking", entries.get(0).getString(0));
+		assertEquals("CSC216", entries.get(0).getString(1));
+		assertEquals("001", entries.get(0).getString(2));
+		RegistrationJournal.Entry course = entries.get(1);
+		assertEquals(RegistrationJournal.ADD_COURSE, course.getType());
+		assertEquals("Data Structures", course.getString(1));
+		assertEquals(3, course.getInt(3));
+		assertNull(course.getString(4));
+		assertEquals(10, course.getInt(5));
+		assertEquals(RegistrationJournal.REMOVE_STUDENT, entries.get(2).getType());
+
+		// Reopening appends after the existing entries
+		try (RegistrationJournal journal = new RegistrationJournal(path.toString(), null)) {
+			journal.write(RegistrationJournal.RESET_SCHEDULE, "zking");
+		}
+		assertEquals(4, replay().size());
+	}
+
+	/**
+	 * Tests that an entry cut short by a crash is discarded along with anything
+	 * after it, and that new entries replace it.
+	 *
+	 * @throws IOException if the journal cannot be written or read
+	 */
+	@Test
+	public void testTornEntry() throws IOException {
+		try (RegistrationJournal journal = new RegistrationJournal(path.toString(), null)) {
+			journal.write(RegistrationJournal.DROP, "zking", "CSC216", "001");
+			journal.write(RegistrationJournal.DROP, "zking", "CSC116", "001");
+		}
+		long size = Files.size(path);
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			file.setLength(size - 3);
+		}
+
+		try (RegistrationJournal journal = new RegistrationJournal(path.toString(), null)) {
+			journal.write(RegistrationJournal.RESET_SCHEDULE, "zking");
+		}
+		List<RegistrationJournal.Entry> entries = replay();
+		assertEquals(2, entries.size());
+		assertEquals("CSC216", entries.get(0).getString(1));
+		assertEquals(RegistrationJournal.RESET_SCHEDULE, entries.get(1).getType());
+
+		// A corrupted entry is treated the same way
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			file.seek(file.length() - 1);
+			file.write('x');
+		}
+		assertEquals(1, replay().size());
+	}
+
+	/**
+	 * Tests that entries appended and synced from many threads are all written.
+	 *
+	 * @throws Exception if the journal cannot be written or read
+	 */
+	@Test
+	public void testConcurrentWrites() throws Exception {
+		final int threads = 8;
+		final int perThread = 200;
+		try (final RegistrationJournal journal = new RegistrationJournal(path.toString(), null)) {
+			Thread[] workers = new Thread[threads];
+			for (int t = 0; t < threads; t++) {
+				final String id = "student" + t;
+				workers[t] = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						for (int i = 0; i < perThread; i++) {
+							journal.write(RegistrationJournal.ENROLL, id, "CSC216", String.valueOf(i));
+						}
+					}
+				});
+				workers[t].start();
+			}
+			for (Thread worker : workers) {
+				worker.join();
+			}
+		}
+
+		Set<String> seen = new HashSet<String>();
+		for (RegistrationJournal.Entry entry : replay()) {
+			seen.add(entry.getString(0) + "," + entry.getString(2));
+		}
+		assertEquals(threads * perThread, seen.size());
+	}
+
+	/**
+	 * Tests that invalid entries and use after closing are rejected.
+	 *
+	 * @throws IOException if the journal cannot be written or read
+	 */
+	@Test
+	public void testInvalid() throws IOException {
+		RegistrationJournal journal = new RegistrationJournal(path.toString(), null);
+		try {
+			journal.append(RegistrationJournal.ENROLL, "zking");
+			fail();
+		} catch (IllegalArgumentException e) {
+			// wrong number of fields
+		}
+		try {
+			journal.append(RegistrationJournal.REMOVE_STUDENT, 5);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// wrong field type
+		}
+		try {
+			journal.append((byte) 99);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// unknown type
+		}
+		journal.close();
+		try {
+			journal.append(RegistrationJournal.REMOVE_STUDENT, "zking");
+			fail();
+		} catch (IllegalStateException e) {
+			// closed
+		}
+
+		Files.write(path, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		try {
+			new RegistrationJournal(path.toString(), null);
+			fail();
+		} catch (IOException e) {
+			// not a journal
+		}
+	}
+
+	/**
+	 * Opens the test journal and returns every entry replayed from it.
+	 *
+	 * @return the entries in order
+	 * @throws IOException if the journal cannot be read
+	 */
+	private List<RegistrationJournal.Entry> replay() throws IOException {
+		final List<RegistrationJournal.Entry> entries = new ArrayList<RegistrationJournal.Entry>();
+		new RegistrationJournal(path.toString(), new RegistrationJournal.Handler() {
+			@Override
+			public void apply(RegistrationJournal.Entry entry) {
+				entries.add(entry);
+			}
+		}).close();
+		return entries;
+	}
+}
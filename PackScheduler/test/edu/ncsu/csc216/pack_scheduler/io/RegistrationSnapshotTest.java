@@ -0,0 +1,218 @@
+package edu.ncsu.csc216.pack_scheduler.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.ncsu.csc216.pack_scheduler.catalog.CourseCatalog;
+import edu.ncsu.csc216.pack_scheduler.course.Course;
+import edu.ncsu.csc216.pack_scheduler.directory.FacultyDirectory;
+import edu.ncsu.csc216.pack_scheduler.directory.StudentDirectory;
+import edu.ncsu.csc216.pack_scheduler.user.Faculty;
+import edu.ncsu.csc216.pack_scheduler.user.Student;
+
+/**
+ * Tests the RegistrationSnapshot class
+ *
+ * @author Anton Nikulsin
+ */
+public class RegistrationSnapshotTest {
+
+	/** Snapshot written by the tests */
+	private final Path path = Paths.get("test-files", "actual_snapshot.bin");
+
+	/**
+	 * Deletes the test snapshot.
+	 *
+	 * @throws IOException if the file cannot be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Tests that a snapshot restores every faculty, student and course, the
+	 * order of each roll and waitlist, schedules and instructors.
+	 *
+	 * @throws IOException if the snapshot cannot be written or read
+	 */
+	@Test
+	public void testCaptureAndRestore() throws IOException {
+		CourseCatalog catalog = new CourseCatalog();
+		StudentDirectory students = new StudentDirectory();
+		FacultyDirectory faculty = new FacultyDirectory();
+		faculty.addFaculty("Ashely", "Witt", "awitt", "awitt@ncsu.edu", "pw", "pw", 2);
+		for (int i = 0; i < 12; i++) {
+			students.addStudent("First", "Last", "student" + i, "s" + i + "@ncsu.edu", "pw", "pw", 18);
+		}
+		catalog.addCourseToCatalog("CSC216", "Programming Concepts - Java", "001", 4, null, 10, "TH", 1330, 1445);
+		catalog.addCourseToCatalog("CSC116", "Intro to Programming - Java", "001", 3, "jdyoung2", 10, "MW", 910,
+				1100);
+		Course csc216 = catalog.getCourseFromCatalog("CSC216", "001");
+		faculty.getFacultyById("awitt").getSchedule().addCourseToSchedule(csc216);
+		// Enroll in reverse id order so roll order differs from directory order
+		for (int i = 11; i >= 0; i--) {
+			Student s = students.getStudentById("student" + i);
+			csc216.getCourseRoll().enroll(s);
+			s.getSchedule().addCourseToSchedule(csc216);
+		}
+		students.getStudentById("student3").getSchedule().setTitle("Spring");
+
+		RegistrationSnapshot snapshot = RegistrationSnapshot.capture(7, catalog, students, faculty);
+		assertEquals(7, snapshot.getGeneration());
+		snapshot.write(path.toString());
+
+		CourseCatalog restoredCatalog = new CourseCatalog();
+		StudentDirectory restoredStudents = new StudentDirectory();
+		FacultyDirectory restoredFaculty = new FacultyDirectory();
+		restoredStudents.addStudent("Old", "Student", "old", "old@ncsu.edu", "pw", "pw", 18);
+		assertEquals(7, RegistrationSnapshot.restore(path.toString(), restoredCatalog, restoredStudents,
+				restoredFaculty));
+
+		assertNull(restoredStudents.getStudentById("old"));
+		assertEquals(12, restoredStudents.getStudents().size());
+		Student restored = restoredStudents.getStudentById("student3");
+		assertEquals(students.getStudentById("student3").getPassword(), restored.getPassword());
+		assertEquals("Spring", restored.getSchedule().getTitle());
+		assertEquals(1, restored.getSchedule().getScheduledCourses().length);
+
+		assertEquals(2, restoredCatalog.getCourses().size());
+		Course restored216 = restoredCatalog.getCourseFromCatalog("CSC216", "001");
+		assertEquals(csc216.getCourseRoll().getEnrolledIds(), restored216.getCourseRoll().getEnrolledIds());
+		assertEquals(Arrays.asList("student1", "student0"), restored216.getCourseRoll().getWaitlistIds());
+		assertEquals("awitt", restored216.getInstructorId());
+		assertEquals(1, restoredFaculty.getFacultyById("awitt").getSchedule().getNumScheduledCourses());
+		assertEquals("jdyoung2", restoredCatalog.getCourseFromCatalog("CSC116", "001").getInstructorId());
+	}
+
+	/**
+	 * Tests that a damaged snapshot is rejected without changing any data.
+	 *
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	@Test
+	public void testDamagedSnapshot() throws IOException {
+		CourseCatalog catalog = new CourseCatalog();
+		StudentDirectory students = new StudentDirectory();
+		FacultyDirectory faculty = new FacultyDirectory();
+		students.addStudent("First", "Last", "zking", "zking@ncsu.edu", "pw", "pw", 18);
+		RegistrationSnapshot.capture(1, catalog, students, faculty).write(path.toString());
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			file.seek(20);
+			file.write(file.read() ^ 1);
+		}
+
+		StudentDirectory target = new StudentDirectory();
+		target.addStudent("Kept", "Student", "kept", "kept@ncsu.edu", "pw", "pw", 18);
+		try {
+			RegistrationSnapshot.restore(path.toString(), new CourseCatalog(), target, new FacultyDirectory());
+			fail();
+		} catch (IOException e) {
+			assertEquals(1, target.getStudents().size());
+			assertEquals("Kept", target.getStudentById("kept").getFirstName());
+		}
+	}
+
+	/**
+	 * Tests that a snapshot with a count that cannot be right, but a checksum
+	 * that matches it, is rejected without changing any data.
+	 *
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	@Test
+	public void testInvalidCount() throws IOException {
+		StudentDirectory students = new StudentDirectory();
+		students.addStudent("First", "Last", "zking", "zking@ncsu.edu", "pw", "pw", 18);
+		RegistrationSnapshot.capture(1, new CourseCatalog(), students, new FacultyDirectory())
+				.write(path.toString());
+		byte[] valid = Files.readAllBytes(path);
+		for (int count : new int[] { -1, Integer.MAX_VALUE, 2 }) {
+			// The student count follows the header and the empty faculty list
+			ByteBuffer bytes = ByteBuffer.wrap(valid.clone());
+			bytes.putInt(20, count);
+			CRC32 crc = new CRC32();
+			crc.update(bytes.array(), 0, valid.length - 4);
+			bytes.putInt(valid.length - 4, (int) crc.getValue());
+			Files.write(path, bytes.array());
+
+			StudentDirectory target = new StudentDirectory();
+			target.addStudent("Kept", "Student", "kept", "kept@ncsu.edu", "pw", "pw", 18);
+			try {
+				RegistrationSnapshot.restore(path.toString(), new CourseCatalog(), target, new FacultyDirectory());
+				fail();
+			} catch (IOException e) {
+				assertEquals(1, target.getStudents().size());
+				assertEquals("Kept", target.getStudentById("kept").getFirstName());
+			}
+		}
+	}
+
+	/**
+	 * Tests that a snapshot whose records do not fit together, here an
+	 * instructor of two courses that meet at the same time, is rejected without
+	 * changing any data.
+	 *
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	@Test
+	public void testInconsistentSnapshot() throws IOException {
+		CourseCatalog catalog = new CourseCatalog();
+		StudentDirectory students = new StudentDirectory();
+		FacultyDirectory faculty = new FacultyDirectory();
+		faculty.addFaculty("Ashely", "Witt", "awitt", "awitt@ncsu.edu", "pw", "pw", 2);
+		students.addStudent("First", "Last", "zking", "zking@ncsu.edu", "pw", "pw", 18);
+		catalog.addCourseToCatalog("CSC216", "Programming Concepts - Java", "001", 4, "awitt", 10, "TH", 1330, 1445);
+		catalog.addCourseToCatalog("CSC226", "Discrete Mathematics", "001", 3, "awitt", 10, "TH", 1330, 1445);
+		RegistrationSnapshot.capture(1, catalog, students, faculty).write(path.toString());
+
+		CourseCatalog targetCatalog = new CourseCatalog();
+		targetCatalog.addCourseToCatalog("CSC116", "Intro to Programming - Java", "001", 3, null, 10, "MW", 910,
+				1100);
+		StudentDirectory targetStudents = new StudentDirectory();
+		targetStudents.addStudent("Kept", "Student", "kept", "kept@ncsu.edu", "pw", "pw", 18);
+		FacultyDirectory targetFaculty = new FacultyDirectory();
+		targetFaculty.addFaculty("Kept", "Faculty", "kfaculty", "kfaculty@ncsu.edu", "pw", "pw", 2);
+		try {
+			RegistrationSnapshot.restore(path.toString(), targetCatalog, targetStudents, targetFaculty);
+			fail();
+		} catch (IOException e) {
+			assertEquals(1, targetCatalog.getCourses().size());
+			assertEquals("CSC116", targetCatalog.getCourses().get(0).getName());
+			assertEquals(1, targetStudents.getStudents().size());
+			assertEquals("Kept", targetStudents.getStudentById("kept").getFirstName());
+			assertEquals(1, targetFaculty.getFaculty().size());
+			assertEquals("kfaculty", targetFaculty.getFaculty().get(0).getId());
+		}
+	}
+
+	/**
+	 * Tests that restoring an empty snapshot clears the data it replaces.
+	 *
+	 * @throws IOException if the snapshot cannot be written or read
+	 */
+	@Test
+	public void testEmptySnapshot() throws IOException {
+		RegistrationSnapshot.capture(0, new CourseCatalog(), new StudentDirectory(), new FacultyDirectory())
+				.write(path.toString());
+		CourseCatalog catalog = new CourseCatalog();
+		catalog.addCourseToCatalog("CSC216", "Programming Concepts - Java", "001", 4, null, 10, "A", 0, 0);
+		FacultyDirectory faculty = new FacultyDirectory();
+		faculty.addFaculty(new Faculty("Ashely", "Witt", "awitt", "awitt@ncsu.edu", "hash", 2));
+		assertEquals(0, RegistrationSnapshot.restore(path.toString(), catalog, new StudentDirectory(), faculty));
+		assertEquals(0, catalog.getCourses().size());
+		assertEquals(0, faculty.getFaculty().size());
+	}
+}
@@ -6,13 +6,13 @@ import java.io.*;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.*;
 import java.util.*;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import edu.ncsu.csc216.collections.list.SortedList;
+import edu.ncsu.csc216.pack_scheduler.user.PasswordHasher;
 import edu.ncsu.csc216.pack_scheduler.user.Student;
 
 /**
@@ -43,8 +43,6 @@ public class StudentRecordIOTest {
 	/** the hash version of the password */
 	private String hashPW;
 
-	/** Algorithm used to has password */
-	private static final String HASH_ALGORITHM = "SHA-256";
 
 	/**
 	 * Resets actual_student_records.txt and replaces the passwords in valid student
@@ -52,17 +50,9 @@ public class StudentRecordIOTest {
 	 */
 	@Before
 	public void setUp() {
-		try {
-			String password = "pw";
-			MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
-			digest.update(password.getBytes());
-			hashPW = new String(digest.digest());
-
-			for (int i = 0; i < validStudents.length; i++) {
-				validStudents[i] = validStudents[i].replace(",pw,", "," + hashPW + ",");
-			}
-		} catch (NoSuchAlgorithmException e) {
-			fail("Unable to create hash during setup");
+		hashPW = PasswordHasher.hash("pw");
+		for (int i = 0; i < validStudents.length; i++) {
+			validStudents[i] = validStudents[i].replace(",pw,", "," + hashPW + ",");
 		}
 		Path source = FileSystems.getDefault().getPath("test-files", "actual_student_records.txt");
 		try {
@@ -0,0 +1,179 @@
+package edu.ncsu.csc216.pack_scheduler.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the AuthenticationPipeline class
+ *
+ * @author Anton Nikulsin
+ */
+public class AuthenticationPipelineTest {
+
+	/** Manager whose users are checked */
+	private RegistrationManager manager;
+
+	/**
+	 * Loads the test students.
+	 */
+	@Before
+	public void setUp() {
+		manager = RegistrationManager.getInstance();
+		manager.clearData();
+		manager.logout();
+		manager.getStudentDirectory().loadStudentsFromFile("test-files/student_records.txt");
+	}
+
+	/**
+	 * Clears the test students.
+	 */
+	@After
+	public void tearDown() {
+		manager.clearData();
+	}
+
+	/**
+	 * Tests that the shared bucket limits attempts across every id, that unknown
+	 * ids do not take from it, and that every attempt is counted.
+	 */
+	@Test
+	public void testGlobalLimit() {
+		AuthenticationPipeline pipeline = new AuthenticationPipeline(manager, 2, 0, 10, 0);
+		assertEquals(AuthenticationPipeline.UNKNOWN_ID, pipeline.authenticate("nobody", "pw").getResult());
+		assertEquals(AuthenticationPipeline.UNKNOWN_ID, pipeline.authenticate("nobody", "pw").getResult());
+
+		AuthenticationPipeline.Outcome outcome = pipeline.authenticate("zking", "pw");
+		assertEquals(AuthenticationPipeline.AUTHENTICATED, outcome.getResult());
+		assertEquals("zking", outcome.getUser().getId());
+		assertEquals(AuthenticationPipeline.WRONG_PASSWORD, pipeline.authenticate("ahicks", "wrong").getResult());
+		outcome = pipeline.authenticate("ahicks", "pw");
+		assertEquals(AuthenticationPipeline.THROTTLED, outcome.getResult());
+		assertNull(outcome.getUser());
+		assertEquals(AuthenticationPipeline.UNKNOWN_ID, pipeline.authenticate("nobody", "pw").getResult());
+
+		assertEquals(6, pipeline.getAttempts());
+		assertEquals(4, pipeline.getFailures());
+		assertEquals(1, pipeline.getThrottled());
+		assertTrue(pipeline.getMaxLatencyNanos() <= pipeline.getTotalLatencyNanos());
+
+		try {
+			new AuthenticationPipeline(manager, 0, 1, 1, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid limit.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that wrong passwords for one id throttle only that id, and that
+	 * reset() forgets wrong passwords.
+	 */
+	@Test
+	public void testIdLimit() {
+		AuthenticationPipeline pipeline = new AuthenticationPipeline(manager, 100, 0, 2, 0);
+		assertEquals(AuthenticationPipeline.WRONG_PASSWORD, pipeline.authenticate("zking", "wrong").getResult());
+		assertEquals(AuthenticationPipeline.WRONG_PASSWORD, pipeline.authenticate("zking", "wrong").getResult());
+		assertEquals(AuthenticationPipeline.THROTTLED, pipeline.authenticate("zking", "pw").getResult());
+		assertEquals(AuthenticationPipeline.AUTHENTICATED, pipeline.authenticate("ahicks", "pw").getResult());
+		assertEquals(AuthenticationPipeline.UNKNOWN_ID, pipeline.authenticate("registrar2", "pw").getResult());
+
+		pipeline.reset();
+		assertEquals(AuthenticationPipeline.AUTHENTICATED, pipeline.authenticate("zking", "pw").getResult());
+		assertEquals(6, pipeline.getAttempts());
+		assertEquals(3, pipeline.getFailures());
+		assertEquals(1, pipeline.getThrottled());
+	}
+
+	/**
+	 * Tests that wrong passwords tried for one id at the same moment are held to
+	 * its burst, including the first ones for an id with no bucket yet.
+	 *
+	 * @throws InterruptedException if interrupted while waiting for the attempts
+	 */
+	@Test
+	public void testIdLimitConcurrent() throws InterruptedException {
+		final AuthenticationPipeline pipeline = new AuthenticationPipeline(manager, 100, 0, 2, 0);
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger wrong = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					if (pipeline.authenticate("zking", "wrong").getResult() == AuthenticationPipeline.WRONG_PASSWORD) {
+						wrong.incrementAndGet();
+					}
+				}
+			});
+			threads[i].start();
+		}
+		start.countDown();
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertEquals(2, wrong.get());
+		assertEquals(6, pipeline.getThrottled());
+		assertEquals(AuthenticationPipeline.THROTTLED, pipeline.authenticate("zking", "pw").getResult());
+	}
+
+	/**
+	 * Tests that an id found to be unknown can log in as soon as it is added.
+	 */
+	@Test
+	public void testAddedAfterUnknown() {
+		AuthenticationPipeline pipeline = new AuthenticationPipeline(manager, 100, 0, 2, 0);
+		assertEquals(AuthenticationPipeline.UNKNOWN_ID, pipeline.authenticate("nstudent", "pw").getResult());
+		assertEquals(AuthenticationPipeline.UNKNOWN_ID, pipeline.authenticate("nstudent", "pw").getResult());
+		assertTrue(manager.getStudentDirectory().addStudent("New", "Student", "nstudent", "nstudent@ncsu.edu", "pw",
+				"pw", 12));
+		assertEquals(AuthenticationPipeline.AUTHENTICATED, pipeline.authenticate("nstudent", "pw").getResult());
+
+		assertTrue(manager.getStudentDirectory().removeStudent("nstudent"));
+		assertEquals(AuthenticationPipeline.UNKNOWN_ID, pipeline.authenticate("nstudent", "pw").getResult());
+	}
+
+	/**
+	 * Tests that login() reports unknown ids and throttled attempts as before,
+	 * through the manager's pipeline.
+	 */
+	@Test
+	public void testManagerLogin() {
+		AuthenticationPipeline pipeline = manager.getAuthentication();
+		long attempts = pipeline.getAttempts();
+		for (int i = 0; i < 5; i++) {
+			assertTrue(!manager.login("zking", "wrong"));
+		}
+		try {
+			manager.login("zking", "pw");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Too many login attempts.", e.getMessage());
+		}
+		try {
+			manager.login("nobody", "pw");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("User doesn't exist.", e.getMessage());
+		}
+		assertEquals(attempts + 7, pipeline.getAttempts());
+
+		manager.clearData();
+		manager.getStudentDirectory().loadStudentsFromFile("test-files/student_records.txt");
+		assertTrue(manager.login("zking", "pw"));
+		manager.logout();
+	}
+}
@@ -5,18 +5,27 @@ import static org.junit.Assert.*;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import edu.ncsu.csc216.pack_scheduler.catalog.CourseCatalog;
 import edu.ncsu.csc216.pack_scheduler.course.Course;
 import edu.ncsu.csc216.pack_scheduler.directory.FacultyDirectory;
 import edu.ncsu.csc216.pack_scheduler.directory.StudentDirectory;
 import edu.ncsu.csc216.pack_scheduler.user.Faculty;
+import edu.ncsu.csc216.pack_scheduler.user.PasswordHasher;
 import edu.ncsu.csc216.pack_scheduler.user.Student;
 import edu.ncsu.csc216.pack_scheduler.user.User;
 import edu.ncsu.csc216.pack_scheduler.user.schedule.Schedule;
@@ -31,13 +40,15 @@ import edu.ncsu.csc216.pack_scheduler.user.schedule.Schedule;
 public class RegistrationManagerTest {
 	
 	private static final String PROP_FILE = "registrar.properties";
-	private static final String HASH_ALGORITHM = "SHA-256";
 	private static final String STUDENT_ID = "zking";
 	private static final String STUDENT_PASS = "pw";
 	private static final String FACULTY_ID = "awitt";
 	private static final String FACULTY_PASS = "pw";
 	private static final int STUDENT_CREDS = 15;
 	private RegistrationManager manager;
+	/** Directory for files written in the background, deleted after each test */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
 	
 	/**
 	 * Sets up the CourseManager and clears the data.
@@ -51,13 +62,7 @@ public class RegistrationManagerTest {
 	}
 	
 	private String hashPW(String pw) {
-		try {
-			MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
-			digest.update(pw.getBytes());
-			return new String(digest.digest());
-		} catch (NoSuchAlgorithmException e) {
-			throw new IllegalArgumentException();
-		}
+		return PasswordHasher.hash(pw);
 	}
 	
 	private boolean loginWithRegistrar(RegistrationManager manager) {
@@ -126,6 +131,30 @@ public class RegistrationManagerTest {
 		}
 	}
 
+	/**
+	 * Tests that a legacy password hash still logs in and is replaced with a hex
+	 * hash once it has.
+	 */
+	@Test
+	public void testLoginMigratesLegacyHash() {
+		String legacy = new String(sha256(STUDENT_PASS));
+		Student s = new Student("Zahir", "King", STUDENT_ID, "orci.Donec@ametmassaQuisque.com", legacy, STUDENT_CREDS);
+		manager.getStudentDirectory().addStudent(s);
+		assertNull(manager.authenticate(STUDENT_ID, "wrong"));
+		assertEquals(legacy, s.getPassword());
+		assertEquals(s, manager.authenticate(STUDENT_ID, STUDENT_PASS));
+		assertEquals(hashPW(STUDENT_PASS), s.getPassword());
+		assertEquals(s, manager.authenticate(STUDENT_ID, STUDENT_PASS));
+	}
+
+	private byte[] sha256(String pw) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(pw.getBytes());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalArgumentException();
+		}
+	}
+
 	/**
 	 * Tests that RegistrationManager.logout() works as per the lab requirements
 	 */
@@ -239,6 +268,66 @@ public class RegistrationManagerTest {
 	    manager.logout();
 	}
 
+	/**
+	 * Tests that concurrent RegistrationManager.enrollStudentInCourse() calls for
+	 * different students never overfill a course's roll or waitlist.
+	 * 
+	 * @throws InterruptedException if interrupted while waiting for the threads
+	 */
+	@Test
+	public void testConcurrentEnrollStudentInCourse() throws InterruptedException {
+	    final Course c = new Course("CSC216", "Programming Concepts - Java", "001", 4, null, 10, "TH", 1330, 1445);
+	    final int numStudents = 50;
+	    final Student[] students = new Student[numStudents];
+	    final boolean[] enrolled = new boolean[numStudents];
+	    for (int i = 0; i < numStudents; i++) {
+	        students[i] = new Student("first" + i, "last" + i, "id" + i, "email" + i + "@ncsu.edu", "pw");
+	    }
+	    
+	    final CountDownLatch start = new CountDownLatch(1);
+	    Thread[] threads = new Thread[numStudents];
+	    for (int i = 0; i < numStudents; i++) {
+	        final int idx = i;
+	        threads[i] = new Thread(new Runnable() {
+	            @Override
+	            public void run() {
+	                try {
+	                    start.await();
+	                } catch (InterruptedException e) {
+	                    return;
+	                }
+	                enrolled[idx] = manager.enrollStudentInCourse(students[idx], c);
+	            }
+	        });
+	        threads[i].start();
+	    }
+	    start.countDown();
+	    for (Thread t : threads) {
+	        t.join();
+	    }
+	    
+	    int accepted = 0;
+	    for (int i = 0; i < numStudents; i++) {
+	        if (enrolled[i]) {
+	            accepted++;
+	            assertEquals(1, students[i].getSchedule().getScheduledCourses().length);
+	        } else {
+	            assertEquals(0, students[i].getSchedule().getScheduledCourses().length);
+	        }
+	    }
+	    assertEquals(20, accepted);
+	    assertEquals(0, c.getCourseRoll().getOpenSeats());
+	    assertEquals(10, c.getCourseRoll().getNumberOnWaitlist());
+	    
+	    //Only a student can enroll
+	    try {
+	        manager.enrollStudentInCourse(null, c);
+	        fail();
+	    } catch (IllegalArgumentException e) {
+	        assertEquals("Illegal Action", e.getMessage());
+	    }
+	}
+
 	/**
 	 * Tests RegistrationManager.dropStudentFromCourse()
 	 */
@@ -572,4 +661,295 @@ public class RegistrationManagerTest {
 	    
 	}
 	
+	/**
+	 * Tests that changes recorded in a journal are replayed onto the same data
+	 * when the journal is opened again.
+	 * 
+	 * @throws IOException if the journal cannot be deleted
+	 */
+	@Test
+	public void testOpenJournal() throws IOException {
+		String journalFile = "test-files/actual_registration_journal.bin";
+		Files.deleteIfExists(Paths.get(journalFile));
+		loadJournalTestData();
+		assertEquals(0, manager.openJournal(journalFile));
+
+		CourseCatalog catalog = manager.getCourseCatalog();
+		StudentDirectory students = manager.getStudentDirectory();
+		Faculty awitt = manager.getFacultyDirectory().getFacultyById("awitt");
+		Course csc216 = catalog.getCourseFromCatalog("CSC216", "001");
+		assertTrue(catalog.addCourseToCatalog("CSC316", "Data Structures", "001", 3, null, 10, "MW", 830, 945));
+		Course csc316 = catalog.getCourseFromCatalog("CSC316", "001");
+		assertTrue(students.addStudent("New", "Student", "nstudent", "nstudent@ncsu.edu", "pw", "pw", 12));
+		assertTrue(manager.enrollStudentInCourse(students.getStudentById("daustin"), csc316));
+		assertTrue(manager.enrollStudentInCourse(students.getStudentById("nstudent"), csc316));
+		assertTrue(manager.enrollStudentInCourse(students.getStudentById("lberg"), csc216));
+		assertTrue(manager.dropStudentFromCourse(students.getStudentById("daustin"), csc316));
+		// A second drop changes nothing and is not journaled
+		assertFalse(manager.dropStudentFromCourse(students.getStudentById("daustin"), csc316));
+		assertTrue(students.removeStudent("rbrennan"));
+		manager.logout();
+		manager.login("registrar", "Regi5tr@r");
+		assertTrue(manager.addFacultyToCourse(csc316, awitt));
+		manager.logout();
+		manager.closeJournal();
+
+		// Start again from the same files and replay the journal
+		manager.clearData();
+		loadJournalTestData();
+		assertEquals(8, manager.openJournal(journalFile));
+		catalog = manager.getCourseCatalog();
+		students = manager.getStudentDirectory();
+		csc316 = catalog.getCourseFromCatalog("CSC316", "001");
+		assertNotNull(csc316);
+		assertNull(students.getStudentById("rbrennan"));
+		Student nstudent = students.getStudentById("nstudent");
+		assertEquals(hashPW("pw"), nstudent.getPassword());
+		assertEquals(9, csc316.getCourseRoll().getOpenSeats());
+		assertEquals(1, nstudent.getSchedule().getScheduledCourses().length);
+		assertEquals(0, students.getStudentById("daustin").getSchedule().getScheduledCourses().length);
+		assertEquals(1, students.getStudentById("lberg").getSchedule().getScheduledCourses().length);
+		assertEquals("awitt", csc316.getInstructorId());
+
+		// Changes after replay are appended to the same journal
+		assertTrue(manager.dropStudentFromCourse(nstudent, csc316));
+		manager.closeJournal();
+		manager.clearData();
+		loadJournalTestData();
+		assertEquals(9, manager.openJournal(journalFile));
+		assertEquals(10, manager.getCourseCatalog().getCourseFromCatalog("CSC316", "001").getCourseRoll()
+				.getOpenSeats());
+		manager.closeJournal();
+		Files.delete(Paths.get(journalFile));
+	}
+
+	/**
+	 * Loads the faculty, students, and courses used by the journal test.
+	 */
+	private void loadJournalTestData() {
+		manager.getFacultyDirectory().loadFacultyFromFile("test-files/faculty_records_extended.txt");
+		manager.getStudentDirectory().loadStudentsFromFile("test-files/student_records.txt");
+		manager.getCourseCatalog().loadCoursesFromFile("test-files/course_records.txt");
+	}
+
+	/**
+	 * Tests that a snapshot replaces the older journal segments, and that
+	 * recovery restores the snapshot and replays the segment written after it.
+	 * 
+	 * @throws Exception if the files cannot be written or deleted
+	 */
+	@Test
+	public void testTakeSnapshot() throws Exception {
+		// A periodic snapshot may still be writing after the journal is closed, so
+		// its files go in a folder of their own rather than test-files
+		String snapshotFile = folder.getRoot().getPath() + "/actual_snapshot_state.bin";
+		String prefix = folder.getRoot().getPath() + "/actual_snapshot_journal";
+		try {
+			manager.takeSnapshot();
+			fail();
+		} catch (IllegalArgumentException e) {
+			// no journal opened by recover()
+		}
+		loadJournalTestData();
+		assertEquals(0, manager.recover(snapshotFile, prefix));
+		assertTrue(Files.exists(Paths.get(prefix + ".0")));
+
+		StudentDirectory students = manager.getStudentDirectory();
+		Course csc216 = manager.getCourseCatalog().getCourseFromCatalog("CSC216", "001");
+		assertTrue(manager.enrollStudentInCourse(students.getStudentById("daustin"), csc216));
+		manager.takeSnapshot().get();
+		assertTrue(Files.exists(Paths.get(snapshotFile)));
+		assertFalse(Files.exists(Paths.get(prefix + ".0")));
+
+		// Later changes go to the new segment
+		assertTrue(manager.enrollStudentInCourse(students.getStudentById("lberg"), csc216));
+		assertTrue(students.removeStudent("rbrennan"));
+		manager.closeJournal();
+
+		// Recovery needs neither the data files nor the older segment
+		manager.clearData();
+		assertEquals(2, manager.recover(snapshotFile, prefix));
+		students = manager.getStudentDirectory();
+		csc216 = manager.getCourseCatalog().getCourseFromCatalog("CSC216", "001");
+		assertEquals(8, csc216.getCourseRoll().getOpenSeats());
+		assertEquals(1, students.getStudentById("daustin").getSchedule().getScheduledCourses().length);
+		assertEquals(1, students.getStudentById("lberg").getSchedule().getScheduledCourses().length);
+		assertNull(students.getStudentById("rbrennan"));
+		assertEquals("sesmith5", csc216.getInstructorId());
+
+		// Periodic snapshots keep going until stopped
+		manager.startSnapshots(10, TimeUnit.MILLISECONDS);
+		long deadline = System.currentTimeMillis() + 10000;
+		while (Files.exists(Paths.get(prefix + ".1")) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		manager.closeJournal();
+		assertFalse(Files.exists(Paths.get(prefix + ".1")));
+		try {
+			manager.takeSnapshot().get();
+			fail();
+		} catch (IllegalArgumentException e) {
+			// closing the journal stops snapshots
+		} catch (ExecutionException e) {
+			fail();
+		}
+	}
+
+	/**
+	 * Tests that saved enrollments are restored onto freshly loaded data.
+	 * 
+	 * @throws IOException if the file cannot be deleted
+	 */
+	@Test
+	public void testSaveEnrollments() throws IOException {
+		String enrollmentFile = "test-files/actual_manager_enrollments.txt";
+		loadJournalTestData();
+		StudentDirectory students = manager.getStudentDirectory();
+		Course csc216 = manager.getCourseCatalog().getCourseFromCatalog("CSC216", "001");
+		assertTrue(manager.enrollStudentInCourse(students.getStudentById("daustin"), csc216));
+		assertTrue(manager.enrollStudentInCourse(students.getStudentById("lberg"), csc216));
+		manager.saveEnrollments(enrollmentFile);
+
+		manager.clearData();
+		loadJournalTestData();
+		assertEquals(2, manager.loadEnrollmentsFromFile(enrollmentFile));
+		csc216 = manager.getCourseCatalog().getCourseFromCatalog("CSC216", "001");
+		assertEquals(8, csc216.getCourseRoll().getOpenSeats());
+		assertEquals(1, manager.getStudentDirectory().getStudentById("lberg").getSchedule()
+				.getScheduledCourses().length);
+		Files.delete(Paths.get(enrollmentFile));
+
+		try {
+			manager.loadEnrollmentsFromFile("test-files/no_such_file.txt");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to read file test-files/no_such_file.txt", e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that users logged in through sessions act at the same time, each
+	 * with their own permissions, while no user is logged in through login().
+	 */
+	@Test
+	public void testSessions() {
+		manager.getFacultyDirectory().loadFacultyFromFile("test-files/faculty_records_extended.txt");
+		manager.getStudentDirectory().loadStudentsFromFile("test-files/student_records.txt");
+		manager.getCourseCatalog().loadCoursesFromFile("test-files/course_records.txt");
+		Course c = manager.getCourseCatalog().getCourseFromCatalog("CSC116", "001");
+		c.setInstructorId(null);
+		Faculty f = manager.getFacultyDirectory().getFacultyById("awitt");
+
+		SessionManager sessions = manager.getSessions();
+		String registrarToken = sessions.open(manager.authenticate("registrar", "Regi5tr@r"));
+		String studentToken = sessions.open(manager.authenticate(STUDENT_ID, STUDENT_PASS));
+		assertEquals(2, sessions.size());
+		assertNull(manager.getCurrentUser());
+
+		User student = sessions.getUser(studentToken);
+		try {
+			manager.addFacultyToCourse(student, c, f);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Illegal Action", e.getMessage());
+		}
+		User registrar = sessions.getUser(registrarToken);
+		assertTrue(manager.addFacultyToCourse(registrar, c, f));
+		assertTrue(manager.enrollStudentInCourse(student, c));
+		assertEquals(1, f.getSchedule().getNumScheduledCourses());
+		assertTrue(manager.removeFacultyFromCourse(registrar, c, f));
+		assertTrue(manager.addFacultyToCourse(registrar, c, f));
+		manager.resetFacultySchedule(registrar, f);
+		assertEquals(0, f.getSchedule().getNumScheduledCourses());
+
+		assertTrue(sessions.close(studentToken));
+		assertNull(sessions.getUser(studentToken));
+		manager.clearData();
+		assertNull(sessions.getUser(registrarToken));
+	}
+
+	/**
+	 * Tests that a batch is enrolled only if every course in it can be added,
+	 * and that each course's result is reported.
+	 */
+	@Test
+	public void testEnrollStudentInCourses() {
+		manager.getStudentDirectory().loadStudentsFromFile("test-files/student_records.txt");
+		CourseCatalog catalog = manager.getCourseCatalog();
+		catalog.loadCoursesFromFile("test-files/course_records.txt");
+		StudentDirectory students = manager.getStudentDirectory();
+		Student zking = students.getStudentById(STUDENT_ID);
+		Course csc116001 = catalog.getCourseFromCatalog("CSC116", "001");
+		Course csc116003 = catalog.getCourseFromCatalog("CSC116", "003");
+		Course csc216001 = catalog.getCourseFromCatalog("CSC216", "001");
+		Course csc216002 = catalog.getCourseFromCatalog("CSC216", "002");
+		Course csc226 = catalog.getCourseFromCatalog("CSC226", "001");
+		Course csc230 = catalog.getCourseFromCatalog("CSC230", "001");
+
+		EnrollmentReport report = manager.enrollStudentInCourses(zking, Arrays.asList(csc216001, csc226, csc230));
+		assertTrue(report.isCommitted());
+		assertEquals(3, report.getCourses().size());
+		for (int i = 0; i < 3; i++) {
+			assertEquals(EnrollmentReport.ENROLLED, report.getResult(i));
+		}
+		assertEquals(10, zking.getSchedule().getScheduleCredits());
+		assertEquals(9, csc226.getCourseRoll().getOpenSeats());
+
+		// would fit, has the name of CSC216 001, and conflicts with CSC226
+		report = manager.enrollStudentInCourses(zking, Arrays.asList(csc116003, csc216002, csc116001));
+		assertFalse(report.isCommitted());
+		assertEquals(EnrollmentReport.ENROLLED, report.getResult(0));
+		assertEquals(EnrollmentReport.DUPLICATE, report.getResult(1));
+		assertEquals(EnrollmentReport.CONFLICT, report.getResult(2));
+		assertEquals(3, zking.getSchedule().getScheduledCourses().length);
+		assertEquals(10, csc116003.getCourseRoll().getOpenSeats());
+
+		// checked against each other within the batch
+		Student ahicks = students.getStudentById("ahicks");
+		report = manager.enrollStudentInCourses(ahicks, Arrays.asList(csc116001, csc226, csc216001, csc216002));
+		assertFalse(report.isCommitted());
+		assertEquals(EnrollmentReport.ENROLLED, report.getResult(0));
+		assertEquals(EnrollmentReport.CONFLICT, report.getResult(1));
+		assertEquals(EnrollmentReport.ENROLLED, report.getResult(2));
+		assertEquals(EnrollmentReport.DUPLICATE, report.getResult(3));
+		assertEquals(0, ahicks.getSchedule().getScheduledCourses().length);
+
+		// efrost may take 3 credits
+		Student efrost = students.getStudentById("efrost");
+		report = manager.enrollStudentInCourses(efrost, Arrays.asList(csc226, csc230));
+		assertFalse(report.isCommitted());
+		assertEquals(EnrollmentReport.ENROLLED, report.getResult(0));
+		assertEquals(EnrollmentReport.CREDIT_LIMIT, report.getResult(1));
+		assertEquals(9, csc230.getCourseRoll().getOpenSeats());
+
+		// a full roll waitlists, and a full waitlist rejects
+		for (int i = 0; i < 9; i++) {
+			csc230.getCourseRoll().enroll(new Student("First", "Last", "roll" + i, "roll" + i + "@ncsu.edu", "pw"));
+		}
+		report = manager.enrollStudentInCourses(ahicks, Arrays.asList(csc116003, csc230));
+		assertTrue(report.isCommitted());
+		assertEquals(EnrollmentReport.ENROLLED, report.getResult(0));
+		assertEquals(EnrollmentReport.WAITLISTED, report.getResult(1));
+		assertEquals(1, csc230.getCourseRoll().getNumberOnWaitlist());
+		for (int i = 0; i < 9; i++) {
+			csc230.getCourseRoll().enroll(new Student("First", "Last", "wait" + i, "wait" + i + "@ncsu.edu", "pw"));
+		}
+		report = manager.enrollStudentInCourses(efrost, Arrays.asList(csc230));
+		assertFalse(report.isCommitted());
+		assertEquals(EnrollmentReport.FULL, report.getResult(0));
+
+		try {
+			manager.enrollStudentInCourses(zking, null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid course.", e.getMessage());
+		}
+		try {
+			manager.enrollStudentInCourses(Arrays.asList(csc116003));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Illegal Action", e.getMessage());
+		}
+	}
+
 }
@@ -0,0 +1,135 @@
+package edu.ncsu.csc216.pack_scheduler.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.pack_scheduler.user.Student;
+import edu.ncsu.csc216.pack_scheduler.user.User;
+
+/**
+ * Tests the SessionManager class
+ *
+ * @author Anton Nikulsin
+ */
+public class SessionManagerTest {
+
+	/** A student to log in */
+	private final User zking = new Student("Zahir", "King", "zking", "zking@ncsu.edu", "pw", 15);
+	/** Another student to log in */
+	private final User ahicks = new Student("Ashely", "Hicks", "ahicks", "ahicks@ncsu.edu", "pw", 15);
+
+	/**
+	 * A session manager whose time only moves when a test moves it.
+	 */
+	private static class ManualClockSessionManager extends SessionManager {
+
+		/** The current time in nanoseconds */
+		private long time;
+
+		/**
+		 * Creates a session manager.
+		 *
+		 * @param idleMillis time a session may go unused
+		 * @param tickMillis time each slot of the wheel covers
+		 */
+		ManualClockSessionManager(long idleMillis, long tickMillis) {
+			super(idleMillis, tickMillis);
+		}
+
+		/**
+		 * Moves time forward.
+		 *
+		 * @param millis the time to move forward by, in milliseconds
+		 */
+		void sleep(long millis) {
+			time += TimeUnit.MILLISECONDS.toNanos(millis);
+		}
+
+		@Override
+		long now() {
+			return time;
+		}
+	}
+
+	/**
+	 * Tests opening, looking up and closing sessions.
+	 */
+	@Test
+	public void testOpenAndClose() {
+		SessionManager sessions = new SessionManager();
+		String first = sessions.open(zking);
+		String second = sessions.open(zking);
+		String third = sessions.open(ahicks);
+		assertFalse(first.equals(second));
+		assertEquals(3, sessions.size());
+		assertEquals(zking, sessions.getUser(first));
+		assertEquals(ahicks, sessions.getUser(third));
+		assertNull(sessions.getUser("bad"));
+		assertNull(sessions.getUser(null));
+
+		assertTrue(sessions.close(first));
+		assertFalse(sessions.close(first));
+		assertNull(sessions.getUser(first));
+		assertEquals(zking, sessions.getUser(second));
+		sessions.closeAll();
+		assertEquals(0, sessions.size());
+
+		try {
+			sessions.open(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid user.", e.getMessage());
+		}
+		try {
+			new SessionManager(1000, 2000);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid session time.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that sessions end once unused for the idle time, that using a
+	 * session keeps it open, and that the wheel catches up after a long gap.
+	 */
+	@Test
+	public void testIdleExpiry() {
+		ManualClockSessionManager sessions = new ManualClockSessionManager(10000, 1000);
+		String used = sessions.open(zking);
+		sessions.sleep(500);
+		String unused = sessions.open(ahicks);
+
+		sessions.sleep(6000);
+		assertEquals(zking, sessions.getUser(used));
+		sessions.sleep(3999);
+		assertEquals(0, sessions.expireIdleSessions());
+		assertEquals(2, sessions.size());
+		sessions.sleep(1);
+		// unused for exactly the idle time, which a lookup finds at once
+		assertNull(sessions.getUser(unused));
+		assertEquals(1, sessions.size());
+
+		sessions.sleep(6000);
+		// the wheel ends an idle session by the end of the tick it went idle in
+		assertEquals(0, sessions.expireIdleSessions());
+		sessions.sleep(500);
+		assertEquals(1, sessions.expireIdleSessions());
+		assertNull(sessions.getUser(used));
+		assertEquals(0, sessions.size());
+
+		for (int i = 0; i < 5; i++) {
+			sessions.open(zking);
+			sessions.sleep(700);
+		}
+		sessions.sleep(TimeUnit.HOURS.toMillis(5));
+		assertEquals(5, sessions.expireIdleSessions());
+		assertEquals(0, sessions.size());
+	}
+}
@@ -0,0 +1,231 @@
+package edu.ncsu.csc216.pack_scheduler.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc216.pack_scheduler.manager.RegistrationManager;
+
+/**
+ * Tests the RegistrationServer class by sending it HTTP requests
+ *
+ * @author Anton Nikulsin
+ */
+public class RegistrationServerTest {
+
+	/** Manager behind the server */
+	private RegistrationManager manager;
+	/** Server under test */
+	private RegistrationServer server;
+
+	/**
+	 * Loads the test students and courses and starts a server on a free port.
+	 *
+	 * @throws Exception if the server cannot start
+	 */
+	@Before
+	public void setUp() throws Exception {
+		manager = RegistrationManager.getInstance();
+		manager.clearData();
+		manager.logout();
+		manager.getStudentDirectory().loadStudentsFromFile("test-files/student_records.txt");
+		manager.getCourseCatalog().loadCoursesFromFile("test-files/course_records.txt");
+		server = new RegistrationServer(manager);
+		server.start(0);
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@After
+	public void tearDown() {
+		server.stop();
+		manager.clearData();
+	}
+
+	/**
+	 * Tests logging in, enrolling, dropping and resetting through the server.
+	 *
+	 * @throws IOException if a request fails
+	 */
+	@Test
+	public void testRegistration() throws IOException {
+		Response r = send("POST", "/login", "id=zking&password=wrong");
+		assertEquals(401, r.status);
+		r = send("POST", "/login", "id=nobody&password=pw");
+		assertEquals(401, r.status);
+
+		r = send("POST", "/login", "id=zking&password=pw");
+		assertEquals(200, r.status);
+		String zking = token(r.body);
+		r = send("POST", "/login", "id=ahicks&password=pw");
+		String ahicks = token(r.body);
+		assertFalse(zking.equals(ahicks));
+		assertNull(manager.getCurrentUser());
+
+		r = send("POST", "/enroll", "token=" + zking + "&name=CSC216&section=001");
+		assertEquals(200, r.status);
+		assertEquals("{\"enrolled\":true}", r.body);
+		r = send("POST", "/enroll", "token=" + ahicks + "&name=CSC216&section=001");
+		assertEquals("{\"enrolled\":true}", r.body);
+		r = send("POST", "/enroll", "token=" + zking + "&name=CSC216&section=001");
+		assertEquals("{\"enrolled\":false}", r.body);
+		r = send("POST", "/enroll", "token=" + zking + "&name=CSC226&section=001");
+		assertEquals("{\"enrolled\":true}", r.body);
+
+		r = send("GET", "/schedule?token=" + zking, null);
+		assertEquals(200, r.status);
+		assertTrue(r.body.contains("\"name\":\"CSC216\",\"section\":\"001\""));
+		assertTrue(r.body.contains("\"name\":\"CSC226\""));
+		assertEquals(8, manager.getCourseCatalog().getCourseFromCatalog("CSC216", "001").getCourseRoll().getOpenSeats());
+
+		r = send("POST", "/drop", "token=" + ahicks + "&name=CSC216&section=001");
+		assertEquals("{\"dropped\":true}", r.body);
+		r = send("POST", "/reset", "token=" + zking);
+		assertEquals("{\"reset\":true}", r.body);
+		r = send("GET", "/schedule?token=" + zking, null);
+		assertEquals("{\"courses\":[]}", r.body);
+		assertEquals(10, manager.getCourseCatalog().getCourseFromCatalog("CSC216", "001").getCourseRoll().getOpenSeats());
+
+		r = send("POST", "/logout", "token=" + zking);
+		assertEquals("{\"loggedOut\":true}", r.body);
+		r = send("POST", "/enroll", "token=" + zking + "&name=CSC216&section=001");
+		assertEquals(401, r.status);
+	}
+
+	/**
+	 * Tests that repeated wrong passwords for one id are rejected.
+	 *
+	 * @throws IOException if a request fails
+	 */
+	@Test
+	public void testLoginThrottled() throws IOException {
+		for (int i = 0; i < 5; i++) {
+			assertEquals(401, send("POST", "/login", "id=ahicks&password=wrong").status);
+		}
+		Response r = send("POST", "/login", "id=ahicks&password=pw");
+		assertEquals(429, r.status);
+		assertEquals("{\"error\":\"Too many login attempts.\"}", r.body);
+		assertEquals(200, send("POST", "/login", "id=zking&password=pw").status);
+	}
+
+	/**
+	 * Tests the catalog listing and requests that cannot be completed.
+	 *
+	 * @throws IOException if a request fails
+	 */
+	@Test
+	public void testInvalidRequests() throws IOException {
+		Response r = send("GET", "/catalog", null);
+		assertEquals(200, r.status);
+		assertTrue(r.body.startsWith("{\"courses\":[{\"name\":\"CSC116\""));
+
+		assertEquals(404, send("GET", "/missing", null).status);
+		assertEquals(405, send("GET", "/enroll", null).status);
+		assertEquals(400, send("POST", "/enroll", "name=CSC216&section=001").status);
+		assertEquals(401, send("POST", "/enroll", "token=bad&name=CSC216&section=001").status);
+
+		String token = token(send("POST", "/login", "id=zking&password=pw").body);
+		r = send("POST", "/enroll", "token=" + token + "&name=CSC999&section=001");
+		assertEquals(404, r.status);
+		assertEquals("{\"error\":\"Course not found.\"}", r.body);
+	}
+
+	/**
+	 * Tests that stopping a server leaves the manager's other sessions open.
+	 *
+	 * @throws IOException if a request fails
+	 */
+	@Test
+	public void testStopKeepsSessions() throws IOException {
+		String other = manager.getSessions().open(manager.getStudentDirectory().getStudentById("zking"));
+		assertEquals(200, send("POST", "/login", "id=ahicks&password=pw").status);
+		server.stop();
+		assertEquals("zking", manager.getSessions().getUser(other).getId());
+	}
+
+	/**
+	 * Tests that a request whose body ends early is answered with an error.
+	 *
+	 * @throws IOException if the request cannot be sent
+	 */
+	@Test
+	public void testTruncatedBody() throws IOException {
+		try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+			socket.setSoTimeout(5000);
+			OutputStream out = socket.getOutputStream();
+			out.write(("POST /login HTTP/1.1\r\nHost: localhost\r\nContent-Length: 100\r\n\r\nid=zking")
+					.getBytes("UTF-8"));
+			out.flush();
+			socket.shutdownOutput();
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+			assertEquals("HTTP/1.1 400 Bad Request", in.readLine());
+		}
+	}
+
+	/**
+	 * Pulls the session token out of a login response.
+	 *
+	 * @param body the login response
+	 * @return the token
+	 */
+	private static String token(String body) {
+		int start = body.indexOf("\"token\":\"") + "\"token\":\"".length();
+		return body.substring(start, body.indexOf('"', start));
+	}
+
+	/**
+	 * Sends a request to the server.
+	 *
+	 * @param method the HTTP method
+	 * @param path   the path and query string
+	 * @param form   the form encoded body, or null for none
+	 * @return the response
+	 * @throws IOException if the request fails
+	 */
+	private Response send(String method, String path, String form) throws IOException {
+		URL url = new URL("http://127.0.0.1:" + server.getPort() + path);
+		HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+		conn.setRequestMethod(method);
+		if (form != null) {
+			conn.setDoOutput(true);
+			OutputStream out = conn.getOutputStream();
+			out.write(form.getBytes("UTF-8"));
+			out.close();
+		}
+		Response r = new Response();
+		r.status = conn.getResponseCode();
+		InputStream in = r.status < 400 ? conn.getInputStream() : conn.getErrorStream();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			body.write(buffer, 0, read);
+		}
+		in.close();
+		r.body = body.toString("UTF-8");
+		return r;
+	}
+
+	/**
+	 * An HTTP response status and body
+	 */
+	private static class Response {
+		/** The HTTP status */
+		private int status;
+		/** The response body */
+		private String body;
+	}
+}
@@ -0,0 +1,63 @@
+package edu.ncsu.csc216.pack_scheduler.user;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+/**
+ * Tests the PasswordHasher class
+ *
+ * @author Anton Nikulsin
+ */
+public class PasswordHasherTest {
+
+	/** SHA-256 of "pw" in hex */
+	private static final String PW_HASH = "30c952fab122c3f9759f02a6d95c3758b246b4fee239957b2d4fee46e26170c4";
+
+	/**
+	 * Tests hashing and matching hex hashes.
+	 */
+	@Test
+	public void testHash() {
+		assertEquals(PW_HASH, PasswordHasher.hash("pw"));
+		assertFalse(PasswordHasher.isLegacy(PW_HASH));
+		assertTrue(PasswordHasher.matches("pw", PW_HASH));
+		assertFalse(PasswordHasher.matches("pW", PW_HASH));
+		assertFalse(PasswordHasher.matches(null, PW_HASH));
+		assertFalse(PasswordHasher.matches("pw", null));
+		try {
+			PasswordHasher.hash("");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid password", e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that legacy hashes still match and are migrated when their digest
+	 * can be recovered.
+	 */
+	@Test
+	public void testLegacy() {
+		String legacy = PasswordHasher.legacyHash("pw");
+		assertTrue(PasswordHasher.isLegacy(legacy));
+		assertTrue(PasswordHasher.matches("pw", legacy));
+		assertFalse(PasswordHasher.matches("pw2", legacy));
+		assertEquals(PW_HASH, PasswordHasher.migrate(PW_HASH));
+
+		// Whether the digest survived depends on the charset it was decoded with
+		Charset charset = Charset.defaultCharset();
+		boolean recoverable = legacy.indexOf('\ufffd') < 0
+				&& new String(legacy.getBytes(charset), charset).equals(legacy);
+		assertEquals(recoverable ? PW_HASH : legacy, PasswordHasher.migrate(legacy));
+
+		// A legacy hash decoded with replacement characters cannot be recovered
+		String damaged = "\ufffd" + legacy.substring(1);
+		assertEquals(damaged, PasswordHasher.migrate(damaged));
+	}
+}
@@ -93,5 +93,47 @@ public class ScheduleTest {
 		// Assert that a Course with a time conflict cannot be added to the Schedule
 		assertFalse(mySched.canAdd(COURSE_3));
 	}
-	
+
+	/**
+	 * Tests that the credit total and the scheduled names follow each add,
+	 * remove and reset
+	 */
+	@Test
+	public void testRunningCredits() {
+		Schedule mySched = new Schedule();
+		assertEquals(0, mySched.getScheduleCredits());
+		assertFalse(mySched.hasCourseNamed("CSC216"));
+		mySched.addCourseToSchedule(COURSE_1);
+		mySched.addCourseToSchedule(COURSE_2);
+		assertEquals(7, mySched.getScheduleCredits());
+		assertTrue(mySched.hasCourseNamed("CSC216"));
+
+		// Another section of a scheduled Course is not removed
+		Course otherSection = new Course("CSC216", "Programming Concepts - Java", "002", 4, "sesmith4", 50, "F", 800,
+				900);
+		assertFalse(mySched.canAdd(otherSection));
+		assertFalse(mySched.removeCourseFromSchedule(otherSection));
+		assertFalse(mySched.removeCourseFromSchedule(COURSE_3));
+		assertEquals(7, mySched.getScheduleCredits());
+
+		assertTrue(mySched.removeCourseFromSchedule(COURSE_1));
+		assertEquals(3, mySched.getScheduleCredits());
+		assertFalse(mySched.hasCourseNamed("CSC216"));
+		assertTrue(mySched.canAdd(otherSection));
+
+		// A Course counts the credits it had when it was added
+		Course changing = new Course("CSC316", "Data Structures and Algorithms", "001", 3, null, 50, "F", 1000, 1100);
+		mySched.addCourseToSchedule(changing);
+		changing.setCredits(4);
+		assertEquals(6, mySched.getScheduleCredits());
+		assertTrue(mySched.removeCourseFromSchedule(changing));
+		assertEquals(3, mySched.getScheduleCredits());
+
+		mySched.resetSchedule();
+		assertEquals(0, mySched.getScheduleCredits());
+		assertFalse(mySched.hasCourseNamed("CSC116"));
+		assertTrue(mySched.addCourseToSchedule(COURSE_2));
+		assertEquals(3, mySched.getScheduleCredits());
+	}
+
 }
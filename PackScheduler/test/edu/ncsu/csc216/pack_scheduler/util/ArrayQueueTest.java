@@ -54,4 +54,67 @@ public class ArrayQueueTest {
 			assertTrue(queue.isEmpty());
 		}
 	}
+
+	/**
+	 * Tests that elements keep their order as the front of the queue wraps around
+	 * the end of the array and the array grows past its initial length.
+	 */
+	@Test
+	public void testWrapAroundAndGrow() {
+		ArrayQueue<Integer> queue = new ArrayQueue<Integer>(100);
+		int next = 0;
+		int expected = 0;
+		for (int round = 0; round < 20; round++) {
+			for (int i = 0; i < 4; i++) {
+				queue.enqueue(next++);
+			}
+			for (int i = 0; i < 3; i++) {
+				assertEquals(Integer.valueOf(expected++), queue.dequeue());
+			}
+		}
+		assertEquals(20, queue.size());
+		for (int i = 0; i < 80; i++) {
+			queue.enqueue(next++);
+		}
+		assertEquals(100, queue.size());
+		try {
+			queue.enqueue(next);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(100, queue.size());
+		}
+		queue.setCapacity(101);
+		queue.enqueue(next++);
+		while (!queue.isEmpty()) {
+			assertEquals(Integer.valueOf(expected++), queue.dequeue());
+		}
+		assertEquals(next, expected);
+	}
+
+	/**
+	 * Tests that null elements and negative capacities are rejected.
+	 */
+	@Test
+	public void testInvalid() {
+		try {
+			new ArrayQueue<String>(-1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		ArrayQueue<String> queue = new ArrayQueue<String>(0);
+		try {
+			queue.enqueue("full");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertTrue(queue.isEmpty());
+		}
+		queue.setCapacity(1);
+		try {
+			queue.enqueue(null);
+			fail();
+		} catch (NullPointerException e) {
+			assertTrue(queue.isEmpty());
+		}
+	}
 }
@@ -155,6 +155,58 @@ public class LinkedListTest {
 		}
 	}
 	
+	/**
+	 * Tests that contains() and the duplicate checks follow every add, remove and set, including those made through
+	 * the iterator.
+	 */
+	@Test
+	public void testContains() {
+		LinkedList<String> newList = new LinkedList<String>();
+		assertFalse(newList.contains(str1));
+		assertFalse(newList.contains(null));
+		newList.add(str1);
+		newList.add(str2);
+		assertTrue(newList.contains(str1));
+		try {
+			newList.add(str1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(2, newList.size());
+		}
+
+		// Replacing an element frees it to be added again
+		assertEquals(str1, newList.set(0, str3));
+		assertFalse(newList.contains(str1));
+		assertTrue(newList.contains(str3));
+		try {
+			newList.set(1, str3);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(str2, newList.get(1));
+		}
+		newList.add(str1);
+
+		assertEquals(str2, newList.remove(1));
+		assertFalse(newList.contains(str2));
+		newList.add(0, str2);
+
+		ListIterator<String> iterator = newList.listIterator();
+		iterator.next();
+		iterator.set(str4);
+		assertFalse(newList.contains(str2));
+		assertTrue(newList.contains(str4));
+		iterator.next();
+		iterator.remove();
+		assertFalse(newList.contains(str3));
+		iterator.add(str2);
+		assertTrue(newList.contains(str2));
+
+		newList.clear();
+		assertEquals(0, newList.size());
+		assertFalse(newList.contains(str1));
+		assertFalse(newList.contains(str4));
+	}
+
 	/**
 	 * Tests various LinkedListIterator methods
 	 */